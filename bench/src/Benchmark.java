@@ -0,0 +1,1461 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Micro-benchmarks for the hot paths of the game.
+ * The project is built without a build tool, so this is a small stand-alone
+ * harness instead of JMH: every case is warmed up first, then timed over
+ * several measurement runs, and its results are folded into a sink so that
+ * the JIT compiler cannot remove the measured work.
+ *
+ * Besides timings, "alloc.game" and "alloc.kernel" check with
+ * ThreadMXBean.getThreadAllocatedBytes that a reused GameEngine and a reused
+ * PlayoutKernel allocate nothing after warm-up, "alloc.bot" that a bot without a
+ * thinking delay chooses its cards without allocating, and "check.kernel" plays the
+ * same seeded games on both and compares winners, rounds, turns and scores.
+ * "check.tracker" recounts the discard pile after every play and reshuffle of
+ * real games and compares it with the deck's CardTracker. "check.zobrist" compares
+ * PlayoutKernel's incremental hash with a recomputation, "check.tt" lets several
+ * threads share a TranspositionTable and looks for torn entries, "check.unmake"
+ * takes back random move sequences made with PlayoutKernel.makeMove(), and
+ * "check.thinking" lets 10000 bots wait out their ThinkingDelay on virtual threads.
+ * "check.state" restores a GameState captured at every turn of real games and captures it again.
+ * "check.engine.unmake" walks through games with GameEngine.makeMove()/unmakeMove(),
+ * which must report no events,
+ * "check.moves" compares Referee.legalMoves() with a scan of the hand, and
+ * "check.log" rebuilds logged games with GameLog.Reader and compares every turn,
+ * "check.archive" reads back every game of a ReplayArchive and times random lookups.
+ * "check.replay" replays an archive with Replayer and expects tampered games to be flagged.
+ *
+ * Lives in its own IntelliJ module ("UNO bench", depends on "UNO new"), so the
+ * game module ships without it.
+ *
+ * Cases: canPlayOn.*, legalMoves.*, deck.*, bot.*, referee.*, game.p{players}.d{difficulty}
+ * kernel.playout/game.p{players}, zobrist.*, tt.*, state.copy/capture.p{players},
+ * engine.makeUnmake, policy.getAction and log.game.p4.d{difficulty}
+ * Usage: java Benchmark [prefix ...]   (runs the cases whose names start with a prefix, or all)
+ */
+public class Benchmark {
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURE_RUNS = 5;
+    private static final long RUN_NANOS = 200_000_000L; // Target length of one run
+
+    private static long sink; // Receives every result so the measured work stays alive
+
+    /**
+     * One benchmark case: performs ops operations and returns a value derived from them
+     */
+    interface Case {
+        long run(int ops);
+    }
+
+    private static final Map<String, Case> CASES = new LinkedHashMap<>();
+
+    // --- Card legality: branchy rule vs. precomputed table vs. playable masks ---
+
+    private static final int SAMPLES = 4096; // Power of two, indexed with & (SAMPLES - 1)
+    private static final Card[] sampleCards = new Card[SAMPLES];
+    private static final Card[] sampleTops = new Card[SAMPLES];
+    private static final CardColor[] sampleColors = new CardColor[SAMPLES];
+    private static final long[] sampleHandMasks = new long[SAMPLES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(42);
+        CardColor[] colors = {CardColor.RED, CardColor.YELLOW, CardColor.GREEN, CardColor.BLUE};
+        for (int i = 0; i < SAMPLES; i++) {
+            sampleCards[i] = Card.fromCode(random.nextInt(Card.CODE_COUNT));
+            sampleTops[i] = Card.fromCode(random.nextInt(Card.CODE_COUNT));
+            sampleColors[i] = sampleTops[i].getColor() == CardColor.BLACK
+                    ? colors[random.nextInt(colors.length)] : sampleTops[i].getColor();
+            for (int c = 0; c < 7; c++) {
+                sampleHandMasks[i] |= 1L << random.nextInt(Card.CODE_COUNT);
+            }
+        }
+
+        CASES.put("canPlayOn.branching", ops -> {
+            long legal = 0;
+            for (int i = 0; i < ops; i++) {
+                int s = i & (SAMPLES - 1);
+                if (LegalityTable.canPlayBranching(sampleCards[s], sampleTops[s], sampleColors[s])) legal++;
+            }
+            return legal;
+        });
+        CASES.put("canPlayOn.table", ops -> {
+            long legal = 0;
+            for (int i = 0; i < ops; i++) {
+                int s = i & (SAMPLES - 1);
+                if (sampleCards[s].canPlayOn(sampleTops[s], sampleColors[s])) legal++;
+            }
+            return legal;
+        });
+        CASES.put("legalMoves.branching", ops -> {
+            // Scans all 7 cards of a hand with the branchy rule
+            long legal = 0;
+            for (int i = 0; i < ops; i++) {
+                int s = i & (SAMPLES - 1);
+                for (int c = 0; c < 7; c++) {
+                    if (LegalityTable.canPlayBranching(sampleCards[(s + c) & (SAMPLES - 1)], sampleTops[s], sampleColors[s])) legal++;
+                }
+            }
+            return legal;
+        });
+        CASES.put("legalMoves.mask", ops -> {
+            // One AND of the hand mask with the top card's playable mask
+            long legal = 0;
+            for (int i = 0; i < ops; i++) {
+                int s = i & (SAMPLES - 1);
+                legal += Long.bitCount(sampleHandMasks[s]
+                        & LegalityTable.playableMask(sampleTops[s].getCode(), sampleColors[s].ordinal()));
+            }
+            return legal;
+        });
+    }
+
+    // --- Deck: shuffling, drawing and reshuffling the discard pile ---
+
+    static {
+        Deck shuffled = new Deck(new GameRandom(1), GameEventListener.NONE);
+        CASES.put("deck.shuffleDeck", ops -> {
+            // Shuffles the full 108-card draw pile
+            for (int i = 0; i < ops; i++) {
+                shuffled.shuffleDeck();
+            }
+            return shuffled.getDrawPileSize();
+        });
+
+        Deck drawn = new Deck(new GameRandom(2), GameEventListener.NONE);
+        drawn.setupInitialCard();
+        CASES.put("deck.drawCard", ops -> {
+            // Draws a card and plays it back, so the piles never run out;
+            // one in about 107 draws includes a reshuffle of the discard pile
+            long codes = 0;
+            for (int i = 0; i < ops; i++) {
+                Card card = drawn.drawCard();
+                codes += card.getCode();
+                drawn.playCard(card);
+            }
+            return codes;
+        });
+
+        Deck cycled = new Deck(new GameRandom(3), GameEventListener.NONE);
+        cycled.setupInitialCard();
+        CASES.put("deck.reshuffleDiscardPile", ops -> {
+            // One full cycle: empties the draw pile onto the discard pile, then
+            // the next draw reshuffles the discard pile (107 cards) into a new draw pile.
+            // Subtract 108 x deck.drawCard for the cost of the reshuffle alone.
+            long codes = 0;
+            for (int i = 0; i < ops; i++) {
+                while (cycled.getDrawPileSize() > 0) {
+                    cycled.playCode(cycled.drawCode());
+                }
+                int code = cycled.drawCode();
+                codes += code;
+                cycled.playCode(code);
+            }
+            return codes;
+        });
+    }
+
+    // --- Bots: card and color selection (without events and thinking time) ---
+
+    private static final int HANDS = 64; // Power of two, one bot per sampled hand
+
+    static {
+        for (int difficulty = 1; difficulty <= 3; difficulty++) {
+            BotPlayer[] bots = createBots(difficulty);
+            CASES.put("bot.selectCard.d" + difficulty, ops -> {
+                long chosen = 0;
+                for (int i = 0; i < ops; i++) {
+                    int s = i & (SAMPLES - 1);
+                    chosen += bots[i & (HANDS - 1)].selectCard(sampleTops[s], sampleColors[s]);
+                }
+                return chosen;
+            });
+        }
+        BotPlayer[] bots = createBots(1);
+        int[] moves = new int[Referee.MOVE_COUNT];
+        CASES.put("legalMoves.generator", ops -> {
+            // All legal moves of a 7-card hand, wild colors and drawing included
+            long count = 0;
+            for (int i = 0; i < ops; i++) {
+                int s = i & (SAMPLES - 1);
+                count += bots[i & (HANDS - 1)].legalMoves(sampleTops[s], sampleColors[s], moves);
+            }
+            return count;
+        });
+        CASES.put("bot.selectColor", ops -> {
+            long colors = 0;
+            for (int i = 0; i < ops; i++) {
+                colors += bots[i & (HANDS - 1)].selectColor().ordinal();
+            }
+            return colors;
+        });
+    }
+
+    /**
+     * Creates one bot per sampled 7-card hand
+     * getCardChoice() only adds the turn event and the thinking time, so the
+     * cases measure selectCard() and selectColor() directly
+     */
+    private static BotPlayer[] createBots(int difficulty) {
+        GameRandom random = new GameRandom(difficulty);
+        BotPlayer[] bots = new BotPlayer[HANDS];
+        for (int i = 0; i < HANDS; i++) {
+            bots[i] = new BotPlayer(BotPlayer.generateBotName(i), difficulty, random);
+            bots[i].setEventListener(GameEventListener.NONE);
+            for (int c = 0; c < 7; c++) {
+                bots[i].addCard(Card.fromCode(random.nextInt(Card.CODE_COUNT)));
+            }
+        }
+        return bots;
+    }
+
+    // --- Referee: move validation and special card effects ---
+
+    static {
+        List<Player> players = new ArrayList<>(Arrays.asList(createBots(2)).subList(0, 4));
+        Deck deck = new Deck(new GameRandom(4), GameEventListener.NONE);
+        deck.setupInitialCard();
+        Referee referee = new Referee(players, deck, new GameRandom(4), GameEventListener.NONE);
+
+        // Only legal plays: an illegal one would add a penalty card to the hand
+        int legalCount = 0;
+        int[] legal = new int[SAMPLES];
+        for (int s = 0; s < SAMPLES; s++) {
+            if (sampleCards[s].canPlayOn(sampleTops[s], sampleColors[s])) {
+                legal[legalCount++] = s;
+            }
+        }
+        int legalSamples = legalCount;
+        CASES.put("referee.validateCardPlay", ops -> {
+            long valid = 0;
+            for (int i = 0; i < ops; i++) {
+                int s = legal[i % legalSamples];
+                deck.setActiveColor(sampleColors[s]);
+                if (referee.validateCardPlay(sampleCards[s], sampleTops[s], players.get(i & 3))) valid++;
+            }
+            return valid;
+        });
+
+        Card[] effects = {
+                Card.of(CardColor.RED, CardType.DRAW_TWO), Card.of(CardColor.RED, CardType.REVERSE),
+                Card.of(CardColor.RED, CardType.SKIP), Card.fromCode(Card.WILD_DRAW_FOUR_CODE)};
+        CASES.put("referee.handleSpecialCardEffects", ops -> {
+            // Cycles through DRAW TWO, REVERSE, SKIP and WILD DRAW FOUR (events ignored); the victim
+            // plays the drawn cards back afterwards, so the hands keep their size
+            int direction = 1;
+            for (int i = 0; i < ops; i++) {
+                int current = i & 3;
+                int newDirection = referee.handleSpecialCardEffects(effects[i & 3], current, direction);
+                Player victim = players.get((current + direction + 4) & 3);
+                while (victim.getHandSize() > 7) {
+                    deck.playCard(victim.playCard(victim.getHandSize() - 1));
+                }
+                direction = newDirection;
+            }
+            return direction;
+        });
+    }
+
+    // --- Full games: throughput per player count and bot difficulty ---
+
+    private static final int[] PLAYER_COUNTS = {2, 4, 10};
+
+    static {
+        for (int playerCount : PLAYER_COUNTS) {
+            for (int difficulty = 1; difficulty <= 3; difficulty++) {
+                int[] difficulties = new int[playerCount];
+                Arrays.fill(difficulties, difficulty);
+                GameEngine engine = new GameEngine(new GameEngine.GameConfig(difficulties, 1));
+                long[] game = {0};
+                CASES.put("game.p" + playerCount + ".d" + difficulty, ops -> {
+                    // One complete all-bot game to 500 points per op, every game with a new seed
+                    long winners = 0;
+                    for (int i = 0; i < ops; i++) {
+                        winners += engine.playGame(GameEngine.gameSeed(playerCount, game[0]++));
+                    }
+                    return winners;
+                });
+            }
+        }
+    }
+
+    // --- Playout kernel: search playouts and complete games on primitive arrays ---
+
+    static {
+        for (int playerCount : PLAYER_COUNTS) {
+            PlayoutKernel kernel = new PlayoutKernel(playerCount, GameEngine.WINNING_SCORE);
+            Dealer dealer = new Dealer(playerCount);
+            CASES.put("kernel.playout.p" + playerCount, ops -> {
+                // One search playout per op: a fresh deal like a determinization, then random
+                // moves until a hand is empty (most ISMCTS positions are closer to the end)
+                long winners = 0;
+                for (int i = 0; i < ops; i++) {
+                    dealer.deal(kernel);
+                    winners += kernel.playRound();
+                }
+                return winners;
+            });
+
+            long[] game = {0};
+            CASES.put("kernel.game.p" + playerCount, ops -> {
+                // Same games as game.p{players}.d1
+                long winners = 0;
+                for (int i = 0; i < ops; i++) {
+                    winners += kernel.playGame(GameEngine.gameSeed(playerCount, game[0]++));
+                }
+                return winners;
+            });
+        }
+    }
+
+    /**
+     * Deals random starting positions into a kernel, without allocating
+     */
+    private static final class Dealer {
+        final int playerCount;
+        final GameRandom random;
+        final byte[] deck = new byte[Deck.DECK_SIZE];
+        final int[] cards = new int[Deck.DECK_SIZE];
+        final int[] discard = new int[1];
+
+        Dealer(int playerCount) {
+            this.playerCount = playerCount;
+            this.random = new GameRandom(playerCount);
+        }
+
+        /**
+         * Shuffles a deck, turns up the first colored card and deals 7 cards to every player
+         * @return Index in cards of the first card dealt: hands from there, the draw pile before
+         */
+        int deal(PlayoutKernel kernel) {
+            Deck.copyStandardDeck(deck);
+            for (int c = Deck.DECK_SIZE - 1; c > 0; c--) {
+                int j = random.nextInt(c + 1);
+                byte code = deck[c];
+                deck[c] = deck[j];
+                deck[j] = code;
+            }
+            int top = 0;
+            while (deck[top] >= Card.WILD_CODE) top++;
+            discard[0] = deck[top];
+            int count = 0;
+            for (int c = 0; c < Deck.DECK_SIZE; c++) {
+                if (c != top) cards[count++] = deck[c];
+            }
+            int drawSize = count - 7 * playerCount;
+            kernel.setupPosition(playerCount, 1, 0, discard[0] / Card.COLORED_TYPES);
+            kernel.setPiles(cards, drawSize, discard, 1);
+            for (int c = drawSize; c < count; c++) {
+                kernel.addToHand((c - drawSize) % playerCount, cards[c]);
+            }
+            return drawSize;
+        }
+    }
+
+    // --- Zobrist hashing and the transposition table ---
+
+    static {
+        PlayoutKernel kernel = new PlayoutKernel(4, GameEngine.WINNING_SCORE);
+        Dealer dealer = new Dealer(4);
+        CASES.put("zobrist.getHash", ops -> {
+            // Hash after every move of random rounds (the moves themselves are in the time)
+            long hashes = 0;
+            for (int i = 0; i < ops; i++) {
+                if (!kernel.isRoundRunning()) dealer.deal(kernel);
+                playRandomMove(kernel, dealer.random);
+                hashes += kernel.getHash();
+            }
+            return hashes;
+        });
+
+        TranspositionTable table = new TranspositionTable(20);
+        CASES.put("tt.store", ops -> {
+            for (int i = 0; i < ops; i++) {
+                long hash = GameRandom.mix64(i);
+                table.store(hash, hash >>> 8);
+            }
+            return table.probe(GameRandom.mix64(ops - 1));
+        });
+        CASES.put("tt.probe", ops -> {
+            // Hits for the first 2^20 values of tt.store, misses after that
+            long found = 0;
+            for (int i = 0; i < ops; i++) {
+                if (table.probe(GameRandom.mix64(i & ((1 << 20) - 1))) != TranspositionTable.MISS) found++;
+            }
+            return found;
+        });
+    }
+
+    // --- Game state snapshots for 2, 4 and 10 players ---
+
+    static {
+        for (int playerCount : new int[] {2, 4, 10}) {
+            Deck deck = new Deck(new GameRandom(playerCount), GameEventListener.NONE);
+            List<Player> players = createPlayers(playerCount);
+            for (Player player : players) {
+                deck.drawCards(player, 7);
+            }
+            deck.setupInitialCard();
+            GameState source = new GameState(playerCount).capture(deck, players);
+            GameState target = new GameState(playerCount);
+            CASES.put("state.copy.p" + playerCount, ops -> {
+                for (int i = 0; i < ops; i++) {
+                    target.copyFrom(source);
+                }
+                return target.getTopCode();
+            });
+            CASES.put("state.capture.p" + playerCount, ops -> {
+                for (int i = 0; i < ops; i++) {
+                    target.capture(deck, players);
+                }
+                return target.getDrawPileSize();
+            });
+        }
+    }
+
+    private static List<Player> createPlayers(int count) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Player player = new Player("Player " + (i + 1));
+            player.setEventListener(GameEventListener.NONE);
+            players.add(player);
+        }
+        return players;
+    }
+
+    // --- Reversible moves of the engine ---
+
+    static {
+        GameEngine engine = new GameEngine(new GameEngine.GameConfig(new int[] {1, 1, 1, 1}, 10));
+        GameRandom random = new GameRandom(10);
+        engine.newGame(10);
+        CASES.put("engine.makeUnmake", ops -> {
+            // One random move made and taken back; every 16th move is kept, so the game goes on
+            long turns = 0;
+            for (int i = 0; i < ops; i++) {
+                if (engine.isRoundOver() || engine.getUndoDepth() == GameEngine.MAX_UNDO) {
+                    engine.newGame(random.nextLong());
+                }
+                engine.makeMove(randomEngineMove(engine, random), CardColor.RED);
+                turns += engine.getTurns();
+                if ((i & 15) != 0) {
+                    engine.unmakeMove();
+                }
+            }
+            return turns;
+        });
+    }
+
+    // --- Policy table of the difficulty 5 bot ---
+
+    static {
+        byte[] actions = new byte[PolicyTable.STATE_COUNT];
+        GameRandom random = new GameRandom(5);
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = (byte) random.nextInt(PolicyTable.ACTION_COUNT);
+        }
+        PolicyTable policy = PolicyTable.of(actions);
+        CASES.put("policy.getAction", ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                sum += policy.getAction((int) ((GameRandom.mix64(i) >>> 1) % PolicyTable.STATE_COUNT));
+            }
+            return sum;
+        });
+    }
+
+    // --- Game log: the same games as game.p4.d{difficulty}, every event encoded ---
+
+    static {
+        for (int difficulty = 1; difficulty <= 3; difficulty++) {
+            // The records are copied to a channel that discards them: encoding and buffering only
+            GameLog log = new GameLog(Channels.newChannel(OutputStream.nullOutputStream()), 0, GameEventListener.NONE);
+            GameEngine engine = new GameEngine(new GameEngine.GameConfig(new int[] {difficulty, difficulty,
+                    difficulty, difficulty}, 1), log);
+            long[] game = {0};
+            CASES.put("log.game.p4.d" + difficulty, ops -> {
+                long winners = 0;
+                for (int i = 0; i < ops; i++) {
+                    winners += engine.playGame(GameEngine.gameSeed(4, game[0]++));
+                }
+                return winners + log.getSize();
+            });
+        }
+    }
+
+    /**
+     * Plays a random legal move of the current player (drawing if nothing fits)
+     */
+    private static void playRandomMove(PlayoutKernel kernel, GameRandom random) {
+        long playable = Referee.legalPlays(kernel.getHandMask(kernel.getCurrentPlayer()),
+                kernel.getTopCode(), kernel.getActiveColor());
+        if (playable == 0) {
+            kernel.playMove(-1, -1);
+            return;
+        }
+        int pick = random.nextInt(Long.bitCount(playable));
+        for (int i = 0; i < pick; i++) {
+            playable &= playable - 1;
+        }
+        kernel.playMove(Long.numberOfTrailingZeros(playable), random.nextInt(4));
+    }
+
+    /**
+     * Warms up and measures one case
+     * @return Average nanoseconds per operation
+     */
+    private static double measure(String name, Case benchmark) {
+        // Find an operation count that fills about one run
+        int ops = 1; // Doubled at least once; full games take up to milliseconds per op
+        long elapsed;
+        do {
+            ops *= 2;
+            long start = System.nanoTime();
+            sink += benchmark.run(ops);
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < RUN_NANOS / 10 && ops < (1 << 30));
+        ops = (int) Math.min(1L << 30, Math.max(1, ops * (RUN_NANOS / Math.max(1, elapsed))));
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            sink += benchmark.run(ops);
+        }
+        double best = Double.MAX_VALUE;
+        double total = 0;
+        for (int i = 0; i < MEASURE_RUNS; i++) {
+            long start = System.nanoTime();
+            sink += benchmark.run(ops);
+            double nanosPerOp = (double) (System.nanoTime() - start) / ops;
+            best = Math.min(best, nanosPerOp);
+            total += nanosPerOp;
+        }
+        double average = total / MEASURE_RUNS;
+        System.out.printf("%-40s %12.2f ns/op (best %.2f) %14.0f ops/s\n", name, average, best, 1e9 / average);
+        return average;
+    }
+
+    /**
+     * Plays all-bot games on a reused engine and measures the bytes allocated by this thread
+     * @return true if the games allocated nothing after warm-up
+     */
+    private static boolean checkGameAllocations() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        GameEngine engine = new GameEngine(new GameEngine.GameConfig(new int[] {1, 2, 3, 3}, 1));
+
+        for (int i = 0; i < 20_000; i++) {
+            sink += engine.playGame(GameEngine.gameSeed(1, i)); // Warm-up: JIT compilation
+        }
+        int games = 1_000;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < games; i++) {
+            sink += engine.playGame(GameEngine.gameSeed(2, i));
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.printf("%-40s %12d bytes allocated in %d games: %s\n",
+                "alloc.game", allocated, games, allocated == 0 ? "OK" : "FAILED");
+        return allocated == 0;
+    }
+
+    /**
+     * Plays random playouts and complete games on a reused kernel and measures the bytes allocated by this thread
+     * @return true if the kernel allocated nothing after warm-up
+     */
+    private static boolean checkKernelAllocations() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        Case playouts = CASES.get("kernel.playout.p4");
+        Case games = CASES.get("kernel.game.p4");
+
+        for (int i = 0; i < 200; i++) {
+            sink += playouts.run(1_000) + games.run(100); // Warm-up: JIT compilation
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        sink += playouts.run(100_000) + games.run(1_000);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.printf("%-40s %12d bytes allocated in %d playouts and %d games: %s\n",
+                "alloc.kernel", allocated, 100_000, 1_000, allocated == 0 ? "OK" : "FAILED");
+        return allocated == 0;
+    }
+
+    /**
+     * Lets bots without a thinking delay choose cards with getCardChoice(), the call of
+     * Run's game loop, and measures the bytes allocated by this thread
+     * @return true if the choices allocated nothing after warm-up
+     */
+    private static boolean checkBotAllocations() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        BotPlayer[] bots = createBots(2);
+        for (BotPlayer bot : bots) {
+            bot.setThinkingDelay(ThinkingDelay.NONE);
+        }
+        Case choices = ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                int s = i & (SAMPLES - 1);
+                sum += bots[i & (HANDS - 1)].getCardChoice(sampleTops[s], sampleColors[s]);
+            }
+            return sum;
+        };
+
+        for (int i = 0; i < 200; i++) {
+            sink += choices.run(10_000); // Warm-up: JIT compilation
+        }
+        int ops = 100_000;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        sink += choices.run(ops);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        System.out.printf("%-40s %12d bytes allocated in %d card choices: %s\n",
+                "alloc.bot", allocated, ops, allocated == 0 ? "OK" : "FAILED");
+        return allocated == 0;
+    }
+
+    /**
+     * Plays the same seeded games with the kernel and with a GameEngine of easy bots
+     * @return true if every game has the same winner, rounds, turns and scores
+     */
+    private static boolean checkKernel() {
+        int games = 10_000;
+        int mismatches = 0;
+        for (int playerCount : PLAYER_COUNTS) {
+            int[] difficulties = new int[playerCount];
+            Arrays.fill(difficulties, 1);
+            GameEngine engine = new GameEngine(new GameEngine.GameConfig(difficulties, 1));
+            PlayoutKernel kernel = new PlayoutKernel(playerCount, GameEngine.WINNING_SCORE);
+            for (int i = 0; i < games; i++) {
+                long seed = GameEngine.gameSeed(7, i);
+                boolean same = engine.playGame(seed) == kernel.playGame(seed)
+                        && engine.getRounds() == kernel.getRounds()
+                        && engine.getTurns() == kernel.getTurns();
+                for (int seat = 0; seat < playerCount; seat++) {
+                    same &= engine.getScore(seat) == kernel.getScore(seat);
+                }
+                if (!same) {
+                    if (mismatches++ == 0) {
+                        System.out.println("First mismatch: " + playerCount + " players, seed " + seed);
+                    }
+                }
+            }
+        }
+        System.out.printf("%-40s %12d of %d games differ from GameEngine: %s\n",
+                "check.kernel", mismatches, games * PLAYER_COUNTS.length, mismatches == 0 ? "OK" : "FAILED");
+        return mismatches == 0;
+    }
+
+    /**
+     * Plays games and compares the CardTracker with a recount of the discard pile
+     * after every card played and every reshuffle; also shows how well the tracker's
+     * color probabilities match the hands the opponents really hold
+     * @return true if the counts always matched
+     */
+    private static boolean checkTracker() {
+        GameEngine[] engine = new GameEngine[1];
+        byte[] deckCodes = new byte[Deck.DECK_SIZE];
+        Deck.copyStandardDeck(deckCodes);
+        int[] checks = {0, 0};       // Checks, mismatches
+        double[] calibration = {0, 0, 0}; // Predicted, actual, samples
+        GameEventListener verifier = new GameEventListener() {
+            @Override
+            public void cardPlayed(Player player, Card card) { verify(); }
+
+            @Override
+            public void reshuffled() { verify(); }
+
+            @Override
+            public void turnStarted(Player player) {
+                CardTracker tracker = engine[0].getDeck().getTracker();
+                for (int i = 0; i < engine[0].getPlayerCount(); i++) {
+                    Player opponent = engine[0].getPlayer(i);
+                    if (opponent == player) continue;
+                    for (CardColor color : new CardColor[] {CardColor.RED, CardColor.YELLOW, CardColor.GREEN, CardColor.BLUE}) {
+                        calibration[0] += tracker.probabilityHoldsColor(player, opponent, color);
+                        calibration[1] += opponent.countColor(color) > 0 ? 1 : 0;
+                        calibration[2]++;
+                    }
+                }
+            }
+
+            private void verify() {
+                Deck deck = engine[0].getDeck();
+                int[] unseen = new int[Card.CODE_COUNT];
+                for (byte code : deckCodes) unseen[code]++;
+                for (int i = 0; i < deck.getDiscardPileSize(); i++) unseen[deck.getDiscardCode(i)]--;
+                int[] colors = new int[CardColor.values().length];
+                int[] types = new int[CardType.values().length];
+                int total = 0;
+                for (int code = 0; code < Card.CODE_COUNT; code++) {
+                    colors[Card.fromCode(code).getColor().ordinal()] += unseen[code];
+                    types[Card.fromCode(code).getType().ordinal()] += unseen[code];
+                    total += unseen[code];
+                }
+                CardTracker tracker = deck.getTracker();
+                boolean same = tracker.getUnseenTotal() == total;
+                for (int code = 0; code < Card.CODE_COUNT; code++) same &= tracker.getUnseen(code) == unseen[code];
+                for (CardColor color : CardColor.values()) same &= tracker.getUnseen(color) == colors[color.ordinal()];
+                for (CardType type : CardType.values()) same &= tracker.getUnseen(type) == types[type.ordinal()];
+                checks[0]++;
+                if (!same) checks[1]++;
+            }
+        };
+        engine[0] = new GameEngine(new GameEngine.GameConfig(new int[] {1, 2, 3, 3}, 1), verifier);
+        for (int i = 0; i < 2_000; i++) {
+            engine[0].playGame(GameEngine.gameSeed(8, i));
+        }
+
+        System.out.printf("%-40s %12d of %d checks differ from a recount: %s\n",
+                "check.tracker", checks[1], checks[0], checks[1] == 0 ? "OK" : "FAILED");
+        System.out.printf("%-40s %11.1f%% predicted, %.1f%% really held\n", "check.tracker.holdsColor",
+                100 * calibration[0] / calibration[2], 100 * calibration[1] / calibration[2]);
+        return checks[1] == 0;
+    }
+
+    /**
+     * Captures the state of real games at every turn, restores it into a second deck
+     * and player list and captures that again; both snapshots and both card trackers must match
+     * @return true if every snapshot survived the round trip
+     */
+    private static boolean checkState() {
+        int[] checks = new int[2]; // Checks, mismatches
+        Deck spareDeck = new Deck(new GameRandom(0), GameEventListener.NONE);
+        List<Player> spares = createPlayers(4);
+        GameState saved = new GameState(4);
+        GameState restored = new GameState(4);
+        GameEngine[] engine = new GameEngine[1];
+        List<Player> players = new ArrayList<>();
+        GameEventListener listener = new GameEventListener() {
+            @Override
+            public void turnStarted(Player player) {
+                players.clear();
+                for (int p = 0; p < engine[0].getPlayerCount(); p++) {
+                    players.add(engine[0].getPlayer(p));
+                }
+                Deck deck = engine[0].getDeck();
+                saved.capture(deck, players);
+                saved.restore(spareDeck, spares.subList(0, players.size()));
+                restored.capture(spareDeck, spares.subList(0, players.size()));
+                boolean same = saved.equals(restored);
+                for (int code = 0; code < Card.CODE_COUNT; code++) {
+                    same &= deck.getTracker().getUnseen(code) == spareDeck.getTracker().getUnseen(code);
+                }
+                checks[0]++;
+                if (!same) checks[1]++;
+            }
+        };
+        engine[0] = new GameEngine(new GameEngine.GameConfig(new int[] {1, 2, 2, 3}, 8), listener);
+        for (int game = 0; game < 50; game++) {
+            engine[0].playGame(GameEngine.gameSeed(8, game));
+        }
+        System.out.printf("%-40s %12d of %d snapshots changed by restoring them: %s\n",
+                "check.state", checks[1], checks[0], checks[1] == 0 ? "OK" : "FAILED");
+        return checks[1] == 0;
+    }
+
+    /**
+     * Walks randomly through seeded games with GameEngine.makeMove() and unmakeMove();
+     * every unmade move must give back the snapshot taken before it, and making it
+     * again the snapshot taken after it (so the random generator was restored too).
+     * Also counts the bytes allocated by make/unmake pairs after warm-up.
+     * @return true if every position was restored and nothing was allocated
+     */
+    private static boolean checkEngineUnmake() {
+        // Counts every event; moves must report none, so a game log never gets records that unmakeMove() cannot take back
+        int[] events = new int[1];
+        GameEventListener counter = (GameEventListener) Proxy.newProxyInstance(GameEventListener.class.getClassLoader(),
+                new Class<?>[] {GameEventListener.class}, (proxy, method, arguments) -> {
+                    if (method.getDeclaringClass() != GameEventListener.class) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    events[0]++;
+                    return null;
+                });
+        GameEngine engine = new GameEngine(new GameEngine.GameConfig(new int[] {1, 1, 1, 1}, 9), counter);
+        long moveEvents = 0;
+        GameRandom random = new GameRandom(9);
+        GameState[] before = new GameState[GameEngine.MAX_UNDO];
+        GameState[] after = new GameState[GameEngine.MAX_UNDO];
+        int[] moves = new int[GameEngine.MAX_UNDO * 2];
+        for (int i = 0; i < before.length; i++) {
+            before[i] = new GameState(4);
+            after[i] = new GameState(4);
+        }
+        GameState current = new GameState(4);
+        int checks = 0;
+        int mismatches = 0;
+        for (int game = 0; game < 2_000; game++) {
+            engine.newGame(GameEngine.gameSeed(9, game));
+            events[0] = 0; // Dealing reports its events
+            for (int step = 0; step < 400; step++) {
+                int depth = engine.getUndoDepth();
+                if (depth > 0 && (engine.isRoundOver() || depth == GameEngine.MAX_UNDO || random.nextInt(3) == 0)) {
+                    engine.unmakeMove();
+                    checks++;
+                    if (!snapshot(engine, current).equals(before[depth - 1])) mismatches++;
+                    if (random.nextBoolean()) {
+                        engine.makeMove(moves[2 * (depth - 1)], CardColor.values()[moves[2 * (depth - 1) + 1]]);
+                        checks++;
+                        if (!snapshot(engine, current).equals(after[depth - 1])) mismatches++;
+                    }
+                } else if (!engine.isRoundOver()) {
+                    snapshot(engine, before[depth]);
+                    moves[2 * depth] = randomEngineMove(engine, random);
+                    moves[2 * depth + 1] = random.nextInt(4);
+                    engine.makeMove(moves[2 * depth], CardColor.values()[moves[2 * depth + 1]]);
+                    snapshot(engine, after[depth]);
+                }
+            }
+            moveEvents += events[0];
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        Case pairs = CASES.get("engine.makeUnmake");
+        for (int i = 0; i < 200; i++) {
+            sink += pairs.run(1_000); // Warm-up: JIT compilation
+        }
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        sink += pairs.run(100_000);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        boolean passed = mismatches == 0 && allocated == 0 && moveEvents == 0;
+        System.out.printf("%-40s %12d of %d positions not restored, %d bytes allocated, %d events reported: %s\n",
+                "check.engine.unmake", mismatches, checks, allocated, moveEvents, passed ? "OK" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * Captures an engine's game with its turn order, round and turn count
+     */
+    private static GameState snapshot(GameEngine engine, GameState state) {
+        List<Player> players = new ArrayList<>();
+        for (int p = 0; p < engine.getPlayerCount(); p++) {
+            players.add(engine.getPlayer(p));
+        }
+        state.setCurrentPlayerIndex(engine.getCurrentPlayerIndex());
+        state.setDirection(engine.getDirection());
+        state.setRoundNumber(engine.getTurns() * 2 + (engine.isRoundOver() ? 1 : 0)); // Turns and status fit here
+        return state.capture(engine.getDeck(), players);
+    }
+
+    /**
+     * @return Index of a random playable card of the current player, or -1 to draw if there is none
+     */
+    private static int randomEngineMove(GameEngine engine, GameRandom random) {
+        Player player = engine.getPlayer(engine.getCurrentPlayerIndex());
+        Deck deck = engine.getDeck();
+        int playable = 0;
+        for (int i = 0; i < player.getHandSize(); i++) {
+            if (player.getCard(i).canPlayOn(deck.getTopCard(), deck.getActiveColor())) playable++;
+        }
+        int chosen = playable == 0 ? -1 : random.nextInt(playable);
+        for (int i = 0; i < player.getHandSize(); i++) {
+            if (player.getCard(i).canPlayOn(deck.getTopCard(), deck.getActiveColor()) && chosen-- == 0) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the move generator with a scan of the hand by Card.canPlayOn(), and
+     * checks that every move is found in the hand again
+     * @return true if every hand got exactly the expected moves, in code order
+     */
+    private static boolean checkMoves() {
+        GameRandom random = new GameRandom(11);
+        Player player = new Player("Player");
+        player.setEventListener(GameEventListener.NONE);
+        int[] moves = new int[Referee.MOVE_COUNT];
+        int[] expected = new int[Referee.MOVE_COUNT];
+        int[] firstSlots = new int[Card.CODE_COUNT];
+        int checks = 0;
+        int mismatches = 0;
+        for (int i = 0; i < 200_000; i++) {
+            player.clearHand();
+            for (int c = 1 + random.nextInt(20); c > 0; c--) {
+                player.addCard(Card.fromCode(random.nextInt(Card.CODE_COUNT)));
+            }
+            Card top = Card.fromCode(random.nextInt(Card.CODE_COUNT));
+            CardColor activeColor = top.getColor() == CardColor.BLACK ? CardColor.values()[random.nextInt(4)] : top.getColor();
+
+            Arrays.fill(firstSlots, -1);
+            for (int slot = player.getHandSize() - 1; slot >= 0; slot--) {
+                firstSlots[player.getCardCode(slot)] = slot;
+            }
+            int count = 0;
+            for (int code = 0; code < Card.CODE_COUNT; code++) {
+                Card card = Card.fromCode(code);
+                if (firstSlots[code] < 0 || !card.canPlayOn(top, activeColor)) continue;
+                if (card.getColor() != CardColor.BLACK) {
+                    expected[count++] = Referee.encodeMove(code, null);
+                } else {
+                    for (int c = 0; c < 4; c++) {
+                        expected[count++] = Referee.encodeMove(code, CardColor.values()[c]);
+                    }
+                }
+            }
+            expected[count++] = Referee.DRAW_MOVE;
+
+            int generated = player.legalMoves(top, activeColor, moves);
+            checks++;
+            boolean same = generated == count && Arrays.equals(moves, 0, count, expected, 0, count);
+            for (int m = 0; same && m < count - 1; m++) {
+                same = player.findCard(moves[m]) == firstSlots[Referee.moveCode(moves[m])];
+            }
+            if (!same) mismatches++;
+        }
+        System.out.printf("%-40s %12d of %d hands got other moves than a scan: %s\n",
+                "check.moves", mismatches, checks, mismatches == 0 ? "OK" : "FAILED");
+        return mismatches == 0;
+    }
+
+    /**
+     * Compares the incremental Zobrist hash with one computed from scratch after every
+     * move of random rounds, and checks that the order in which a hand was dealt
+     * does not change the hash
+     * @return true if all hashes matched
+     */
+    private static boolean checkZobrist() {
+        PlayoutKernel kernel = new PlayoutKernel(4, GameEngine.WINNING_SCORE);
+        PlayoutKernel reversed = new PlayoutKernel(4, GameEngine.WINNING_SCORE);
+        Dealer dealer = new Dealer(4);
+        int checks = 0;
+        int mismatches = 0;
+        for (int round = 0; round < 10_000; round++) {
+            int handStart = dealer.deal(kernel);
+            reversed.setupPosition(4, 1, 0, dealer.discard[0] / Card.COLORED_TYPES);
+            reversed.setPiles(dealer.cards, handStart, dealer.discard, 1);
+            for (int c = Deck.DECK_SIZE - 2; c >= handStart; c--) {
+                reversed.addToHand((c - handStart) % 4, dealer.cards[c]);
+            }
+            checks++;
+            if (kernel.getHash() != reversed.getHash()) mismatches++;
+
+            while (kernel.isRoundRunning()) {
+                playRandomMove(kernel, dealer.random);
+                checks++;
+                if (kernel.getHash() != kernel.computeHash()) mismatches++;
+            }
+        }
+        System.out.printf("%-40s %12d of %d hashes differ from a recomputation: %s\n",
+                "check.zobrist", mismatches, checks, mismatches == 0 ? "OK" : "FAILED");
+        return mismatches == 0;
+    }
+
+    /**
+     * Makes random moves on dealt positions and takes them all back again; the
+     * position must then be the dealt one (hash, hands, piles, player to move)
+     * @return true if every position was restored
+     */
+    private static boolean checkUnmake() {
+        PlayoutKernel kernel = new PlayoutKernel(4, GameEngine.WINNING_SCORE);
+        Dealer dealer = new Dealer(4);
+        long[] masks = new long[4];
+        int[] sizes = new int[4];
+        int checks = 0;
+        int mismatches = 0;
+        for (int round = 0; round < 20_000; round++) {
+            dealer.deal(kernel);
+            // Play a little first, so that the checked position is somewhere in the round
+            for (int i = round % 30; i > 0 && kernel.isRoundRunning(); i--) {
+                playRandomMove(kernel, dealer.random);
+            }
+            if (!kernel.canMakeMove()) continue;
+            long hash = kernel.getHash();
+            int top = kernel.getTopCode();
+            int color = kernel.getActiveColor();
+            int current = kernel.getCurrentPlayer();
+            int drawSize = kernel.getDrawPileSize();
+            for (int p = 0; p < 4; p++) {
+                masks[p] = kernel.getHandMask(p);
+                sizes[p] = kernel.getHandSize(p);
+            }
+
+            int made = 0;
+            while (made < 40 && kernel.canMakeMove()) {
+                long playable = Referee.legalPlays(kernel.getHandMask(kernel.getCurrentPlayer()),
+                        kernel.getTopCode(), kernel.getActiveColor());
+                int code = -1;
+                if (playable != 0) {
+                    for (int i = dealer.random.nextInt(Long.bitCount(playable)); i > 0; i--) {
+                        playable &= playable - 1;
+                    }
+                    code = Long.numberOfTrailingZeros(playable);
+                }
+                kernel.makeMove(code, dealer.random.nextInt(4));
+                made++;
+            }
+            while (made-- > 0) {
+                kernel.unmakeMove();
+            }
+
+            boolean same = kernel.getHash() == hash && kernel.computeHash() == hash
+                    && kernel.getTopCode() == top && kernel.getActiveColor() == color
+                    && kernel.getCurrentPlayer() == current && kernel.getDrawPileSize() == drawSize;
+            for (int p = 0; p < 4; p++) {
+                same &= kernel.getHandMask(p) == masks[p] && kernel.getHandSize(p) == sizes[p];
+            }
+            checks++;
+            if (!same) mismatches++;
+        }
+        System.out.printf("%-40s %12d of %d positions not restored: %s\n",
+                "check.unmake", mismatches, checks, mismatches == 0 ? "OK" : "FAILED");
+        return mismatches == 0;
+    }
+
+    /**
+     * Several threads store and probe the same transposition table at once; every hit
+     * must return the data stored for that hash, never a torn or foreign entry
+     * @return true if no wrong data was returned
+     */
+    private static boolean checkTranspositionTable() {
+        TranspositionTable table = new TranspositionTable(10); // Small: many threads on the same slots
+        int threadCount = 4;
+        long[] wrong = new long[threadCount];
+        long[] hits = new long[threadCount];
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                GameRandom random = new GameRandom(index);
+                for (int i = 0; i < 5_000_000; i++) {
+                    long hash = GameRandom.mix64(random.nextInt(1 << 14));
+                    if ((i & 1) == 0) {
+                        table.store(hash, hash * 31);
+                    } else {
+                        long data = table.probe(hash);
+                        if (data != TranspositionTable.MISS) {
+                            hits[index]++;
+                            if (data != hash * 31) wrong[index]++;
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        long totalWrong = 0;
+        long totalHits = 0;
+        for (int t = 0; t < threadCount; t++) {
+            try {
+                threads[t].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            totalWrong += wrong[t];
+            totalHits += hits[t];
+        }
+        System.out.printf("%-40s %12d of %d hits on %d threads returned wrong data: %s\n",
+                "check.tt", totalWrong, totalHits, threadCount, totalWrong == 0 ? "OK" : "FAILED");
+        return totalWrong == 0;
+    }
+
+    /**
+     * Thousands of bots on their own virtual threads wait for the thinking delay at
+     * the same time; the pauses must overlap and need no platform thread per bot
+     * @return true if all bots chose a playable card (or to draw) within a few pauses
+     */
+    private static boolean checkThinking() {
+        int tables = 10_000;
+        ThinkingDelay delay = new ThinkingDelay(200, 300);
+        Card top = Card.fromCode(0);
+        CardColor activeColor = top.getColor();
+        long[] wrong = new long[1];
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        int platformThreads = threadBean.getThreadCount();
+        threadBean.resetPeakThreadCount();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < tables; t++) {
+                int index = t;
+                executor.execute(() -> {
+                    BotPlayer bot = new BotPlayer("Bot", 1, new GameRandom(index));
+                    bot.setEventListener(GameEventListener.NONE);
+                    bot.setThinkingDelay(delay);
+                    for (int c = 0; c < 7; c++) {
+                        bot.addCard(Card.fromCode((index * 7 + c) % Card.CODE_COUNT));
+                    }
+                    int choice = bot.getCardChoice(top, activeColor);
+                    if (choice < -1 || choice >= 0 && !bot.getCard(choice).canPlayOn(top, activeColor)) {
+                        synchronized (wrong) {
+                            wrong[0]++;
+                        }
+                    }
+                });
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        int extraThreads = threadBean.getPeakThreadCount() - platformThreads;
+        boolean passed = wrong[0] == 0 && millis < 4 * delay.maxMillis;
+        System.out.printf("%-40s %12d bots thought %d-%d ms in %d ms, %d more platform threads: %s\n",
+                "check.thinking", tables, delay.minMillis, delay.maxMillis, millis, extraThreads,
+                passed ? "OK" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * Logs seeded engine games of 2 to 6 players and all-bot games of Run to a file,
+     * reads the file back and compares the state rebuilt by GameLog.Reader at every
+     * TURN and GAME_END record with the state of the game at that event
+     * @return true if every state was rebuilt exactly
+     */
+    private static boolean checkLog() {
+        int[] counts = new int[3]; // States compared, mismatches, games
+        try {
+            Path file = Files.createTempFile("uno", ".log");
+            try {
+                List<GameState> expected = new ArrayList<>();
+                GameState[] table = new GameState[1];
+                TableView[] current = new TableView[1];
+                int[] round = new int[1];
+                GameEventListener recorder = new GameEventListener() {
+                    @Override
+                    public void roundDealt(TableView t, int roundNumber) {
+                        current[0] = t;
+                        round[0] = roundNumber;
+                        if (roundNumber == 1) {
+                            table[0] = new GameState(t.getPlayerCount());
+                        }
+                    }
+                    @Override
+                    public void turnStarted(Player player) { record(); }
+                    @Override
+                    public void gameEnded() { record(); }
+
+                    private void record() {
+                        GameState state = table[0].capture(current[0]).copy();
+                        state.setRoundNumber(round[0]);
+                        expected.add(state);
+                    }
+                };
+                try (GameLog log = GameLog.open(file, 8, recorder)) {
+                    for (int game = 0; game < 200; game++) {
+                        int[] difficulties = new int[2 + game % 5];
+                        for (int seat = 0; seat < difficulties.length; seat++) {
+                            difficulties[seat] = 1 + (game + seat) % 3;
+                        }
+                        new GameEngine(new GameEngine.GameConfig(difficulties, 12), log).playGame(GameEngine.gameSeed(12, game));
+                        counts[2]++;
+                    }
+                    PrintStream out = System.out;
+                    System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Run prints the table
+                    try {
+                        for (int game = 0; game < 20; game++) {
+                            playRun(game, log);
+                            counts[2]++;
+                        }
+                    } finally {
+                        System.setOut(out);
+                    }
+                }
+
+                GameLog.Reader reader = new GameLog.Reader(ByteBuffer.wrap(Files.readAllBytes(file)));
+                int type;
+                while ((type = reader.next()) != GameLog.END_OF_LOG) {
+                    if (type == GameLog.TURN || type == GameLog.GAME_END) {
+                        if (counts[0] >= expected.size() || !reader.getState().equals(expected.get(counts[0]))) {
+                            counts[1]++;
+                        }
+                        counts[0]++;
+                    }
+                }
+                if (counts[0] != expected.size()) counts[1]++;
+                System.out.printf("%-40s %12d of %d states differ in %d games (%.1f bytes per state): %s\n",
+                        "check.log", counts[1], counts[0], counts[2], (double) Files.size(file) / counts[0],
+                        counts[1] == 0 ? "OK" : "FAILED");
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.printf("%-40s %s: FAILED\n", "check.log", e);
+            return false;
+        }
+        return counts[1] == 0;
+    }
+
+    /**
+     * Archives games in two sessions, the second one appended after a simulated crash,
+     * and reads every game back through the mapping, also with tiny segments so
+     * that games cross segment borders
+     */
+    private static boolean checkArchive() {
+        long[] counts = new long[3]; // Games compared, mismatches, nanoseconds of random lookups
+        try {
+            Path dir = Files.createTempDirectory("uno");
+            Path file = dir.resolve("games.archive");
+            try {
+                // Session 3: recorded on 4 threads, expected: the same games logged on one thread
+                int[] lineup = {1, 2, 3, 2};
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                List<long[]> expected = new ArrayList<>(); // Start, end, players, session
+                try (GameLog log = new GameLog(Channels.newChannel(out), 0, GameEventListener.NONE)) {
+                    GameEngine engine = new GameEngine(new GameEngine.GameConfig(lineup, 5), log);
+                    for (int game = 0; game < 3000; game++) {
+                        long start = log.getSize();
+                        engine.playGame(GameEngine.gameSeed(5, game));
+                        expected.add(new long[] {start, log.getSize(), lineup.length, 3});
+                    }
+                    try (ReplayArchive.Writer writer = new ReplayArchive.Writer(file)) {
+                        ReplayArchive.record(writer, 3, lineup, 3000, 4, 5);
+                    }
+                    // Session 7: 2 to 6 players, the last game unfinished
+                    for (int game = 0; game < 500; game++) {
+                        int[] difficulties = new int[2 + game % 5];
+                        Arrays.fill(difficulties, 1);
+                        long start = log.getSize();
+                        new GameEngine(new GameEngine.GameConfig(difficulties, 9), log).playGame(GameEngine.gameSeed(9, game));
+                        expected.add(new long[] {start, log.getSize(), difficulties.length, 7});
+                    }
+                }
+                byte[] bytes = out.toByteArray();
+                long firstOfSeven = expected.get(3000)[0];
+                ByteBuffer sessionSeven = ByteBuffer.wrap(bytes, (int) firstOfSeven, bytes.length - 10 - (int) firstOfSeven);
+                expected.remove(expected.size() - 1);
+
+                // A writer that died: half a game in the archive, part of an entry in the index
+                try (FileChannel archive = FileChannel.open(file, StandardOpenOption.APPEND);
+                     FileChannel index = FileChannel.open(ReplayArchive.indexFile(file), StandardOpenOption.APPEND)) {
+                    archive.write(ByteBuffer.wrap(bytes, 0, 1000));
+                    index.write(ByteBuffer.allocate(10));
+                }
+                try (ReplayArchive.Writer writer = new ReplayArchive.Writer(file)) {
+                    if (writer.getGameCount() != 3000 || writer.getLastSession() != 3) counts[1]++;
+                    try {
+                        writer.append(2, sessionSeven);
+                        counts[1]++; // Sessions must ascend
+                    } catch (IllegalArgumentException expectedError) {
+                        // Rejected as it should be
+                    }
+                    if (writer.append(7, sessionSeven) != expected.size() - 3000) counts[1]++;
+                }
+
+                try (ReplayArchive archive = ReplayArchive.open(file);
+                     ReplayArchive small = ReplayArchive.open(file, 4096, 1024)) {
+                    if (archive.getGameCount() != expected.size()) counts[1]++;
+                    for (int game = 0; game < expected.size(); game++) {
+                        long[] e = expected.get(game);
+                        ByteBuffer want = ByteBuffer.wrap(bytes, (int) e[0], (int) (e[1] - e[0]));
+                        if (!archive.getGame(game).equals(want) || !small.getGame(game).equals(want)
+                                || archive.getPlayerCount(game) != e[2] || archive.getSession(game) != e[3]) {
+                            counts[1]++;
+                        }
+                        counts[0]++;
+                    }
+                    if (archive.firstGameOf(3) != 0 || archive.endGameOf(3) != 3000 || archive.firstGameOf(5) != 3000
+                            || archive.endGameOf(5) != 3000 || archive.firstGameOf(7) != 3000
+                            || archive.endGameOf(7) != expected.size() || archive.endGameOf(Long.MAX_VALUE) != expected.size()) {
+                        counts[1]++;
+                    }
+                    // Every archived game replays to its end
+                    for (int game = 0; game < expected.size(); game += 7) {
+                        GameLog.Reader reader = new GameLog.Reader(archive.getGame(game));
+                        int type;
+                        int last = GameLog.END_OF_LOG;
+                        while ((type = reader.next()) != GameLog.END_OF_LOG) {
+                            last = type;
+                        }
+                        if (last != GameLog.GAME_END) counts[1]++;
+                    }
+                    SplittableRandom random = new SplittableRandom(1);
+                    long start = System.nanoTime();
+                    for (int i = 0; i < 1_000_000; i++) {
+                        ByteBuffer game = archive.getGame(random.nextLong(archive.getGameCount()));
+                        sink += game.get(game.limit() - 1); // Touches the whole game
+                    }
+                    counts[2] = System.nanoTime() - start;
+                }
+                System.out.printf("%-40s %12d of %d games differ (%.0f ns per random lookup): %s\n",
+                        "check.archive", counts[1], counts[0], counts[2] / 1e6, counts[1] == 0 ? "OK" : "FAILED");
+            } finally {
+                Files.deleteIfExists(ReplayArchive.indexFile(file));
+                Files.deleteIfExists(file);
+                Files.delete(dir);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.printf("%-40s %s: FAILED\n", "check.archive", e);
+            return false;
+        }
+        return counts[1] == 0;
+    }
+
+    /**
+     * Replays an archive of engine games (2 to 6 players) and Run games on 4 threads,
+     * which must all follow the rules, then tampered copies of some of them: a
+     * reversed direction or a round scored one point too high must be flagged
+     */
+    private static boolean checkReplay() {
+        long[] counts = new long[2]; // Tampered games, tampered games not flagged
+        try {
+            Path dir = Files.createTempDirectory("uno");
+            Path file = dir.resolve("games.archive");
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (GameLog log = new GameLog(Channels.newChannel(out), 0, GameEventListener.NONE)) {
+                    for (int game = 0; game < 1000; game++) {
+                        int[] difficulties = new int[2 + game % 5];
+                        for (int seat = 0; seat < difficulties.length; seat++) {
+                            difficulties[seat] = 1 + (game + seat) % 3;
+                        }
+                        new GameEngine(new GameEngine.GameConfig(difficulties, 14), log).playGame(GameEngine.gameSeed(14, game));
+                    }
+                }
+                ByteArrayOutputStream runOut = new ByteArrayOutputStream();
+                PrintStream console = System.out;
+                System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Run prints the table
+                try (GameLog log = new GameLog(Channels.newChannel(runOut), 0, GameEventListener.NONE)) {
+                    for (int game = 0; game < 40; game++) {
+                        playRun(game, log);
+                    }
+                } finally {
+                    System.setOut(console);
+                }
+                try (ReplayArchive.Writer writer = new ReplayArchive.Writer(file)) {
+                    ReplayArchive.record(writer, 1, new int[] {1, 2, 3, 2}, 2000, 4, 14);
+                    writer.append(2, ByteBuffer.wrap(out.toByteArray()));
+                    writer.append(3, ByteBuffer.wrap(runOut.toByteArray()));
+                }
+
+                Replayer.Stats stats;
+                try (ReplayArchive archive = ReplayArchive.open(file)) {
+                    stats = Replayer.replay(archive, 0, archive.getGameCount(), 4);
+                    Replayer replayer = new Replayer();
+                    for (int game = 0; game < 300; game++) {
+                        ByteBuffer original = archive.getGame(game);
+                        byte[] bytes = new byte[original.remaining()];
+                        original.get(bytes);
+                        int[] positions = tamperPositions(bytes);
+                        if (positions[0] >= 0) {
+                            bytes[positions[0]] ^= 3; // Direction 1 (zigzag 2) and -1 (zigzag 1) swap
+                            counts[0]++;
+                            if (replayer.replay(ByteBuffer.wrap(bytes)) == null) counts[1]++;
+                            bytes[positions[0]] ^= 3;
+                        }
+                        if (positions[1] >= 0) {
+                            bytes[positions[1]]++;
+                            counts[0]++;
+                            if (replayer.replay(ByteBuffer.wrap(bytes)) == null) counts[1]++;
+                        }
+                    }
+                }
+                boolean passed = stats.diverged == 0 && counts[1] == 0;
+                System.out.printf("%-40s %12d of %d games diverge, %d of %d tampered pass (%.0f games/sec, %.0f turns/sec, "
+                                + "%d ended early): %s\n", "check.replay", stats.diverged, stats.games, counts[1], counts[0],
+                        stats.games / (stats.elapsedNanos / 1e9), stats.turns / (stats.elapsedNanos / 1e9),
+                        stats.endedEarly, passed ? "OK" : "FAILED");
+                for (String divergence : stats.divergences.values()) {
+                    System.out.println("  " + divergence);
+                }
+                return passed;
+            } finally {
+                Files.deleteIfExists(ReplayArchive.indexFile(file));
+                Files.deleteIfExists(file);
+                Files.delete(dir);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.printf("%-40s %s: FAILED\n", "check.replay", e);
+            return false;
+        }
+    }
+
+    /**
+     * @return Positions of the value of the first DIRECTION record and of the points of
+     *         the last ROUND_END record if they take one byte, -1 where there is none
+     */
+    private static int[] tamperPositions(byte[] game) {
+        int[] positions = {-1, -1};
+        GameLog.Reader reader = new GameLog.Reader(ByteBuffer.wrap(game));
+        int start = reader.getPosition();
+        int type;
+        while ((type = reader.next()) != GameLog.END_OF_LOG) {
+            if (type == GameLog.DIRECTION && positions[0] < 0) {
+                positions[0] = start + 1;
+            } else if (type == GameLog.ROUND_END) {
+                boolean small = reader.getField(0) < 128 && reader.getField(1) < 127;
+                positions[1] = small ? start + 2 : -1;
+            }
+            start = reader.getPosition();
+        }
+        return positions;
+    }
+
+    /**
+     * Plays an all-bot game of Run, set up like Initialization does
+     */
+    private static void playRun(int game, GameEventListener events) {
+        GameRandom random = new GameRandom(GameEventListener.class.hashCode() + game);
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            BotPlayer bot = new BotPlayer(BotPlayer.generateBotName(i), 1 + (game + i) % 3, random);
+            bot.setEventListener(events);
+            bot.setThinkingDelay(ThinkingDelay.NONE);
+            players.add(bot);
+        }
+        Deck deck = new Deck(random, events);
+        for (int i = 0; i < 7; i++) {
+            for (Player player : players) {
+                player.addCard(deck.drawCard());
+            }
+        }
+        deck.setupInitialCard();
+        Scanner scanner = new Scanner("");
+        Initialization.GameSetup setup = new Initialization.GameSetup(players, deck, random.nextInt(4), 1, false, random, events);
+        new Run(setup, scanner, new Menu(scanner), null, 0, "Standard").runGame();
+    }
+
+    /**
+     * A case runs if no names were given, or if its name starts with one of them
+     */
+    private static boolean isSelected(String name, String[] prefixes) {
+        if (prefixes.length == 0) return true;
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    public static void main(String[] args) {
+        System.out.println("=== BENCHMARKS ===");
+        for (Map.Entry<String, Case> entry : CASES.entrySet()) {
+            if (isSelected(entry.getKey(), args)) {
+                measure(entry.getKey(), entry.getValue());
+            }
+        }
+        boolean passed = !isSelected("alloc.game", args) || checkGameAllocations();
+        passed &= !isSelected("alloc.kernel", args) || checkKernelAllocations();
+        passed &= !isSelected("alloc.bot", args) || checkBotAllocations();
+        passed &= !isSelected("check.kernel", args) || checkKernel();
+        passed &= !isSelected("check.tracker", args) || checkTracker();
+        passed &= !isSelected("check.zobrist", args) || checkZobrist();
+        passed &= !isSelected("check.tt", args) || checkTranspositionTable();
+        passed &= !isSelected("check.unmake", args) || checkUnmake();
+        passed &= !isSelected("check.thinking", args) || checkThinking();
+        passed &= !isSelected("check.state", args) || checkState();
+        passed &= !isSelected("check.engine.unmake", args) || checkEngineUnmake();
+        passed &= !isSelected("check.moves", args) || checkMoves();
+        passed &= !isSelected("check.log", args) || checkLog();
+        passed &= !isSelected("check.archive", args) || checkArchive();
+        passed &= !isSelected("check.replay", args) || checkReplay();
+        System.out.println("(sink " + sink + ")");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Head-to-head matches of two bot difficulties on all CPU cores, with an Elo
+ * estimate and early stopping by a sequential probability ratio test (SPRT)
+ *
+ * Games come in pairs with the same seed and swapped seats, so neither bot profits
+ * from the seat or the deal. They are played in chunks of CHUNK_PAIRS pairs,
+ * each chunk on a fork/join pool like Tournament; after every chunk the SPRT
+ * decides between H0 "B is elo0 stronger than A" and H1 "B is elo1 stronger"
+ * and the match stops as soon as one of them is accepted at the error rates
+ * alpha and beta. The chunk size does not depend on the thread count, and every
+ * game depends only on its seed as long as the bots do: the search of difficulty 4
+ * is bounded by iterations (IsmctsSearch.Budget.DEFAULT), and an endgame solver
+ * keeps its own transposition table. Then a match stops after the same games with
+ * the same result on any number of threads. A time-bounded search budget would
+ * break this, as did the endgame solvers' shared table before it was made private.
+ *
+ * The two games of a pair share the deal, so their results are not independent.
+ * The SPRT and the confidence interval therefore count pairs, not games: the
+ * log-likelihood ratio uses the normal approximation of the pentanomial model
+ * (B scores 0, 1/2, 1, 3/2 or 2 points in a pair). The Elo difference is given
+ * with a 95% confidence interval.
+ *
+ * Usage: java Arena [difficulty A] [difficulty B] [max games] [threads] [seed] [elo0] [elo1]
+ */
+public class Arena {
+    private static final long DEFAULT_MAX_GAMES = 100_000;
+    private static final double DEFAULT_ELO0 = 0;
+    private static final double DEFAULT_ELO1 = 20;
+    private static final double ALPHA = 0.05;       // Chance to accept H1 although H0 holds
+    private static final double BETA = 0.05;        // Chance to accept H0 although H1 holds
+    private static final int CHUNK_PAIRS = 512;     // Game pairs between two SPRT decisions
+    private static final int BATCH_PAIRS = 64;      // Game pairs played by one task without further splitting
+
+    private final int[] lineupA;    // A in seat 1
+    private final int[] lineupB;    // B in seat 1
+    private final long maxGames;
+    private final int parallelism;
+    private final long seed;
+    private final double elo0;
+    private final double elo1;
+
+    /**
+     * Creates a match
+     * @param difficultyA Difficulty of bot A
+     * @param difficultyB Difficulty of bot B, whose strength relative to A is measured
+     * @param maxGames Games after which the match stops without a decision, an even number (whole pairs)
+     * @param parallelism Number of worker threads
+     * @param seed Seed of the whole match
+     * @param elo0 Elo difference of B over A under H0
+     * @param elo1 Elo difference of B over A under H1
+     */
+    public Arena(int difficultyA, int difficultyB, long maxGames, int parallelism, long seed, double elo0, double elo1) {
+        if (maxGames <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Games and parallelism must be positive");
+        }
+        if (maxGames % 2 != 0) {
+            throw new IllegalArgumentException("Games come in pairs, max games must be even: " + maxGames);
+        }
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 must be greater than elo0");
+        }
+        this.lineupA = new int[] {difficultyA, difficultyB};
+        this.lineupB = new int[] {difficultyB, difficultyA};
+        new GameEngine.GameConfig(lineupA); // Validates the difficulties
+        this.maxGames = maxGames;
+        this.parallelism = parallelism;
+        this.seed = seed;
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+    }
+
+    /**
+     * Plays chunks of games until the SPRT accepts a hypothesis or maxGames are played
+     * @param progress Called with the result so far after every chunk (may be null)
+     * @return The result of the match
+     */
+    public Result run(Consumer<Result> progress) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            Result result = new Result(elo0, elo1);
+            long maxPairs = maxGames / 2;
+            for (long pair = 0; pair < maxPairs && result.getDecision() == Decision.NONE; pair += CHUNK_PAIRS) {
+                result.merge(pool.invoke(new PairBatch(pair, Math.min(pair + CHUNK_PAIRS, maxPairs))));
+                result.elapsedNanos = System.nanoTime() - start;
+                if (progress != null) {
+                    progress.accept(result);
+                }
+            }
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Fork/join task that splits the pair range until it is small enough to play locally
+     */
+    @SuppressWarnings("serial") // Never serialized
+    private class PairBatch extends RecursiveTask<Result> {
+        private final long from;
+        private final long to;
+
+        PairBatch(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from <= BATCH_PAIRS) {
+                Result result = new Result(elo0, elo1);
+                GameEngine aFirst = new GameEngine(new GameEngine.GameConfig(lineupA, seed));
+                GameEngine bFirst = new GameEngine(new GameEngine.GameConfig(lineupB, seed));
+                for (long i = from; i < to; i++) {
+                    long gameSeed = GameEngine.gameSeed(seed, i);
+                    result.recordPair(aFirst.playGame(gameSeed), bFirst.playGame(gameSeed));
+                }
+                return result;
+            }
+            long middle = (from + to) >>> 1;
+            PairBatch left = new PairBatch(from, middle);
+            left.fork();
+            Result right = new PairBatch(middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    public enum Decision {
+        NONE,       // Not significant yet
+        H0,         // B is not elo1 stronger than A
+        H1          // B is not only elo0 stronger than A
+    }
+
+    /**
+     * Wins, draws and losses of bot B against bot A, and what follows from them
+     */
+    public static class Result {
+        public long wins;
+        public long draws;
+        public long losses;
+        public final long[] pairs = new long[5]; // Pairs by B's points in half points: 0, 1/2, 1, 3/2, 2
+        public long elapsedNanos;
+        private final double elo0;
+        private final double elo1;
+
+        Result(double elo0, double elo1) {
+            this.elo0 = elo0;
+            this.elo1 = elo1;
+        }
+
+        /**
+         * @param winnerAFirst Winner seat of the game with A in seat 1 (-1 for a draw)
+         * @param winnerBFirst Winner seat of the game with B in seat 1, on the same deal
+         */
+        void recordPair(int winnerAFirst, int winnerBFirst) {
+            pairs[record(winnerAFirst, 1) + record(winnerBFirst, 0)]++;
+        }
+
+        // Counts one game, returns B's points in half points
+        private int record(int winnerSeat, int seatB) {
+            if (winnerSeat < 0) {
+                draws++;
+                return 1;
+            } else if (winnerSeat == seatB) {
+                wins++;
+                return 2;
+            } else {
+                losses++;
+                return 0;
+            }
+        }
+
+        Result merge(Result other) {
+            wins += other.wins;
+            draws += other.draws;
+            losses += other.losses;
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] += other.pairs[i];
+            }
+            return this;
+        }
+
+        public long getGames() { return wins + draws + losses; }
+        public long getPairs() { return getGames() / 2; }
+
+        /**
+         * @return Average points of B per game (win 1, draw 1/2)
+         */
+        public double getScore() {
+            return getGames() == 0 ? 0.5 : (wins + draws / 2.0) / getGames();
+        }
+
+        /**
+         * @return Variance of the average points per game of one pair
+         */
+        private double getVariance() {
+            double score = getScore();
+            long count = getPairs();
+            if (count == 0) {
+                return 0;
+            }
+            double sum = 0;
+            for (int i = 0; i < pairs.length; i++) {
+                double deviation = i / 4.0 - score;
+                sum += pairs[i] * deviation * deviation;
+            }
+            return sum / count;
+        }
+
+        /**
+         * @return Estimated Elo difference of B over A
+         */
+        public double getElo() {
+            return toElo(getScore());
+        }
+
+        /**
+         * @param z Quantile of the normal distribution (1.96 for 95%)
+         * @return Lower and upper bound of the Elo difference
+         */
+        public double[] getEloInterval(double z) {
+            double error = getPairs() == 0 ? 0.5 : z * Math.sqrt(getVariance() / getPairs());
+            return new double[] {toElo(getScore() - error), toElo(getScore() + error)};
+        }
+
+        /**
+         * @return Log-likelihood ratio of H1 against H0
+         */
+        public double getLlr() {
+            double variance = getVariance();
+            if (variance == 0) {
+                return 0; // Too few games, or all alike
+            }
+            double score0 = toScore(elo0);
+            double score1 = toScore(elo1);
+            return (score1 - score0) * (2 * getScore() - score0 - score1) * getPairs() / (2 * variance);
+        }
+
+        public Decision getDecision() {
+            double llr = getLlr();
+            if (llr >= Math.log((1 - BETA) / ALPHA)) {
+                return Decision.H1;
+            }
+            if (llr <= Math.log(BETA / (1 - ALPHA))) {
+                return Decision.H0;
+            }
+            return Decision.NONE;
+        }
+
+        private static double toScore(double elo) {
+            return 1 / (1 + Math.pow(10, -elo / 400));
+        }
+
+        private static double toElo(double score) {
+            score = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+            return -400 * Math.log10(1 / score - 1);
+        }
+
+        public void print() {
+            double[] interval = getEloInterval(1.96);
+            System.out.printf("Games: %d  (B: +%d =%d -%d, score %.2f%%)\n",
+                    getGames(), wins, draws, losses, 100 * getScore());
+            System.out.printf("Pairs by B's points: 0: %d  1/2: %d  1: %d  3/2: %d  2: %d\n",
+                    pairs[0], pairs[1], pairs[2], pairs[3], pairs[4]);
+            System.out.printf("Elo of B over A: %+.1f  (95%%: %+.1f to %+.1f)\n", getElo(), interval[0], interval[1]);
+            System.out.printf("SPRT [%.1f, %.1f]: LLR %.2f (bounds %.2f, %.2f)  %s\n", elo0, elo1, getLlr(),
+                    Math.log(BETA / (1 - ALPHA)), Math.log((1 - BETA) / ALPHA),
+                    getDecision() == Decision.H1 ? "H1 accepted"
+                            : getDecision() == Decision.H0 ? "H0 accepted" : "inconclusive");
+        }
+    }
+
+    public static void main(String[] args) {
+        int difficultyA = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int difficultyB = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        long maxGames = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MAX_GAMES;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        double elo0 = args.length > 5 ? Double.parseDouble(args[5]) : DEFAULT_ELO0;
+        double elo1 = args.length > 6 ? Double.parseDouble(args[6]) : DEFAULT_ELO1;
+
+        System.out.println("Difficulty " + difficultyB + " (B) against difficulty " + difficultyA + " (A), up to "
+                + maxGames + " games on " + threads + " threads (seed " + seed + ")...");
+        Result result = new Arena(difficultyA, difficultyB, maxGames, threads, seed, elo0, elo1).run(progress ->
+                System.out.printf("  %d games: Elo %+.1f, LLR %.2f, %.0f games/sec\n", progress.getGames(),
+                        progress.getElo(), progress.getLlr(), progress.getGames() * 1e9 / progress.elapsedNanos));
+        System.out.println("\n=== ARENA RESULT ===");
+        result.print();
+    }
+}
@@ -1,22 +1,111 @@
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents an AI/Bot player that extends the Player class
  * Implements automatic decision making for card selection
  */
 public class BotPlayer extends Player {
-    private Random random;
-    private int difficulty; // 1 = Easy, 2 = Medium, 3 = Hard
+    private static final CardColor[] COLORS = {CardColor.RED, CardColor.YELLOW, CardColor.GREEN, CardColor.BLUE};
+
+    public static final int MAX_DIFFICULTY = 5;
+
+    private RandomGenerator random;
+    private int difficulty; // 1 = Easy, 2 = Medium, 3 = Hard, 4 = Expert (searches ahead), 5 = Trained (policy table)
+    private final int[] moves = new int[Referee.MOVE_COUNT]; // Reused move buffer of Referee.legalMoves()
+    private final RootParallelSearch search; // Only for difficulty 4
+    private EndgameSolver solver;            // Only for difficulty 3 with setEndgameSolver(true)
+    private IsmctsSearch.Budget searchBudget = IsmctsSearch.Budget.DEFAULT;
+    private PolicyTable policy;              // Only for difficulty 5, null without a trained table
+    private double exploration;              // Share of difficulty 5 moves picked at random (training)
+    private TableView table;            // The game as this bot sees it, needed by the search
+    private CardColor plannedColor;     // Color the search chose together with a wild card
+    private ThinkingDelay thinkingDelay = ThinkingDelay.DEFAULT; // Pause before the move is shown
 
     /**
      * Constructor for bot player with difficulty level
      * @param name Bots name
-     * @param difficulty Difficulty level (1-3)
+     * @param difficulty Difficulty level (1-5)
      */
     public BotPlayer(String name, int difficulty) {
+        this(name, difficulty, new SplittableRandom());
+    }
+
+    /**
+     * Constructor for bot player that draws its decisions from the game's random generator
+     * @param name Bots name
+     * @param difficulty Difficulty level (1-5)
+     * @param random The random generator of the game this bot plays in
+     */
+    public BotPlayer(String name, int difficulty, RandomGenerator random) {
         super(name); // Call parent constructor using super keyword
-        this.random = new Random();
+        this.random = random;
         this.difficulty = difficulty;
+        this.search = difficulty == 4 ? new RootParallelSearch() : null;
+        this.policy = difficulty == 5 ? PolicyTable.getDefault() : null;
+    }
+
+    /**
+     * Lets the difficulty 3 bot search the endgame with an EndgameSolver instead of
+     * playing its highest-points card there. Off by default: the solver has not
+     * measurably beaten the heuristic, and it makes the bot several hundred times slower.
+     * @param enabled true to search the endgame (ignored for other difficulties)
+     */
+    public void setEndgameSolver(boolean enabled) {
+        if (enabled && difficulty == 3 && solver == null) {
+            solver = new EndgameSolver();
+            solver.setBudget(searchBudget);
+        } else if (!enabled) {
+            solver = null;
+        }
+    }
+
+    /**
+     * Lets the bot see the table, which the difficulty 3 and 4 bots need for their searches
+     * @param table The game this bot plays in
+     */
+    public void setTable(TableView table) {
+        this.table = table;
+    }
+
+    /**
+     * Sets how long and on how many threads the difficulty 4 bot may think about a move
+     * (the endgame solver of the difficulty 3 bot only uses the time limit)
+     * @param budget Time and playout limit per move and thread, and the number of threads
+     */
+    public void setSearchBudget(IsmctsSearch.Budget budget) {
+        searchBudget = budget;
+        if (search != null) {
+            search.setBudget(budget);
+        }
+        if (solver != null) {
+            solver.setBudget(budget);
+        }
+    }
+
+    /**
+     * Sets the table the difficulty 5 bot plays by, instead of the default file
+     * @param policy The table, or null to play like difficulty 3 (apart from exploring)
+     * @param exploration Share of moves with a random kind of card (0 outside of training)
+     */
+    public void setPolicy(PolicyTable policy, double exploration) {
+        if (exploration < 0 || exploration > 1) {
+            throw new IllegalArgumentException("Invalid exploration rate: " + exploration);
+        }
+        this.policy = policy;
+        this.exploration = exploration;
+    }
+
+    /**
+     * Sets the cosmetic pause before the bot's move is revealed
+     * @param thinkingDelay The pause, ThinkingDelay.NONE for none
+     */
+    public void setThinkingDelay(ThinkingDelay thinkingDelay) {
+        if (thinkingDelay == null) {
+            throw new IllegalArgumentException("Thinking delay cannot be null");
+        }
+        this.thinkingDelay = thinkingDelay;
     }
 
     /**
@@ -31,37 +120,46 @@ public class BotPlayer extends Player {
 
     // only left in BotPlayer
     /**
-     * Bot's automatic card selection logic
+     * Bot's automatic card selection logic, waiting out the thinking delay
+     * On a virtual thread the wait does not block a platform thread; Run's console
+     * loop calls this on the main thread, which does wait for the pause. Without a
+     * delay no future is created, so the turn allocates nothing.
      * @param topCard Current top card on discard pile
+     * @param activeColor The color to match
      * @return Index of card to play, or -1 to draw
      */
-    public int getCardChoice(Card topCard) {
-        System.out.println("\n It's " + name + "'s turn.");
-
-        // Simulates thinking time
-        try {
-            Thread.sleep(1000 + random.nextInt(1000)); // Sleep 1-2 seconds
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Restore interrupted status
+    public int getCardChoice(Card topCard, CardColor activeColor) {
+        int chosenIndex = decideCard(topCard, activeColor);
+        if (thinkingDelay.maxMillis == 0) {
+            return chosenIndex;
         }
+        return thinkingDelay.reveal(chosenIndex).join();
+    }
 
-        List<Integer> playableCards = new ArrayList<>();
+    /**
+     * Bot's automatic card selection logic without blocking
+     * The card is chosen (and UNO called) immediately, the returned future
+     * reveals the choice once the thinking delay is over.
+     * @param topCard Current top card on discard pile
+     * @param activeColor The color to match
+     * @return Future of the index of the card to play, or -1 to draw
+     */
+    public CompletableFuture<Integer> chooseCard(Card topCard, CardColor activeColor) {
+        return thinkingDelay.reveal(decideCard(topCard, activeColor));
+    }
 
-        // Find all playable cards
-        for (int i = 0; i < hand.size(); i++) {
-            if (hand.get(i).canPlayOn(topCard)) {
-                playableCards.add(i);
-            }
-        }
+    /**
+     * Chooses the card at once, reporting the turn and calling UNO
+     * @return Index of card to play, or -1 to draw
+     */
+    private int decideCard(Card topCard, CardColor activeColor) {
+        events.turnStarted(this);
 
-        if (playableCards.isEmpty()) {
-            System.out.println(name + " draws a card.");
-            return -1; // Draw a card
+        int chosenIndex = selectCard(topCard, activeColor);
+        if (chosenIndex == -1) {
+            return -1; // Draw a card (reported as cardDrawn by the game)
         }
 
-        // Different strategies based on difficulty
-        int chosenIndex = selectCardByDifficulty(playableCards, topCard);
-
         // Auto-call UNO if down to one card
         // Check hand.size() BEFORE playing the card. If it's 2, it will be 1 after playing.
         if (hand.size() == 2) { // Will be 1 after playing this card
@@ -72,99 +170,238 @@ public class BotPlayer extends Player {
         return chosenIndex;
     }
 
+    /**
+     * Pure card selection without events or thinking time
+     * Used directly by the headless GameEngine
+     * @param topCard Current top card on discard pile
+     * @param activeColor The color to match
+     * @return Index of card to play, or -1 to draw
+     */
+    public int selectCard(Card topCard, CardColor activeColor) {
+        // The legal moves with each wild card once (the color is chosen later), in a buffer reused on every turn
+        int moveCount = Referee.legalMoves(hand.getMask(), topCard.getCode(), activeColor.ordinal(),
+                false, moves, 0);
+        if (moves[0] == Referee.DRAW_MOVE) {
+            return -1; // Draw a card
+        }
+
+        // Different strategies based on difficulty
+        return hand.indexOf(selectCardByDifficulty(moveCount, topCard));
+    }
+
     /**
      * Selects card based on bot difficulty level
-     * @param playableCards List of indices of playable cards
+     * @param moveCount Number of moves in moves, all of them playing a card
      * @param topCard Current top card
-     * @return Index of selected card
+     * @return Code of the selected card
      */
-    private int selectCardByDifficulty(List<Integer> playableCards, Card topCard) {
+    private int selectCardByDifficulty(int moveCount, Card topCard) {
         switch (difficulty) {
             case 1: // Easy - Random selection
-                return playableCards.get(random.nextInt(playableCards.size()));
+                return selectRandomCard(moveCount);
 
             case 2: // Medium - Prefer action cards
-                return selectMediumStrategy(playableCards);
+                return selectMediumStrategy(moveCount);
 
             case 3: // Hard - Strategic play
-                return selectHardStrategy(playableCards, topCard);
+                return selectHardStrategy(moveCount, topCard);
+
+            case 4: // Expert - Searches ahead
+                return selectSearchStrategy(moveCount, topCard);
+
+            case 5: // Trained - Looks the move up in the policy table
+                return selectPolicyStrategy(moveCount, topCard);
 
             default:
-                return playableCards.get(0); // Fallback
+                return Referee.moveCode(moves[0]); // Fallback
         }
     }
 
     /**
      * Medium difficulty strategy - prefers action cards
      */
-    private int selectMediumStrategy(List<Integer> playableCards) {
+    private int selectMediumStrategy(int moveCount) {
         // First, look for action cards
-        for (int index : playableCards) {
-            if (hand.get(index).isActionCard()) {
-                return index;
+        for (int i = 0; i < moveCount; i++) {
+            int code = Referee.moveCode(moves[i]);
+            if (Card.fromCode(code).isActionCard()) {
+                return code;
             }
         }
         // If no action cards, pick random
-        return playableCards.get(random.nextInt(playableCards.size()));
+        return selectRandomCard(moveCount);
+    }
+
+    /**
+     * A random playable card, every card in the hand equally likely: each move weighted
+     * by the copies of its card (PlayoutKernel plays easy bots the same way)
+     */
+    private int selectRandomCard(int moveCount) {
+        int total = 0;
+        for (int i = 0; i < moveCount; i++) {
+            total += hand.count(Referee.moveCode(moves[i]));
+        }
+        int pick = random.nextInt(total);
+        if (total == moveCount) {
+            return Referee.moveCode(moves[pick]); // One copy of each card, the usual case
+        }
+        int code = 0;
+        for (int i = 0; i < moveCount; i++) {
+            code = Referee.moveCode(moves[i]);
+            pick -= hand.count(code);
+            if (pick < 0) break;
+        }
+        return code;
     }
 
     /**
      * Hard difficulty strategy - prioritizes high-value cards and strategic plays
+     * With setEndgameSolver(true) the bot searches the rest of the round in the endgame instead
      */
-    private int selectHardStrategy(List<Integer> playableCards, Card topCard) {
-        int bestIndex = playableCards.get(0);
-        int highestPoints = hand.get(bestIndex).getPoints();
+    private int selectHardStrategy(int moveCount, Card topCard) {
+        if (solver != null && table != null && EndgameSolver.isEndgame(table)) {
+            int move = solver.solve(this, table, random.nextLong());
+            int code = move < 0 ? -1 : planMove(move);
+            if (code >= 0) {
+                return code;
+            }
+        }
+
+        int bestCode = Referee.moveCode(moves[0]);
+        int highestPoints = Card.fromCode(bestCode).getPoints();
 
         // Find the highest point card
-        for (int index : playableCards) {
-            Card card = hand.get(index);
-            if (card.getPoints() > highestPoints) {
-                highestPoints = card.getPoints();
-                bestIndex = index;
+        for (int i = 0; i < moveCount; i++) {
+            int code = Referee.moveCode(moves[i]);
+            if (Card.fromCode(code).getPoints() > highestPoints) {
+                highestPoints = Card.fromCode(code).getPoints();
+                bestCode = code;
             }
         }
 
-        return bestIndex;
+        return bestCode;
+    }
+
+    /**
+     * Expert strategy - ISMCTS over the hidden hands and the draw pile, with one
+     * tree per thread of the search budget
+     * Falls back to the hard strategy if the bot cannot see the table
+     */
+    private int selectSearchStrategy(int moveCount, Card topCard) {
+        if (table == null) {
+            return selectHardStrategy(moveCount, topCard);
+        }
+        int move = search.search(this, table, random.nextLong());
+        int code = planMove(move);
+        if (code >= 0) {
+            return code;
+        }
+        return selectHardStrategy(moveCount, topCard); // Not reached: the search only plays legal cards
+    }
+
+    /**
+     * Trained strategy - plays the kind of card the policy table chose for this
+     * situation, of that kind the card with the most points
+     */
+    private int selectPolicyStrategy(int moveCount, Card topCard) {
+        if (table == null) {
+            return selectHardStrategy(moveCount, topCard);
+        }
+        CardColor activeColor = table.getDeck().getActiveColor();
+        int available = 0; // Bit per action class
+        for (int i = 0; i < moveCount; i++) {
+            available |= 1 << PolicyTable.actionOf(Referee.moveCode(moves[i]), activeColor);
+        }
+
+        int action;
+        if (exploration > 0 && random.nextDouble() < exploration) {
+            // A random available action class: skip the lowest set bits
+            int bits = available;
+            for (int k = random.nextInt(Integer.bitCount(bits)); k > 0; k--) {
+                bits &= bits - 1;
+            }
+            action = Integer.numberOfTrailingZeros(bits);
+        } else if (policy != null) {
+            action = policy.getAction(PolicyTable.state(this, table));
+            if (action == PolicyTable.NO_ACTION || (available & (1 << action)) == 0) {
+                return selectHardStrategy(moveCount, topCard); // Untrained state, or no such card in hand
+            }
+        } else {
+            return selectHardStrategy(moveCount, topCard);
+        }
+
+        int bestCode = -1;
+        for (int i = 0; i < moveCount; i++) {
+            int code = Referee.moveCode(moves[i]);
+            if (PolicyTable.actionOf(code, activeColor) == action
+                    && (bestCode < 0 || Card.fromCode(code).getPoints() > Card.fromCode(bestCode).getPoints())) {
+                bestCode = code;
+            }
+        }
+        return bestCode;
+    }
+
+    /**
+     * Checks a searched move against the hand and plans the color of a wild card
+     * @param move A move of Referee.legalMoves() with the wild card colors
+     * @return Code of the card to play, or -1 (e.g. for drawing)
+     */
+    private int planMove(int move) {
+        if (move == Referee.DRAW_MOVE) {
+            return -1;
+        }
+        int code = Referee.moveCode(move);
+        if (hand.count(code) == 0) {
+            return -1;
+        }
+        if (code >= Card.WILD_CODE) {
+            plannedColor = COLORS[Referee.moveColor(move)];
+        }
+        return code;
     }
 
     /**
      * Bot's automatic color selection for wild cards
      * Chooses based on the most common color in hand
+     * (the choice is reported as colorChosen by SpecialCards)
      */
     public CardColor chooseColor() {
-        // Count colors in the hand
-        Map<CardColor, Integer> colorCount = new HashMap<>();
-        colorCount.put(CardColor.RED, 0);
-        colorCount.put(CardColor.YELLOW, 0);
-        colorCount.put(CardColor.GREEN, 0);
-        colorCount.put(CardColor.BLUE, 0);
-
-        for (Card card : hand) {
-            if (card.getColor() != CardColor.BLACK) {
-                colorCount.put(card.getColor(), colorCount.get(card.getColor()) + 1);
-            }
+        return selectColor();
+    }
+
+    /**
+     * Pure color selection
+     * Used directly by the headless GameEngine
+     * @return The most common color in hand, or a random color if there is none
+     */
+    public CardColor selectColor() {
+        // The search chooses the color together with the wild card
+        if (plannedColor != null) {
+            CardColor chosenColor = plannedColor;
+            plannedColor = null;
+            return chosenColor;
         }
 
-        // Find the most common color
+        // Find the most common color, using the color counts kept by the hand
         CardColor mostCommon = CardColor.RED;
-        int maxCount = -1; // starting with -1, to also process 0-count colors
+        int maxCount = 0;
+        for (CardColor color : COLORS) {
+            int count = hand.countColor(color);
+            if (count > maxCount) {
+                maxCount = count;
+                mostCommon = color;
+            }
+        }
 
         // if the hand is empty or holds only wild-cards, chose a color randomly
-        if (hand.isEmpty() || colorCount.values().stream().allMatch(count -> count == 0)) {
-            CardColor[] colors = {CardColor.RED, CardColor.YELLOW, CardColor.GREEN, CardColor.BLUE};
-            mostCommon = colors[random.nextInt(colors.length)];
-        } else {
-            for (Map.Entry<CardColor, Integer> entry : colorCount.entrySet()) {
-                if (entry.getValue() > maxCount) {
-                    maxCount = entry.getValue();
-                    mostCommon = entry.getKey();
-                }
-            }
+        if (maxCount == 0) {
+            mostCommon = COLORS[random.nextInt(COLORS.length)];
         }
-        System.out.println(name + " chooses a color: " + mostCommon);
         return mostCommon;
     }
 
+    public int getDifficulty() { return difficulty; }
+
         /**
          * Bot automatically calls UNO when appropriate
          * Includes a chance for easy bots to forget
@@ -173,12 +410,29 @@ public class BotPlayer extends Player {
         public void callUno() {
             // super.callUno();
             // Bots have a small chance to forget UNO call based on difficulty
-            if (hand.size() == 1) { // only apply if just 1 card is left
-                boolean shouldForget = false;
-                if (difficulty == 1 && random.nextInt(10) == 0) { // 10% chance for easy bots
-                    shouldForget = true;
-                }
-                super.setSaidUno(!shouldForget); // sets the flag according to the Forget-Logic
+            if (hand.size() == 1 && decideUno()) { // only apply if just 1 card is left
+                events.unoCalled(this);
+            }
+        }
+
+        /**
+         * Sets the UNO flag like callUno() without reporting the call, for GameEngine.makeMove()
+         */
+        void callUnoUnreported() {
+            if (hand.size() == 1) {
+                decideUno();
+            }
+        }
+
+        /**
+         * @return true if the bot calls UNO, false if it forgets
+         */
+        private boolean decideUno() {
+            boolean shouldForget = false;
+            if (difficulty == 1 && random.nextInt(10) == 0) { // 10% chance for easy bots
+                shouldForget = true;
             }
+            super.setSaidUno(!shouldForget); // sets the flag according to the Forget-Logic
+            return !shouldForget;
         }
     }
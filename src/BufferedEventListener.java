@@ -0,0 +1,55 @@
+import java.io.PrintStream;
+
+/**
+ * Renders game events like the ConsoleEventListener, but into a buffer
+ * Nothing is written (and the shared PrintStream is not locked) until flush()
+ * is called, e.g. once per game, or the text is read with getText().
+ * Not thread-safe: use one instance per game.
+ */
+public class BufferedEventListener extends ConsoleEventListener {
+    private final StringBuilder buffer = new StringBuilder();
+    private final PrintStream out;
+
+    /**
+     * Buffers the messages for System.out
+     */
+    public BufferedEventListener() {
+        this(System.out);
+    }
+
+    /**
+     * @param out Where flush() writes the collected messages
+     */
+    public BufferedEventListener(PrintStream out) {
+        super(out);
+        this.out = out;
+    }
+
+    @Override
+    protected void print(String message) {
+        buffer.append(message).append('\n');
+    }
+
+    /**
+     * Writes all collected messages in one call and empties the buffer
+     */
+    public void flush() {
+        out.print(buffer);
+        out.flush();
+        buffer.setLength(0);
+    }
+
+    /**
+     * @return All messages collected since the last flush() or clear()
+     */
+    public String getText() {
+        return buffer.toString();
+    }
+
+    /**
+     * Discards the collected messages
+     */
+    public void clear() {
+        buffer.setLength(0);
+    }
+}
@@ -1,22 +1,79 @@
-
 public class Card {
     /**
      * Represents a single UNO card with color, type, and point value
      * This class encapsulates all card-related data and behavior
+     *
+     * Cards are immutable flyweights: there is exactly one Card instance per
+     * color/type combination, looked up by its compact code. The color chosen
+     * for a wild card is game state (see Deck.getActiveColor()), not card state.
      */
-        private CardColor color;
+        public static final int COLORED_TYPES = 13;    // ZERO..SKIP exist in every color
+        public static final int WILD_CODE = 4 * COLORED_TYPES;          // 52
+        public static final int WILD_DRAW_FOUR_CODE = WILD_CODE + 1;     // 53
+        public static final int CODE_COUNT = WILD_DRAW_FOUR_CODE + 1;    // 54 distinct cards
+
+        // Flyweight table, indexed by card code
+        private static final Card[] BY_CODE = new Card[CODE_COUNT];
+
+        static {
+            for (CardColor color : new CardColor[] {CardColor.RED, CardColor.YELLOW, CardColor.GREEN, CardColor.BLUE}) {
+                for (int type = 0; type < COLORED_TYPES; type++) {
+                    Card card = new Card(color, CardType.values()[type]);
+                    BY_CODE[card.code] = card;
+                }
+            }
+            BY_CODE[WILD_CODE] = new Card(CardColor.BLACK, CardType.WILD);
+            BY_CODE[WILD_DRAW_FOUR_CODE] = new Card(CardColor.BLACK, CardType.WILD_DRAW_FOUR);
+        }
+
+        private final CardColor color;
         private final CardType type;
         private final int points; // Punktwert für Punkteberechnung
+        private final byte code;  // Color and type packed into one byte: color * 13 + type, wilds 52 and 53
+        private final String displayName;
 
         /**
-         * Constructor for creating a card
+         * Constructor for creating a card (only used to build the flyweight table)
          * @param color The color of the card
          * @param type The type/value of the card
          */
-        public Card(CardColor color, CardType type) {
+        private Card(CardColor color, CardType type) {
             this.color = color;
             this.type = type;
             this.points = calculatePoints(); // Automatically calculate points based on the card type
+            this.code = (byte) encode(color, type);
+            this.displayName = color == CardColor.BLACK
+                    ? type.toString().replace("_", " ")                  // For black cards, only show the type
+                    : color + " " + type.toString().replace("_", " "); // For colored cards, show both
+        }
+
+        /**
+         * Returns the shared instance for a color/type combination
+         * @param color The color of the card (BLACK for wild cards)
+         * @param type The type/value of the card
+         * @return The flyweight card
+         */
+        public static Card of(CardColor color, CardType type) {
+            if ((color == CardColor.BLACK) != (type == CardType.WILD || type == CardType.WILD_DRAW_FOUR)) {
+                throw new IllegalArgumentException("No such card: " + color + " " + type);
+            }
+            return BY_CODE[encode(color, type)];
+        }
+
+        /**
+         * Returns the shared instance for a card code
+         * @param code The code of the card (0-53)
+         * @return The flyweight card
+         */
+        public static Card fromCode(int code) {
+            return BY_CODE[code];
+        }
+
+        private static int encode(CardColor color, CardType type) {
+            if (color == CardColor.BLACK) {
+                return type == CardType.WILD ? WILD_CODE : WILD_DRAW_FOUR_CODE;
+            }
+            return color.ordinal() * COLORED_TYPES + type.ordinal();
         }
 
 
@@ -52,17 +109,14 @@ public class Card {
 
         /**
          * Checks if this card can be played on top of another card
+         * Wild cards can always be played, other cards need the same color or the same type
          * @param topCard The card currently on top of the discard pile
+         * @param activeColor The color to match (the chosen color if the top card is a wild card)
          * @return true if this card can be played, false otherwise
          */
-        public boolean canPlayOn(Card topCard) {
-            // Wild cards can always be played
-            if (this.type == CardType.WILD || this.type == CardType.WILD_DRAW_FOUR) {
-                return true;
-            }
-
-            // Same color or same type can be played
-            return this.color == topCard.color || this.type == topCard.type;
+        public boolean canPlayOn(Card topCard, CardColor activeColor) {
+            // Precomputed for all combinations, see LegalityTable
+            return LegalityTable.canPlay(code, topCard.code, activeColor.ordinal());
         }
 
         /**
@@ -81,20 +135,24 @@ public class Card {
          */
         @Override
         public String toString() {
-            if (color == CardColor.BLACK) {
-                // For black cards, only show the type
-                return type.toString().replace("_", " ");
-            } else {
-                // For colored cards, show both color and type
-                return color + " " + type.toString().replace("_", " ");
+            return displayName;
+        }
+
+        /**
+         * Returns a string representation of the card as the top card of the discard pile
+         * @param activeColor The color currently in play
+         * @return Formatted string, including the chosen color for wild cards
+         */
+        public String toString(CardColor activeColor) {
+            if (color == CardColor.BLACK && activeColor != CardColor.BLACK) {
+                return displayName + " (" + activeColor + ")";
             }
+            return displayName;
         }
 
         // Getter methods (accessor methods) to access private fields
         public CardColor getColor() { return color; }
         public CardType getType() { return type; }
         public int getPoints() { return points; }
-
-        // Setter for color (needed for wild cards when player chooses color)
-        public void setColor(CardColor color) { this.color = color; }
+        public int getCode() { return code; }
     }
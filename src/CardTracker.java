@@ -0,0 +1,151 @@
+/**
+ * Card counting for the bots: which cards of the deck nobody has seen
+ * Every card on the discard pile is open information; all other cards are in
+ * the draw pile or in a hand. The Deck updates the tracker whenever a card is
+ * played and when the discard pile is reshuffled into the draw pile (then its
+ * cards are unseen again, only the top card stays visible), so the counts never
+ * have to be rebuilt from the discard pile. Drawing changes nothing here: the
+ * drawn card stays unseen for everybody but the player who drew it.
+ *
+ * A player's own view subtracts their hand from these counts (see
+ * probabilityHoldsColor()); the hand sizes of the opponents are open and kept
+ * up to date by their Hand.
+ */
+public class CardTracker {
+    private static final int COLOR_COUNT = CardColor.values().length;
+    private static final int TYPE_COUNT = CardType.values().length;
+    private static final CardColor[] COLORS = CardColor.values();
+    private static final CardType[] TYPES = CardType.values();
+
+    // Copies of every card code, color and type in a complete deck
+    private static final int[] DECK_CODES = new int[Card.CODE_COUNT];
+    private static final int[] DECK_COLORS = new int[COLOR_COUNT];
+    private static final int[] DECK_TYPES = new int[TYPE_COUNT];
+    private static final byte[] COLOR_OF = new byte[Card.CODE_COUNT];
+    private static final byte[] TYPE_OF = new byte[Card.CODE_COUNT];
+
+    static {
+        byte[] deck = new byte[Deck.DECK_SIZE];
+        Deck.copyStandardDeck(deck);
+        for (int code = 0; code < Card.CODE_COUNT; code++) {
+            COLOR_OF[code] = (byte) Card.fromCode(code).getColor().ordinal();
+            TYPE_OF[code] = (byte) Card.fromCode(code).getType().ordinal();
+        }
+        for (byte code : deck) {
+            DECK_CODES[code]++;
+            DECK_COLORS[COLOR_OF[code]]++;
+            DECK_TYPES[TYPE_OF[code]]++;
+        }
+    }
+
+    private final int[] unseenCodes = new int[Card.CODE_COUNT];
+    private final int[] unseenColors = new int[COLOR_COUNT];
+    private final int[] unseenTypes = new int[TYPE_COUNT];
+    private int unseenTotal;
+
+    @SuppressWarnings("this-escape") // reset() only fills the arrays initialized above
+    public CardTracker() {
+        reset();
+    }
+
+    /**
+     * All cards are unseen again, for a new round (called by Deck.reset())
+     */
+    void reset() {
+        System.arraycopy(DECK_CODES, 0, unseenCodes, 0, Card.CODE_COUNT);
+        System.arraycopy(DECK_COLORS, 0, unseenColors, 0, COLOR_COUNT);
+        System.arraycopy(DECK_TYPES, 0, unseenTypes, 0, TYPE_COUNT);
+        unseenTotal = Deck.DECK_SIZE;
+    }
+
+    /**
+     * A card was put on the discard pile (called by Deck.playCode())
+     */
+    void cardPlayed(int code) {
+        unseenCodes[code]--;
+        unseenColors[COLOR_OF[code]]--;
+        unseenTypes[TYPE_OF[code]]--;
+        unseenTotal--;
+    }
+
+    /**
+     * The top card was taken back from the discard pile (called by Deck.unplayCode())
+     */
+    void cardUnplayed(int code) {
+        unseenCodes[code]++;
+        unseenColors[COLOR_OF[code]]++;
+        unseenTypes[TYPE_OF[code]]++;
+        unseenTotal++;
+    }
+
+    /**
+     * The discard pile went back into the draw pile, except its top card
+     * (called by Deck.reshuffleDiscardPile())
+     * Only the top card has been seen now, so the counts restart from a full deck:
+     * no card of the old discard pile has to be looked at.
+     */
+    void reshuffled(int topCode) {
+        reset();
+        cardPlayed(topCode);
+    }
+
+    /**
+     * @param code A card code
+     * @return Copies of that card not on the discard pile
+     */
+    public int getUnseen(int code) { return unseenCodes[code]; }
+
+    /**
+     * @param color A card color (BLACK for the wild cards)
+     * @return Cards of that color not on the discard pile
+     */
+    public int getUnseen(CardColor color) { return unseenColors[color.ordinal()]; }
+
+    /**
+     * @param type A card type
+     * @return Cards of that type not on the discard pile, in all colors
+     */
+    public int getUnseen(CardType type) { return unseenTypes[type.ordinal()]; }
+
+    /**
+     * @return Cards not on the discard pile: the draw pile and all hands
+     */
+    public int getUnseenTotal() { return unseenTotal; }
+
+    /**
+     * Chance that an opponent holds at least one card of a color, as the observer sees it
+     * The cards the observer cannot see (unseen minus the own hand) are assumed to be
+     * spread at random over the draw pile and the other hands (hypergeometric).
+     * @param observer The player asking, whose own cards are known to them
+     * @param opponent The player asked about
+     * @param color The color in question
+     * @return Probability from 0 to 1
+     */
+    public double probabilityHoldsColor(Player observer, Player opponent, CardColor color) {
+        int hidden = unseenTotal - observer.getHandSize();
+        int matching = unseenColors[color.ordinal()] - observer.countColor(color);
+        int handSize = opponent.getHandSize();
+        if (matching <= 0 || handSize == 0) {
+            return 0.0;
+        }
+        // 1 - P(none of the opponent's cards has the color)
+        double none = 1.0;
+        for (int i = 0; i < handSize && none > 0.0; i++) {
+            none *= (double) Math.max(0, hidden - matching - i) / (hidden - i);
+        }
+        return 1.0 - none;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("Unseen: " + unseenTotal + " cards (");
+        for (int c = 0; c < COLOR_COUNT; c++) {
+            text.append(c == 0 ? "" : ", ").append(COLORS[c]).append(' ').append(unseenColors[c]);
+        }
+        text.append(';');
+        for (int t = 0; t < TYPE_COUNT; t++) {
+            text.append(' ').append(TYPES[t]).append(' ').append(unseenTypes[t]);
+        }
+        return text.append(')').toString();
+    }
+}
@@ -0,0 +1,197 @@
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * Renders game events as text, with the messages the game has always printed
+ */
+public class ConsoleEventListener implements GameEventListener {
+    private final PrintStream out;
+
+    /**
+     * Prints to System.out
+     */
+    public ConsoleEventListener() {
+        this(System.out);
+    }
+
+    /**
+     * @param out Where the messages are printed
+     */
+    public ConsoleEventListener(PrintStream out) {
+        if (out == null) {
+            throw new IllegalArgumentException("Output stream cannot be null");
+        }
+        this.out = out;
+    }
+
+    /**
+     * Writes one message (may contain line breaks)
+     * Overridden by BufferedEventListener to collect the messages instead
+     */
+    protected void print(String message) {
+        out.println(message);
+    }
+
+    @Override
+    public void startingPlayer(Player player) {
+        print("Starting player: " + player.getName());
+    }
+
+    @Override
+    public void startingCard(Card card) {
+        print("Starting card: " + card);
+    }
+
+    @Override
+    public void newRound(int roundNumber) {
+        print("\nStarting round " + roundNumber + "...");
+    }
+
+    @Override
+    public void turnStarted(Player player) {
+        print("\n It's " + player.getName() + "'s turn.");
+    }
+
+    @Override
+    public void cardPlayed(Player player, Card card) {
+        print(player.getName() + " plays: " + card);
+    }
+
+    @Override
+    public void cardDrawn(Player player, Card card) {
+        print(player.getName() + " draws: " + card);
+    }
+
+    @Override
+    public void drawnCardKept(Player player, Card card, boolean playable) {
+        if (playable) {
+            print(player.getName() + " decides not to play the drawn card.");
+        } else {
+            print(player.getName() + " cannot play the drawn card.");
+        }
+    }
+
+    @Override
+    public void noCardsLeft() {
+        print("No more cards to draw from the deck.");
+    }
+
+    @Override
+    public void reshuffled() {
+        print("No more cards to draw - so the discard pile has been reshuffled!");
+    }
+
+    @Override
+    public void mustDraw(Player player, int cards) {
+        print(player.getName() + " must draw " + cards + " cards and skip their turn!");
+    }
+
+    @Override
+    public void playerSkipped(Player player) {
+        print("⏭️ " + player.getName() + " must skip their turn!!");
+    }
+
+    @Override
+    public void directionChanged(int direction) {
+        print("🔄 Play direction is reversed!");
+        if (direction == 1) {
+            print("The game now proceeds clockwise.");
+        } else {
+            print("The game now proceeds counterclockwise.");
+        }
+    }
+
+    @Override
+    public void colorChosen(Player player, CardColor color) {
+        print("🎨 " + player.getName() + " chooses " + color + " as new color!");
+    }
+
+    @Override
+    public void challenged(Player challenger, Player challengedPlayer, boolean wasBluffing) {
+        print(challenger.getName() + " challenges " + challengedPlayer.getName() + " !");
+        print(challengedPlayer.getName() + (wasBluffing ? " was bluffing!" : " was not bluffing!"));
+    }
+
+    @Override
+    public void unoCalled(Player player) {
+        print(player.getName() + " calls: UNO!");
+    }
+
+    @Override
+    public void unoForgotten(Player player) {
+        print(player.getName() + " forgot to call UNO!");
+    }
+
+    @Override
+    public void invalidPlay(Player player, Card card, Card topCard) {
+        print("Invalid card! " + card + " cannot be played on " + topCard + ".");
+    }
+
+    @Override
+    public void playedOutOfTurn(Player player) {
+        print(player.getName() + " played out of turn!");
+    }
+
+    @Override
+    public void penaltyCards(Player player, int cards) {
+        print(player.getName() + " must draw " + cards + (cards == 1 ? " penalty card!" : " penalty cards!"));
+    }
+
+    @Override
+    public void penalty(Player player, int penaltyCount) {
+        print(player.getName() + "  receives a penalty! (Total: " + penaltyCount + ")");
+    }
+
+    @Override
+    public void disqualified(Player player) {
+        print(player.getName() + " is disqualified due to too many penalties!");
+    }
+
+    @Override
+    public void roundWon(Player winner) {
+        print("\n=== ROUND RESULT ===");
+        print("🎉 " + winner.getName() + " has won the round!!");
+    }
+
+    @Override
+    public void handScored(Player player, int handPoints) {
+        print(player.getName() + " has " + handPoints + " points left in hand..");
+    }
+
+    @Override
+    public void roundScored(Player winner, int points) {
+        print(winner.getName() + " receives " + points + " points!");
+        print("Total score for " + winner.getName() + ": " + winner.getTotalScore());
+    }
+
+    @Override
+    public void standings(List<Player> players) {
+        print("\n=== CURRENT SCORES ===");
+        // Sort players by score for better display
+        List<Player> sortedPlayers = new ArrayList<>(players);
+        sortedPlayers.sort((p1, p2) -> Integer.compare(p2.getTotalScore(), p1.getTotalScore()));
+        for (Player player : sortedPlayers) {
+            print(player.getName() + ": " + player.getTotalScore() + " points");
+        }
+    }
+
+    @Override
+    public void gameWon(Player winner) {
+        print("\n🏆 " + winner.getName() + " has won the entire game!");
+    }
+
+    @Override
+    public void gameDrawn() {
+        print("\n⚠️ Both card piles are empty! The game ends in a draw.");
+    }
+
+    @Override
+    public void notEnoughPlayers() {
+        print("Not enough players remaining! Game ends.");
+    }
+
+    @Override
+    public void gameEnded() {
+        print("Game over.");
+    }
+}
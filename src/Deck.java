@@ -1,73 +1,124 @@
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Manages the UNO deck including draw pile and discard pile
- * Uses Stack data structure for LIFO (Last In, First Out) behavior
+ * Both piles live in one array of card codes used as a ring buffer:
+ * the draw pile is followed directly by the discard pile, and the slots
+ * after the discard pile belong to cards that are in the players' hands.
+ *
+ *   [drawStart ... drawStart+drawCount)                draw pile, next card at drawStart
+ *   [drawStart+drawCount ... +discardCount)            discard pile, top card last
+ *
+ * Drawing advances drawStart, playing a card appends behind the discard pile.
+ * When the draw pile is empty, the discard pile (without its top card) simply
+ * becomes the new draw pile - no card is moved - and is shuffled in place.
  */
 public class Deck {
-    private Stack<Card> drawPile;    // Nachziehstapel
-    private Stack<Card> discardPile; // Ablegestapel
-    private Random random;           // For shuffling cards
+    public static final int DECK_SIZE = 108;
+    // Card codes of a complete UNO deck, shared by all decks
+    private static final byte[] STANDARD_DECK = createStandardDeck();
+
+    private final byte[] cards;      // Ring buffer holding both piles (Nachziehstapel + Ablegestapel)
+    private int drawStart;           // Index of the next card to draw
+    private int drawCount;           // Number of cards in the draw pile
+    private int discardCount;        // Number of cards in the discard pile
+    private int drawnCount;          // Cards drawn since the last reset(), for GameLog
+    private RandomGenerator random;  // For shuffling cards
+    private GameEventListener events; // Receives reshuffles and the starting card
+    private CardColor activeColor;   // Color to match: the top card's color, or the color chosen for a wild card
+    private final CardTracker tracker = new CardTracker(); // Cards not seen on the discard pile
 
     /**
      * Constructor initializes the deck and creates all 108 UNO cards
      */
     public Deck() {
-        drawPile = new Stack<>();    // Stack is a class that extends Vector
-        discardPile = new Stack<>(); // LIFO - Last card added is first card removed
-        random = new Random();
-        initializeDeck();
-        shuffleDeck();
+        this(new SplittableRandom(), new ConsoleEventListener());
     }
 
     /**
-     * Creates all 108 UNO cards according to official rules
+     * Constructor for a deck shuffled by the game's random generator
+     * @param random The random generator of the game, so that games can be replayed from a seed
+     * @param events Receives the deck's events (GameEventListener.NONE for the headless GameEngine)
+     */
+    public Deck(RandomGenerator random, GameEventListener events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Event listener cannot be null");
+        }
+        this.events = events;
+        this.cards = new byte[DECK_SIZE];
+        this.random = random;
+        reset();
+    }
+
+    /**
+     * Collects all 108 UNO card codes according to official rules
      * 76 number cards + 24 colored action cards + 8 black special cards = 108 total
      */
-    private void initializeDeck() {
+    private static byte[] createStandardDeck() {
+        byte[] codes = new byte[DECK_SIZE];
+        int count = 0;
+
         // Create number cards for each color
         for (CardColor color : Arrays.asList(CardColor.RED, CardColor.YELLOW,
                 CardColor.GREEN, CardColor.BLUE)) {
 
             // Add one zero card per color (4 total)
-            drawPile.push(new Card(color, CardType.ZERO));
+            codes[count++] = (byte) Card.of(color, CardType.ZERO).getCode();
 
-            // Add two of each number 1-9 per color (72 total)
+            // Add two of each number 1-9 and each colored action card per color (72 + 24 total)
             for (CardType type : Arrays.asList(CardType.ONE, CardType.TWO, CardType.THREE,
                     CardType.FOUR, CardType.FIVE, CardType.SIX,
-                    CardType.SEVEN, CardType.EIGHT, CardType.NINE)) {
-                drawPile.push(new Card(color, type)); // First copy
-                drawPile.push(new Card(color, type)); // Second copy
+                    CardType.SEVEN, CardType.EIGHT, CardType.NINE,
+                    CardType.DRAW_TWO, CardType.REVERSE, CardType.SKIP)) {
+                codes[count++] = (byte) Card.of(color, type).getCode(); // First copy
+                codes[count++] = (byte) Card.of(color, type).getCode(); // Second copy
             }
-
-            // Add two of each colored action card per color (24 total)
-            drawPile.push(new Card(color, CardType.DRAW_TWO));
-            drawPile.push(new Card(color, CardType.DRAW_TWO));
-            drawPile.push(new Card(color, CardType.REVERSE));
-            drawPile.push(new Card(color, CardType.REVERSE));
-            drawPile.push(new Card(color, CardType.SKIP));
-            drawPile.push(new Card(color, CardType.SKIP));
         }
 
         // Add black special cards (8 total)
         for (int i = 0; i < 4; i++) {
-            drawPile.push(new Card(CardColor.BLACK, CardType.WILD));
-            drawPile.push(new Card(CardColor.BLACK, CardType.WILD_DRAW_FOUR));
+            codes[count++] = (byte) Card.WILD_CODE;
+            codes[count++] = (byte) Card.WILD_DRAW_FOUR_CODE;
         }
+        return codes;
     }
 
     /**
-     * Shuffles the draw pile using Collections.shuffle()
-     * Collections.shuffle() randomly permutes the specified list
+     * Copies the codes of a complete deck, in the order reset() shuffles them from
+     * Lets PlayoutKernel deal exactly the same cards as a Deck with the same random sequence
+     * @param target Array of at least DECK_SIZE codes
      */
-    public void shuffleDeck() {
-        List<Card> tempList = new ArrayList<>(drawPile); // Convert Stack to List
-        Collections.shuffle(tempList, random);           // Shuffle the list
-        drawPile.clear();                               // Clear the original stack
+    static void copyStandardDeck(byte[] target) {
+        System.arraycopy(STANDARD_DECK, 0, target, 0, DECK_SIZE);
+    }
 
-        // Add shuffled cards back to stack
-        // Using addAll() method to add all elements from collection
-        drawPile.addAll(tempList);
+    /**
+     * Puts all 108 cards back into the draw pile and shuffles it for a new round
+     * Reuses this deck instead of creating a new one every round
+     */
+    public void reset() {
+        System.arraycopy(STANDARD_DECK, 0, cards, 0, DECK_SIZE);
+        drawStart = 0;
+        drawCount = DECK_SIZE;
+        discardCount = 0;
+        drawnCount = 0;
+        activeColor = CardColor.BLACK;
+        tracker.reset();
+        shuffleDeck();
+    }
+
+    /**
+     * Shuffles the draw pile in place with the Fisher-Yates algorithm
+     */
+    public void shuffleDeck() {
+        for (int i = drawCount - 1; i > 0; i--) {
+            int a = slot(drawStart + i);
+            int b = slot(drawStart + random.nextInt(i + 1));
+            byte card = cards[a];
+            cards[a] = cards[b];
+            cards[b] = card;
+        }
     }
 
     /**
@@ -76,13 +127,40 @@ public class Deck {
      * @return The drawn card
      */
     public Card drawCard() {
+        int code = drawCode();
+        // Return the top card from draw pile, or null if completely empty
+        return code < 0 ? null : Card.fromCode(code);
+    }
+
+    /**
+     * Draws a card from the draw pile, as a card code
+     * If draw pile is empty, reshuffles discard pile (except top card)
+     * @return The code of the drawn card, or -1 if both piles are empty
+     */
+    public int drawCode() {
+        return drawCode(true);
+    }
+
+    /**
+     * Draws like drawCode() without reporting a reshuffle, for GameEngine.makeMove()
+     */
+    int drawCodeUnreported() {
+        return drawCode(false);
+    }
+
+    private int drawCode(boolean report) {
         // Check if draw pile is empty
-        if (drawPile.isEmpty()) {
-            reshuffleDiscardPile(); // Reshuffle discard pile into draw pile
+        if (drawCount == 0) {
+            reshuffleDiscardPile(report); // Reshuffle discard pile into draw pile
+            if (drawCount == 0) {
+                return -1;
+            }
         }
-
-        // Return the top card from draw pile, or null if completely empty
-        return drawPile.isEmpty() ? null : drawPile.pop();
+        int code = cards[drawStart];
+        drawStart = slot(drawStart + 1);
+        drawCount--;
+        drawnCount++;
+        return code;
     }
 
     /**
@@ -96,7 +174,7 @@ public class Deck {
             if (drawnCard != null) {
                 player.addCard(drawnCard);
             } else {
-                System.out.println("No more cards to draw from the deck.");
+                events.noCardsLeft();
                 break; // Deck ist leer, keine weiteren Karten ziehen
             }
         }
@@ -105,45 +183,76 @@ public class Deck {
     /**
      * Reshuffles the discard pile back into the draw pile
      * Keeps the top card of discard pile as the current card
+     * The cards below the top card already follow the (empty) draw pile in the
+     * ring buffer, so they become the draw pile by moving the pile boundary.
+     * @param report false to keep the reshuffle from the event listener
      */
-    private void reshuffleDiscardPile() {
-        if (discardPile.size() <= 1) {
+    private void reshuffleDiscardPile(boolean report) {
+        if (discardCount <= 1) {
             return; // Can't reshuffle if only one or no cards in discard pile
         }
 
-        Card topCard = discardPile.pop(); // Remove and save the top card
-
-        // Move all remaining discard cards to draw pile
-        while (!discardPile.isEmpty()) {
-            Card card = discardPile.pop();
-            // Reset wild card colors to black for reshuffling
-            if (card.getType() == CardType.WILD || card.getType() == CardType.WILD_DRAW_FOUR) {
-                card.setColor(CardColor.BLACK);
-            }
-            drawPile.push(card);
-        }
-
+        // The discard pile starts at drawStart because the draw pile is empty
+        // (wild cards need no reset, the chosen color is kept in activeColor)
+        drawCount = discardCount - 1;
+        discardCount = 1;
         shuffleDeck();              // Shuffle the new draw pile
-        discardPile.push(topCard);  // Put the top card back on discard pile
+        tracker.reshuffled(getTopCode());
 
-        System.out.println("No more cards to draw - so the discard pile has been reshuffled!");
+        if (report) {
+            events.reshuffled();
+        }
     }
 
     /**
      * Plays a card to the discard pile
+     * The active color becomes the card's color (BLACK for wild cards until a color is chosen)
      * @param card The card to be played
      */
     public void playCard(Card card) {
-        discardPile.push(card);
+        playCode(card.getCode());
+    }
+
+    /**
+     * Plays a card to the discard pile, given as a card code
+     * @param code The code of the card to be played
+     */
+    public void playCode(int code) {
+        if (drawCount + discardCount >= DECK_SIZE) {
+            throw new IllegalStateException("All cards are already in the piles");
+        }
+        cards[slot(drawStart + drawCount + discardCount)] = (byte) code;
+        discardCount++;
+        activeColor = Card.fromCode(code).getColor();
+        tracker.cardPlayed(code);
     }
 
     /**
      * Gets the top card of the discard pile without removing it
-     * peek() method returns the top element without removing it
      * @return The top card of discard pile, or null if empty
      */
     public Card getTopCard() {
-        return discardPile.isEmpty() ? null : discardPile.peek();
+        return discardCount == 0 ? null : Card.fromCode(getTopCode());
+    }
+
+    /**
+     * Gets the code of the top card of the discard pile
+     * @return The code of the top card (only valid if the discard pile is not empty)
+     */
+    public int getTopCode() {
+        return cards[slot(drawStart + drawCount + discardCount - 1)];
+    }
+
+    /**
+     * Gets a card of the discard pile, which is open information for all players
+     * @param index Position in the discard pile, 0 is the bottom card and getDiscardPileSize() - 1 the top card
+     * @return The code of that card
+     */
+    public int getDiscardCode(int index) {
+        if (index < 0 || index >= discardCount) {
+            throw new IndexOutOfBoundsException("Invalid discard pile index: " + index);
+        }
+        return cards[slot(drawStart + drawCount + index)];
     }
 
     /**
@@ -151,23 +260,125 @@ public class Deck {
      * Ensures the first card is not a Wild Draw Four card
      */
     public void setupInitialCard() {
-        Card firstCard;
+        int firstCode;
         do {
-            firstCard = drawCard();
-            // If it's a Wild Draw Four, put it back and draw another
-            if (firstCard != null && firstCard.getType() == CardType.WILD_DRAW_FOUR) {
-                drawPile.add(0, firstCard); // Add to bottom of deck using add(index, element)
-                shuffleDeck();
+            firstCode = drawCode();
+            // If it's a Wild Draw Four, put it back at a random place in the draw pile and draw another
+            if (firstCode == Card.WILD_DRAW_FOUR_CODE) {
+                drawStart = slot(drawStart + DECK_SIZE - 1); // Its slot still holds the card
+                drawCount++;
+                drawnCount--;
+                int other = slot(drawStart + random.nextInt(drawCount));
+                cards[drawStart] = cards[other];
+                cards[other] = (byte) firstCode;
             }
-        } while (firstCard != null && firstCard.getType() == CardType.WILD_DRAW_FOUR);
+        } while (firstCode == Card.WILD_DRAW_FOUR_CODE);
 
-        if (firstCard != null) {
-            playCard(firstCard);
-            System.out.println("Starting card: " + firstCard);
+        if (firstCode >= 0) {
+            playCode(firstCode);
+            events.startingCard(Card.fromCode(firstCode));
         }
     }
 
+    /**
+     * Copies both piles in order, for GameState: the draw pile (next card first),
+     * then the discard pile (top card last)
+     * @param target Array to copy to
+     * @param offset Index of the first code in target
+     * @return Number of codes copied
+     */
+    int copyPiles(byte[] target, int offset) {
+        int count = drawCount + discardCount;
+        int first = Math.min(count, DECK_SIZE - drawStart); // Up to the end of the ring buffer
+        System.arraycopy(cards, drawStart, target, offset, first);
+        System.arraycopy(cards, 0, target, offset + first, count - first);
+        return count;
+    }
+
+    /**
+     * Replaces both piles with ones copied by copyPiles()
+     * The tracker is rebuilt from the discard pile, which holds exactly the cards seen since the last reshuffle.
+     * @param source Array holding the draw pile followed by the discard pile
+     * @param offset Index of the first code in source
+     * @param drawCount Cards in the draw pile
+     * @param discardCount Cards in the discard pile
+     * @param activeColor The color to match
+     */
+    void restorePiles(byte[] source, int offset, int drawCount, int discardCount, CardColor activeColor) {
+        if (drawCount < 0 || discardCount < 0 || drawCount + discardCount > DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid pile sizes: " + drawCount + " and " + discardCount);
+        }
+        System.arraycopy(source, offset, cards, 0, drawCount + discardCount);
+        this.drawStart = 0;
+        this.drawCount = drawCount;
+        this.discardCount = discardCount;
+        this.activeColor = activeColor;
+        tracker.reset();
+        for (int i = drawCount; i < drawCount + discardCount; i++) {
+            tracker.cardPlayed(cards[i]);
+        }
+    }
+
+    /**
+     * Puts a drawn card back on top of the draw pile, taking back drawCode()
+     * @param code The code of the card
+     */
+    void undrawCode(int code) {
+        drawStart = slot(drawStart + DECK_SIZE - 1);
+        cards[drawStart] = (byte) code;
+        drawCount++;
+        drawnCount--;
+    }
+
+    /**
+     * Takes the top card back from the discard pile, taking back playCode()
+     * @param previousColor The active color before the card was played
+     */
+    void unplayCode(CardColor previousColor) {
+        tracker.cardUnplayed(getTopCode());
+        discardCount--;
+        activeColor = previousColor;
+    }
+
+    /**
+     * Takes back a reshuffle: the draw pile turns back into the discard pile below the top card
+     * Only valid right after the reshuffle (nothing drawn or played since, or all of it taken back).
+     * @param source The discard pile before the reshuffle, as copied by copyPiles() at that time
+     * @param offset Index of its first code
+     * @param count Cards in the discard pile before the reshuffle
+     */
+    void unreshuffle(byte[] source, int offset, int count) {
+        if (discardCount != 1 || drawCount != count - 1) {
+            throw new IllegalStateException("The piles changed since the reshuffle");
+        }
+        tracker.reset();
+        for (int i = 0; i < count; i++) {
+            cards[slot(drawStart + i)] = source[offset + i];
+            tracker.cardPlayed(source[offset + i]);
+        }
+        drawCount = 0;
+        discardCount = count;
+    }
+
+    /**
+     * Maps a position that may run past the end of the ring buffer to an array index
+     */
+    private static int slot(int position) {
+        return position >= DECK_SIZE ? position - DECK_SIZE : position;
+    }
+
+    /**
+     * Sets the color chosen for the wild card on top of the discard pile
+     * @param activeColor The chosen color
+     */
+    public void setActiveColor(CardColor activeColor) {
+        this.activeColor = activeColor;
+    }
+
     // Getter methods
-    public int getDrawPileSize() { return drawPile.size(); }
-    public int getDiscardPileSize() { return discardPile.size(); }
+    public CardColor getActiveColor() { return activeColor; }
+    public int getDrawPileSize() { return drawCount; }
+    public int getDiscardPileSize() { return discardCount; }
+    public int getDrawnCount() { return drawnCount; }
+    public CardTracker getTracker() { return tracker; }
 }
@@ -0,0 +1,122 @@
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * What a searching bot knows about the game, and random games that fit it
+ * observe() reads the information set of the player to move: the own hand, the
+ * discard pile, the hand sizes and the cards nobody has seen (the deck's
+ * CardTracker counts minus the own hand). deal() then sets up a PlayoutKernel
+ * with one determinization: the unseen cards are shuffled and dealt to the
+ * opponents according to their hand sizes, the rest becomes the draw pile.
+ * Shared by IsmctsSearch and EndgameSolver.
+ */
+public class Determinizer {
+    private int playerCount;
+    private int me;                                             // Position of the searching bot in turn order
+    private int[] handSizes = new int[0];
+    private int opponentCards;                                  // Cards in all other hands together
+    private final int[] ownCounts = new int[Card.CODE_COUNT];   // The bot's own hand
+    private long ownMask;
+    private final int[] unseen = new int[Deck.DECK_SIZE];       // Codes of all cards the bot cannot see
+    private int unseenCount;
+    private final int[] discard = new int[Deck.DECK_SIZE];
+    private int discardCount;
+    private int top;
+    private int color;
+    private int direction;
+
+    /**
+     * Reads everything the searching player can know about the game
+     * @param self The searching player, must be the current player of the table
+     * @param table The game as the player sees it
+     */
+    public void observe(Player self, TableView table) {
+        if (table.getPlayer(table.getCurrentPlayerIndex()) != self) {
+            throw new IllegalStateException(self.getName() + " can only search on its own turn");
+        }
+        playerCount = table.getPlayerCount();
+        me = table.getCurrentPlayerIndex();
+        if (handSizes.length < playerCount) {
+            handSizes = new int[playerCount];
+        }
+
+        Arrays.fill(ownCounts, 0);
+        ownMask = 0;
+        for (int i = 0; i < self.getHandSize(); i++) {
+            int code = self.getCardCode(i);
+            ownCounts[code]++;
+            ownMask |= 1L << code;
+        }
+        // The discard pile is still copied: reshuffles in the playouts put it back into the draw pile
+        Deck deck = table.getDeck();
+        discardCount = deck.getDiscardPileSize();
+        for (int i = 0; i < discardCount; i++) {
+            discard[i] = deck.getDiscardCode(i);
+        }
+        CardTracker tracker = deck.getTracker();
+        unseenCount = 0;
+        for (int code = 0; code < Card.CODE_COUNT; code++) {
+            for (int k = tracker.getUnseen(code) - ownCounts[code]; k > 0; k--) {
+                unseen[unseenCount++] = code;
+            }
+        }
+        opponentCards = 0;
+        for (int p = 0; p < playerCount; p++) {
+            handSizes[p] = table.getPlayer(p).getHandSize();
+            if (p != me) {
+                opponentCards += handSizes[p];
+            }
+        }
+        top = deck.getTopCode();
+        color = deck.getActiveColor().ordinal();
+        direction = table.getDirection();
+    }
+
+    /**
+     * Sets up a kernel with a random game that fits the observation
+     * @param kernel Kernel with at least getPlayerCount() seats; positions are the table's player indices
+     * @param random Shuffles the unseen cards
+     */
+    public void deal(PlayoutKernel kernel, RandomGenerator random) {
+        for (int i = unseenCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int code = unseen[i];
+            unseen[i] = unseen[j];
+            unseen[j] = code;
+        }
+        kernel.setupPosition(playerCount, direction, me, color);
+        int next = Math.max(0, unseenCount - opponentCards);
+        kernel.setPiles(unseen, next, discard, discardCount);
+        for (int p = 0; p < playerCount; p++) {
+            if (p == me) {
+                for (int code = 0; code < Card.CODE_COUNT; code++) {
+                    for (int k = 0; k < ownCounts[code]; k++) {
+                        kernel.addToHand(p, code);
+                    }
+                }
+            } else {
+                for (int k = 0; k < handSizes[p] && next < unseenCount; k++) {
+                    kernel.addToHand(p, unseen[next++]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Cards in all hands together, the own hand included
+     */
+    public int getCardsInHands() {
+        int total = 0;
+        for (int p = 0; p < playerCount; p++) {
+            total += handSizes[p];
+        }
+        return total;
+    }
+
+    // The observation
+    public int getPlayerCount() { return playerCount; }
+    public int getMe() { return me; }
+    public long getOwnMask() { return ownMask; }
+    public int getTopCode() { return top; }
+    public int getActiveColor() { return color; }
+}
@@ -0,0 +1,294 @@
+import java.util.*;
+
+/**
+ * Endgame search for the hard bot, used once only a few cards are left in the hands
+ *
+ * The hidden cards are dealt at random many times (see Determinizer). Each deal
+ * fixes the opponents' hands and the order of the draw pile, and the rest of the
+ * round is searched to its end with expectimax: the bot takes its best move, wild
+ * card colors included, and each opponent plays any of its legal cards with the same
+ * chance, choosing colors like BotPlayer. A round won by the bot is worth WIN plus
+ * the points it scores, a round won by anybody else -WIN minus the points that
+ * player scores, since games are played to 500 points. Positions at the depth limit
+ * are estimated by hand sizes. Draw outcomes are covered by the deals, not by chance
+ * nodes: a drawn card is the next one of the deal's draw pile, so the search is exact
+ * for each deal only, and averaging the deals samples the draws. The move
+ * with the best total over all deals is played, and of equally good moves the one
+ * that gets rid of the most points, like the hard heuristic. One deal is solved in
+ * a few hundred nodes near the end of a round, so deals continue up to MAX_DEALS
+ * while the node limit allows. A handful of deals is too noisy to beat the heuristic:
+ * below MIN_DEALS the solver gives up and the bot plays its heuristic move.
+ *
+ * Moves are made and taken back on one PlayoutKernel (makeMove()/unmakeMove()),
+ * nothing is copied. Positions are cached in a TranspositionTable of the solver's
+ * own, cleared for every move, so a move depends only on the position and the seed
+ * and not on what other games or earlier moves stored; each deal salts its hashes,
+ * so different deals never mix.
+ *
+ * The search stops at a node limit, which keeps games reproducible from their seed.
+ * A search budget with a time limit (only the interactive game sets one) also stops
+ * it, and then the move depends on the speed of the machine. Not thread-safe: one
+ * solver per bot.
+ */
+public class EndgameSolver {
+    public static final int MAX_CARDS_IN_HANDS = 6; // The solver takes over at this many cards in all hands together
+    public static final int MAX_NODES = 50_000;     // Per move, over all deals
+    private static final int MAX_DEALS = 256;       // Cheap endgames are dealt until the node limit is reached
+    private static final int MIN_DEALS = 32;        // Fewer deals are too noisy to beat the hard heuristic
+    private static final int MAX_DEPTH = 24;        // Moves looked ahead, below PlayoutKernel.MAX_UNDO
+    private static final int WIN = 1000;
+    private static final int INFINITY = Short.MAX_VALUE; // Values are stored as shorts in the table
+    private static final int MOVES = Referee.MOVE_COUNT;
+
+
+    // 2^16 entries of 16 bytes, more than the nodes of one move, each a value (16 bits), its search
+    // depth (8 bits) and whether the value is exact (EXACT) or only as deep as the depth
+    private static final long EXACT = 1L << 24;
+    private final TranspositionTable cache = new TranspositionTable(16);
+    private final GameRandom random = new GameRandom(0);
+    private final Determinizer observation = new Determinizer();
+    private PlayoutKernel kernel = new PlayoutKernel(2, GameEngine.WINNING_SCORE);
+    private IsmctsSearch.Budget budget = IsmctsSearch.Budget.DEFAULT;
+    private final int[] moves = new int[(MAX_DEPTH + 1) * MOVES]; // One move buffer per ply
+    private final int[] rootValues = new int[MOVES];
+    private final int[] iterationValues = new int[MOVES];
+    private final long[] totals = new long[MOVES];
+
+    private int me;
+    private long salt;           // Hash salt of the current deal
+    private int nodes;
+    private long deadline;
+    private boolean aborted;     // Node or time limit reached
+    private boolean horizon;     // The depth limit was reached somewhere in the current iteration
+    private int deals;
+
+    /**
+     * Sets the time limit per move (the playout limit and threads are not used)
+     * @param budget Budget of one move
+     */
+    public void setBudget(IsmctsSearch.Budget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Budget cannot be null");
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * Checks whether the game is in the endgame, from what every player can see
+     * @param table The game
+     * @return true if the hands hold at most MAX_CARDS_IN_HANDS cards together
+     */
+    public static boolean isEndgame(TableView table) {
+        int cards = 0;
+        for (int p = 0; p < table.getPlayerCount(); p++) {
+            cards += table.getPlayer(p).getHandSize();
+        }
+        return cards <= MAX_CARDS_IN_HANDS;
+    }
+
+    /**
+     * Searches the best move for the player whose turn it is
+     * @param self The searching player, must be the current player of the table
+     * @param table The game as the player sees it
+     * @param seed Seed of the deals
+     * @return The chosen move (see Referee.legalMoves()), or -1 if fewer than MIN_DEALS deals could be solved
+     */
+    public int solve(Player self, TableView table, long seed) {
+        observation.observe(self, table);
+        if (kernel.getSeatCount() < observation.getPlayerCount()) {
+            kernel = new PlayoutKernel(observation.getPlayerCount(), GameEngine.WINNING_SCORE);
+        }
+        random.setSeed(seed);
+        kernel.setSeed(GameRandom.mix64(seed));
+        cache.clear();
+        me = observation.getMe();
+        nodes = 0;
+        aborted = false;
+        deadline = budget.maxMillis > 0 ? System.nanoTime() + budget.maxMillis * 1_000_000L : Long.MAX_VALUE;
+
+        int rootCount = Referee.legalMoves(observation.getOwnMask(), observation.getTopCode(),
+                observation.getActiveColor(), true, moves, 0);
+        if (rootCount == 1) {
+            return moves[0];
+        }
+        Arrays.fill(totals, 0);
+        deals = 0;
+        while (deals < MAX_DEALS && !aborted) {
+            observation.deal(kernel, random);
+            if (!kernel.canMakeMove()) {
+                break; // Too few cards to draw: a reshuffle could not be taken back
+            }
+            salt = random.nextLong();
+            if (!solveDeal(rootCount)) {
+                break; // An unfinished deal is not counted
+            }
+            for (int i = 0; i < rootCount; i++) {
+                totals[i] += rootValues[i];
+            }
+            deals++;
+            if (deals < MIN_DEALS && (long) nodes * MIN_DEALS > (long) MAX_NODES * deals) {
+                return -1; // At this cost per deal the node limit comes first: leave the move to the heuristic
+            }
+        }
+        if (deals < MIN_DEALS) {
+            return -1;
+        }
+
+        int best = 0;
+        for (int i = 1; i < rootCount; i++) {
+            if (totals[i] > totals[best]
+                    || totals[i] == totals[best] && movePoints(moves[i]) > movePoints(moves[best])) {
+                best = i;
+            }
+        }
+        return moves[best];
+    }
+
+    /**
+     * Values every root move in the current deal, deepening until the round is solved
+     * exactly or the depth limit is reached
+     * @return false if the search was aborted before the first iteration finished
+     */
+    private boolean solveDeal(int rootCount) {
+        for (int depth = 2; depth <= MAX_DEPTH; depth += 2) {
+            horizon = false;
+            for (int i = 0; i < rootCount; i++) {
+                int value = searchMove(moves[i], true, depth, 1);
+                if (aborted) {
+                    return depth > 2; // The values of the last finished iteration are kept
+                }
+                iterationValues[i] = value;
+            }
+            System.arraycopy(iterationValues, 0, rootValues, 0, rootCount);
+            if (!horizon) {
+                break; // Every line ends with a won round: the values are exact
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Makes a move, searches the position after it and takes the move back
+     * @param move A move of Referee.legalMoves()
+     * @param wildColor false to let the kernel pick the most common color for a wild card
+     */
+    private int searchMove(int move, boolean wildColor, int depth, int ply) {
+        if (move == Referee.DRAW_MOVE) {
+            kernel.makeMove(-1, -1);
+        } else {
+            kernel.makeMove(Referee.moveCode(move),
+                    wildColor && move >= Referee.WILD_MOVES ? Referee.moveColor(move) : -1);
+        }
+        int value = expectimax(depth - 1, ply);
+        kernel.unmakeMove();
+        return value;
+    }
+
+    /**
+     * The bot takes its best move, an opponent any of its legal moves with the same
+     * chance (choosing wild colors like BotPlayer)
+     * @return Value of the position for the bot
+     */
+    private int expectimax(int depth, int ply) {
+        int winner = kernel.getRoundWinner();
+        if (winner >= 0) {
+            return winner == me ? WIN + roundPoints(winner) : -WIN - roundPoints(winner);
+        }
+        if (!kernel.isRoundRunning()) {
+            return 0; // Both piles empty
+        }
+        if ((++nodes & 1023) == 0 && System.nanoTime() >= deadline || nodes >= MAX_NODES) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (depth == 0 || !kernel.canMakeMove()) {
+            horizon = true;
+            return estimate();
+        }
+
+        long hash = kernel.getHash() ^ salt;
+        long entry = cache.probe(hash);
+        if (entry != TranspositionTable.MISS) {
+            // An exact value holds at any depth, a depth-limited one only for searches no deeper
+            if ((entry & EXACT) != 0) {
+                return (short) entry;
+            }
+            if ((int) (entry >>> 16 & 0xFF) >= depth) {
+                horizon = true; // The value still rests on estimates
+                return (short) entry;
+            }
+        }
+        boolean outerHorizon = horizon;
+        horizon = false; // From here on: whether this position's subtree reaches the depth limit
+
+        int player = kernel.getCurrentPlayer();
+        int base = ply * MOVES;
+        int value;
+        // The bot's moves include the wild card colors, an opponent plays each card once and picks the color
+        boolean mine = player == me;
+        int count = Referee.legalMoves(kernel.getHandMask(player), kernel.getTopCode(),
+                kernel.getActiveColor(), mine, moves, base);
+        if (mine) {
+            value = -INFINITY;
+            for (int i = base; i < base + count && !aborted; i++) {
+                value = Math.max(value, searchMove(moves[i], true, depth, ply + 1));
+            }
+        } else {
+            int sum = 0;
+            for (int i = base; i < base + count && !aborted; i++) {
+                sum += searchMove(moves[i], false, depth, ply + 1);
+            }
+            value = sum / count;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        cache.store(hash, (value & 0xFFFFL) | (long) depth << 16 | (horizon ? 0 : EXACT));
+        horizon |= outerHorizon;
+        return value;
+    }
+
+    /**
+     * Points the winner of the round scores: the cards left in all other hands
+     */
+    private int roundPoints(int winner) {
+        int points = 0;
+        for (int p = 0; p < kernel.getPlayerCount(); p++) {
+            if (p != winner) {
+                points += kernel.countHandPoints(p);
+            }
+        }
+        return points;
+    }
+
+    private static int movePoints(int move) {
+        return move == Referee.DRAW_MOVE ? 0 : Card.fromCode(Referee.moveCode(move)).getPoints();
+    }
+
+    /**
+     * Value of a position at the depth limit: fewer cards than the closest opponent is good
+     */
+    private int estimate() {
+        int mine = kernel.getHandSize(me);
+        int fewest = Integer.MAX_VALUE;
+        for (int p = 0; p < kernel.getPlayerCount(); p++) {
+            if (p != me) {
+                fewest = Math.min(fewest, kernel.getHandSize(p));
+            }
+        }
+        return Math.max(-WIN / 2, Math.min(WIN / 2, (fewest - mine) * 50));
+    }
+
+    /**
+     * @return Nodes searched for the last move
+     */
+    public int getNodes() { return nodes; }
+
+    /**
+     * @return Deals solved for the last move
+     */
+    public int getDeals() { return deals; }
+}
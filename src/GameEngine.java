@@ -0,0 +1,681 @@
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Headless game engine for bot-only UNO games.
+ * Applies the same rules as Run, Referee and SpecialCards, but without
+ * Scanner, Menu, console output or bot thinking time, so that complete
+ * games can be simulated at full CPU speed. Events go to GameEventListener.NONE
+ * unless a listener is given (e.g. a ConsoleEventListener to watch a game).
+ *
+ * All randomness of a game (shuffling, starting player, bot decisions and
+ * UNO checks) comes from one GameRandom seeded from the GameConfig,
+ * so any game can be replayed exactly from its seed.
+ *
+ * An engine can be reused for many games of the same lineup with playGame(seed).
+ * After warm-up a game then allocates nothing: the deck, hands, bots and their
+ * move buffers are all reused.
+ *
+ * Searches and replays can also drive a game move by move: newGame() deals it,
+ * makeMove() applies one move and unmakeMove() takes it back exactly.
+ */
+public class GameEngine implements TableView {
+    public static final int WINNING_SCORE = 500;     // Same target as Referee.checkGameWinner()
+    private static final int CARDS_PER_PLAYER = 7;
+    private static final int MAX_PENALTIES = 3;
+    private static final CardColor[] COLORS = CardColor.values();
+
+    // Undo stack of makeMove()
+    public static final int MAX_UNDO = 256;           // Moves that unmakeMove() can take back
+    private static final int UNDO_FIELDS = 7;         // Per move: player, direction, random state (2), turns, status, first op
+    private static final int MAX_OPS_PER_MOVE = 24;   // 7 cards drawn with their UNO flags, reshuffles, play, score
+    private static final int MAX_SAVED_CARDS = MAX_UNDO + 4 * Deck.DECK_SIZE; // Each card is played once per move at most
+    // Logged changes: type in the low 4 bits, the player index in the next 4, a value above
+    private static final int OP_DRAW = 0;       // The player drew a card (it is the last one of the hand)
+    private static final int OP_PLAY = 1;       // The player played a card: value = hand index | previous active color << 8
+    private static final int OP_RESHUFFLE = 2;  // The discard pile was reshuffled: value = its size, saved in savedCards
+    private static final int OP_SAID_UNO = 3;   // The player's UNO flag changed: value = previous flag
+    private static final int OP_SCORE = 4;      // The player scored: value = points
+
+    private final GameConfig config;
+    private final BotPlayer[] seats;          // Players by seat, never changes during a game
+    private final List<BotPlayer> players;    // Players still in the game (disqualified ones are removed)
+    private final GameRandom random;
+    private final Deck deck;
+    private final GameEventListener events;
+    private int currentPlayerIndex;
+    private int direction; // 1 for clockwise, -1 for counter-clockwise
+    private int roundNumber;
+    private int turns;
+    private boolean roundOver;
+    private boolean gameOver;
+    private int winnerSeat;
+
+    // Undo stack of makeMove(): per move the turn state before it, and a log of what it changed
+    private final int[] undo = new int[MAX_UNDO * UNDO_FIELDS];
+    private final int[] ops = new int[MAX_UNDO * MAX_OPS_PER_MOVE];
+    private final byte[] savedCards = new byte[MAX_SAVED_CARDS]; // Discard piles before reshuffles
+    private int undoDepth;
+    private int opCount;
+    private int savedCardCount;
+
+    /**
+     * Creates an engine for a single game
+     * @param config The bot difficulties and target score of the game
+     */
+    public GameEngine(GameConfig config) {
+        this(config, GameEventListener.NONE);
+    }
+
+    /**
+     * Creates an engine for a single game that reports its events
+     * @param config The bot difficulties and target score of the game
+     * @param events Receives the events of every game played by this engine
+     */
+    @SuppressWarnings("this-escape") // The bots only keep the reference, they read the table once the game runs
+    public GameEngine(GameConfig config, GameEventListener events) {
+        if (config == null) {
+            throw new IllegalArgumentException("Game config cannot be null");
+        }
+        if (events == null) {
+            throw new IllegalArgumentException("Event listener cannot be null");
+        }
+        this.config = config;
+        this.events = events;
+        this.random = new GameRandom(config.seed);
+        this.seats = new BotPlayer[config.difficulties.length];
+        this.players = new ArrayList<>(seats.length);
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = new BotPlayer(BotPlayer.generateBotName(i), config.difficulties[i], random);
+            seats[i].setEventListener(events);
+            seats[i].setTable(this);
+            seats[i].setSearchBudget(config.searchBudget);
+            seats[i].setThinkingDelay(ThinkingDelay.NONE); // Headless: nothing to show
+            players.add(seats[i]);
+        }
+        this.deck = new Deck(random, events);
+    }
+
+    /**
+     * Plays the game until a player reaches the winning score, the piles run out
+     * or fewer than two players remain
+     * @return The result of the game
+     */
+    public GameResult play() {
+        playGame(config.seed);
+        int[] scores = new int[seats.length];
+        for (int i = 0; i < seats.length; i++) {
+            scores[i] = seats[i].getTotalScore();
+        }
+        return new GameResult(config.seed, winnerSeat, roundNumber, turns, scores);
+    }
+
+    /**
+     * Plays a new game with the same lineup, reusing this engine
+     * The outcome can be read with getRounds(), getTurns() and getScore()
+     * @param seed Seed of the game
+     * @return Seat of the winner, or -1 if the game ended without one
+     */
+    public int playGame(long seed) {
+        newGame(seed);
+        while (!gameOver) {
+            if (!removeDisqualifiedPlayers()) {
+                events.notEnoughPlayers();
+                break;
+            }
+            if (isDeckCompletelyEmpty()) {
+                events.gameDrawn(); // Ends in a draw, like Run.handleEmptyDeck()
+                break;
+            }
+
+            playTurn();
+            if (roundOver) {
+                roundNumber++;
+                events.newRound(roundNumber);
+                startRound(0);
+            } else if (!gameOver) {
+                moveToNextPlayer();
+            }
+        }
+        events.gameEnded();
+        return winnerSeat;
+    }
+
+    /**
+     * Starts a new game with the same lineup without playing it: the first round is
+     * dealt and its starting card applied. playGame() goes on from here, or moves
+     * are made one by one with makeMove().
+     * @param seed Seed of the game
+     */
+    public void newGame(long seed) {
+        random.setSeed(seed);
+        players.clear();
+        for (BotPlayer seat : seats) {
+            seat.resetScore();
+            players.add(seat);
+        }
+        winnerSeat = -1;
+        roundNumber = 1;
+        turns = 0;
+        gameOver = false;
+        undoDepth = 0;
+        opCount = 0;
+        savedCardCount = 0;
+        startRound(random.nextInt(players.size())); // Like Initialization.selectStartingPlayer()
+    }
+
+    /**
+     * Deals a fresh deck and applies the starting card, like Run.prepareNewRound()
+     * and Run.handleStartingSpecialCard()
+     */
+    private void startRound(int startingPlayerIndex) {
+        // Index loops instead of for-each: no iterator per loop
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).clearHand();
+            players.get(i).resetPenalties();
+        }
+        deck.reset();
+        for (int i = 0; i < CARDS_PER_PLAYER; i++) {
+            for (int p = 0; p < players.size(); p++) {
+                Card card = deck.drawCard();
+                if (card != null) {
+                    players.get(p).addCard(card);
+                }
+            }
+        }
+        deck.setupInitialCard();
+        direction = 1;
+        currentPlayerIndex = startingPlayerIndex;
+        roundOver = false;
+        events.roundDealt(this, roundNumber);
+        events.startingPlayer(players.get(currentPlayerIndex));
+
+        Card firstCard = deck.getTopCard();
+        BotPlayer firstPlayer = players.get(currentPlayerIndex);
+        switch (firstCard.getType()) {
+            case DRAW_TWO:
+                events.mustDraw(firstPlayer, 2);
+                drawCards(firstPlayer, 2);
+                moveToNextPlayer();
+                break;
+            case REVERSE:
+                direction = -1;
+                events.directionChanged(direction);
+                break;
+            case SKIP:
+                events.playerSkipped(firstPlayer);
+                moveToNextPlayer();
+                break;
+            case WILD:
+                deck.setActiveColor(firstPlayer.selectColor());
+                events.colorChosen(firstPlayer, deck.getActiveColor());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void playTurn() {
+        turns++;
+        BotPlayer bot = players.get(currentPlayerIndex);
+        events.turnStarted(bot);
+        int cardChoiceIndex = bot.selectCard(deck.getTopCard(), deck.getActiveColor());
+        if (cardChoiceIndex == -1) {
+            Card drawnCard = deck.drawCard();
+            if (drawnCard != null) {
+                bot.addCard(drawnCard);
+                events.cardDrawn(bot, drawnCard);
+                // Bots always play a drawn card if they can, like Run.handleDrawCard()
+                if (drawnCard.canPlayOn(deck.getTopCard(), deck.getActiveColor())) {
+                    playCard(bot, bot.playCard(bot.getHandSize() - 1));
+                } else {
+                    events.drawnCardKept(bot, drawnCard, false);
+                }
+            } else {
+                events.noCardsLeft();
+            }
+        } else {
+            playCard(bot, bot.playCard(cardChoiceIndex));
+        }
+    }
+
+    private void playCard(BotPlayer bot, Card card) {
+        deck.playCard(card);
+        events.cardPlayed(bot, card);
+        if (bot.getHandSize() == 1) {
+            bot.callUno(); // A bot that forgets UNO is not penalized, like in Run.playCard()
+        } else if (bot.getHandSize() > 1) {
+            bot.setSaidUno(false);
+        }
+
+        if (SpecialCards.isSpecialCard(card)) {
+            handleSpecialCardEffects(bot, card);
+        }
+        if (bot.getHandSize() == 0) {
+            handleRoundWin(bot);
+        }
+    }
+
+    /**
+     * Same effects as Run.handleSpecialCardEffects()
+     */
+    private void handleSpecialCardEffects(BotPlayer bot, Card card) {
+        Player nextPlayer = players.get(getNextPlayerIndex());
+        switch (card.getType()) {
+            case DRAW_TWO:
+                events.mustDraw(nextPlayer, 2);
+                drawCards(nextPlayer, 2);
+                moveToNextPlayer();
+                break;
+            case REVERSE:
+                direction = -direction;
+                events.directionChanged(direction);
+                break;
+            case SKIP:
+                events.playerSkipped(nextPlayer);
+                moveToNextPlayer();
+                break;
+            case WILD:
+                deck.setActiveColor(bot.selectColor());
+                events.colorChosen(bot, deck.getActiveColor());
+                break;
+            case WILD_DRAW_FOUR:
+                deck.setActiveColor(bot.selectColor());
+                events.colorChosen(bot, deck.getActiveColor());
+                events.mustDraw(nextPlayer, 4);
+                drawCards(nextPlayer, 4);
+                moveToNextPlayer();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Same scoring as Referee.calculateRoundScore() and Referee.checkGameWinner()
+     */
+    private void handleRoundWin(BotPlayer winner) {
+        events.roundWon(winner);
+        int totalPoints = 0;
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i) != winner) {
+                int handPoints = players.get(i).calculateHandPoints();
+                events.handScored(players.get(i), handPoints);
+                totalPoints += handPoints;
+            }
+        }
+        winner.addScore(totalPoints);
+        events.roundScored(winner, totalPoints);
+
+        if (winner.getTotalScore() >= config.winningScore) {
+            for (int i = 0; i < seats.length; i++) {
+                if (seats[i] == winner) {
+                    winnerSeat = i;
+                }
+            }
+            events.gameWon(winner);
+            gameOver = true;
+        } else {
+            roundOver = true;
+        }
+    }
+
+    private void drawCards(Player player, int numCards) {
+        for (int i = 0; i < numCards; i++) {
+            Card drawnCard = deck.drawCard();
+            if (drawnCard == null) {
+                break;
+            }
+            player.addCard(drawnCard);
+        }
+    }
+
+    /**
+     * Removes players with too many penalties, like Run.checkGameEndConditions()
+     * @return true if at least two players remain
+     */
+    private boolean removeDisqualifiedPlayers() {
+        for (int i = players.size() - 1; i >= 0; i--) {
+            if (players.get(i).getPenaltyCount() >= MAX_PENALTIES) {
+                events.disqualified(players.get(i));
+                players.remove(i);
+                if (i < currentPlayerIndex) {
+                    currentPlayerIndex--;
+                }
+            }
+        }
+        if (currentPlayerIndex >= players.size()) {
+            currentPlayerIndex = 0;
+        }
+        return players.size() >= 2;
+    }
+
+    // --- Reversible moves, for searches and replays ---
+
+    /**
+     * Makes a move of the current player with the rules of a turn of playGame(),
+     * recording everything it changes so that unmakeMove() can take it back:
+     * the card played, every card drawn (by the player, by a DRAW TWO or WILD DRAW FOUR
+     * victim), reshuffles, the direction, skips, UNO flags and the score of a won
+     * round. The move draws on the game's random generator like a turn (UNO calls,
+     * reshuffles) and reports no events
+     * of its own. It does not start the next round or remove disqualified players.
+     * Allocates nothing.
+     * @param cardIndex Index of the card to play in the current player's hand,
+     *                  or -1 to draw a card (which is played if it can be, like bots do)
+     * @param color Color chosen for a wild card (also a drawn one), ignored for other cards
+     * @throws IllegalStateException If the round is over or MAX_UNDO moves are on the undo stack
+     * @throws IllegalArgumentException If the card cannot be played, or a wild card has no color
+     */
+    public void makeMove(int cardIndex, CardColor color) {
+        if (roundOver || gameOver) {
+            throw new IllegalStateException("The round is over");
+        }
+        if (undoDepth == MAX_UNDO) {
+            throw new IllegalStateException("Undo stack full: " + MAX_UNDO + " moves");
+        }
+        BotPlayer bot = players.get(currentPlayerIndex);
+        if (cardIndex != -1 && !bot.getCard(cardIndex).canPlayOn(deck.getTopCard(), deck.getActiveColor())) {
+            throw new IllegalArgumentException("Cannot play " + bot.getCard(cardIndex) + " on "
+                    + deck.getTopCard().toString(deck.getActiveColor()));
+        }
+        boolean wildColor = color != null && color != CardColor.BLACK;
+        if (cardIndex != -1 && bot.getCard(cardIndex).getColor() == CardColor.BLACK && !wildColor) {
+            throw new IllegalArgumentException("A wild card needs a color");
+        }
+
+        int base = undoDepth++ * UNDO_FIELDS;
+        long state = random.getSeed();
+        undo[base] = currentPlayerIndex;
+        undo[base + 1] = direction;
+        undo[base + 2] = (int) state;
+        undo[base + 3] = (int) (state >>> 32);
+        undo[base + 4] = turns;
+        undo[base + 5] = (roundOver ? 1 : 0) | (gameOver ? 2 : 0) | (winnerSeat + 1) << 2;
+        undo[base + 6] = opCount;
+
+        turns++;
+        int player = currentPlayerIndex;
+        if (cardIndex == -1) {
+            int code = drawLogged(player);
+            // A drawn wild card without a color is kept, everything else playable is played
+            if (code >= 0 && Card.fromCode(code).canPlayOn(deck.getTopCard(), deck.getActiveColor())
+                    && (code < Card.WILD_CODE || wildColor)) {
+                playLogged(player, bot.getHandSize() - 1, color);
+            }
+        } else {
+            playLogged(player, cardIndex, color);
+        }
+        if (!roundOver && !gameOver) {
+            moveToNextPlayer();
+        }
+    }
+
+    /**
+     * Takes back the last move made with makeMove(), restoring the piles, hands,
+     * flags, scores, turn order and random generator exactly. Allocates nothing.
+     * @throws IllegalStateException If there is no move to take back
+     */
+    public void unmakeMove() {
+        if (undoDepth == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        int base = --undoDepth * UNDO_FIELDS;
+        int firstOp = undo[base + 6];
+        while (opCount > firstOp) {
+            int op = ops[--opCount];
+            Player player = players.get(op >>> 4 & 0xF);
+            int value = op >>> 8;
+            switch (op & 0xF) {
+                case OP_DRAW:
+                    deck.undrawCode(player.playCard(player.getHandSize() - 1).getCode());
+                    break;
+                case OP_PLAY:
+                    Card card = deck.getTopCard();
+                    deck.unplayCode(COLORS[value >>> 8]);
+                    player.unplayCard(value & 0xFF, card);
+                    break;
+                case OP_RESHUFFLE:
+                    savedCardCount -= value;
+                    deck.unreshuffle(savedCards, savedCardCount, value);
+                    break;
+                case OP_SAID_UNO:
+                    player.setSaidUno(value != 0);
+                    break;
+                case OP_SCORE:
+                    player.removeScore(value);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown undo entry: " + op);
+            }
+        }
+        currentPlayerIndex = undo[base];
+        direction = undo[base + 1];
+        random.setSeed(undo[base + 2] & 0xFFFFFFFFL | (long) undo[base + 3] << 32);
+        turns = undo[base + 4];
+        roundOver = (undo[base + 5] & 1) != 0;
+        gameOver = (undo[base + 5] & 2) != 0;
+        winnerSeat = (undo[base + 5] >> 2) - 1;
+    }
+
+    /**
+     * @return Moves on the undo stack
+     */
+    public int getUndoDepth() { return undoDepth; }
+
+    /**
+     * @return true if the current round is over, so makeMove() cannot continue it
+     */
+    public boolean isRoundOver() { return roundOver || gameOver; }
+
+    private void log(int type, int player, int value) {
+        ops[opCount++] = type | player << 4 | value << 8;
+    }
+
+    /**
+     * Draws a card for a player, logging a reshuffle and the player's UNO flag
+     * @return The code of the drawn card, or -1 if both piles are empty
+     */
+    private int drawLogged(int player) {
+        if (deck.getDrawPileSize() == 0 && deck.getDiscardPileSize() > 1) {
+            if (savedCardCount + deck.getDiscardPileSize() > savedCards.length) {
+                throw new IllegalStateException("Too many reshuffles on the undo stack");
+            }
+            int count = deck.copyPiles(savedCards, savedCardCount); // Only the discard pile is left
+            savedCardCount += count;
+            log(OP_RESHUFFLE, 0, count);
+        }
+        int code = deck.drawCodeUnreported();
+        if (code >= 0) {
+            Player drawer = players.get(player);
+            if (drawer.hasSaidUno()) {
+                log(OP_SAID_UNO, player, 1); // addCard() resets it
+            }
+            drawer.addCard(Card.fromCode(code));
+            log(OP_DRAW, player, 0);
+        }
+        return code;
+    }
+
+    private void drawLogged(int player, int numCards) {
+        for (int i = 0; i < numCards; i++) {
+            if (drawLogged(player) < 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Plays a card with the effects of playCard() and handleSpecialCardEffects(), logging every change
+     */
+    private void playLogged(int player, int cardIndex, CardColor color) {
+        BotPlayer bot = players.get(player);
+        log(OP_PLAY, player, cardIndex | deck.getActiveColor().ordinal() << 8);
+        Card card = bot.playCard(cardIndex);
+        deck.playCard(card);
+        log(OP_SAID_UNO, player, bot.hasSaidUno() ? 1 : 0);
+        if (bot.getHandSize() == 1) {
+            bot.callUnoUnreported();
+        } else if (bot.getHandSize() > 1) {
+            bot.setSaidUno(false);
+        }
+
+        int next = getNextPlayerIndex();
+        switch (card.getType()) {
+            case DRAW_TWO:
+                drawLogged(next, 2);
+                moveToNextPlayer();
+                break;
+            case REVERSE:
+                direction = -direction;
+                break;
+            case SKIP:
+                moveToNextPlayer();
+                break;
+            case WILD:
+                deck.setActiveColor(color);
+                break;
+            case WILD_DRAW_FOUR:
+                deck.setActiveColor(color);
+                drawLogged(next, 4);
+                moveToNextPlayer();
+                break;
+            default:
+                break;
+        }
+
+        if (bot.getHandSize() == 0) {
+            int totalPoints = 0;
+            for (int i = 0; i < players.size(); i++) {
+                totalPoints += players.get(i).calculateHandPoints();
+            }
+            bot.addScore(totalPoints);
+            log(OP_SCORE, player, totalPoints);
+            if (bot.getTotalScore() >= config.winningScore) {
+                for (int i = 0; i < seats.length; i++) {
+                    if (seats[i] == bot) {
+                        winnerSeat = i;
+                    }
+                }
+                gameOver = true;
+            } else {
+                roundOver = true;
+            }
+        }
+    }
+
+    // What the bots see of the table (TableView)
+    @Override
+    public int getPlayerCount() { return players.size(); }
+    @Override
+    public Player getPlayer(int index) { return players.get(index); }
+    @Override
+    public int getCurrentPlayerIndex() { return currentPlayerIndex; }
+    @Override
+    public int getDirection() { return direction; }
+    @Override
+    public Deck getDeck() { return deck; }
+
+    // Outcome of the last game played by this engine
+    public int getRounds() { return roundNumber; }
+    public int getTurns() { return turns; }
+    public int getScore(int seat) { return seats[seat].getTotalScore(); }
+    public int getSeatCount() { return seats.length; }
+    public BotPlayer getBot(int seat) { return seats[seat]; }
+
+    private boolean isDeckCompletelyEmpty() {
+        return deck.getDrawPileSize() == 0 && deck.getDiscardPileSize() <= 1;
+    }
+
+    private void moveToNextPlayer() {
+        currentPlayerIndex = getNextPlayerIndex();
+    }
+
+    private int getNextPlayerIndex() {
+        int nextIndex = currentPlayerIndex + direction;
+        if (nextIndex >= players.size()) {
+            nextIndex = 0;
+        } else if (nextIndex < 0) {
+            nextIndex = players.size() - 1;
+        }
+        return nextIndex;
+    }
+
+    /**
+     * Derives the seed of one game of a series, so that game i of a series can be
+     * replayed on its own, independent of how the series was split across threads
+     * @param baseSeed Seed of the whole series
+     * @param gameIndex Index of the game within the series
+     * @return Seed for that game (SplitMix64 finalizer of the combined value)
+     */
+    public static long gameSeed(long baseSeed, long gameIndex) {
+        long z = baseSeed + gameIndex * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Configuration of a headless game: one bot per seat
+     */
+    public static class GameConfig {
+        public final int[] difficulties;  // Bot difficulty (1-5) per seat
+        public final int winningScore;
+        public final long seed;           // Seed of the game's random generator
+        public final IsmctsSearch.Budget searchBudget; // Thinking budget of difficulty 4 bots
+
+        public GameConfig(int[] difficulties) {
+            this(difficulties, ThreadLocalRandom.current().nextLong());
+        }
+
+        public GameConfig(int[] difficulties, long seed) {
+            this(difficulties, WINNING_SCORE, seed);
+        }
+
+        public GameConfig(int[] difficulties, int winningScore, long seed) {
+            this(difficulties, winningScore, seed, IsmctsSearch.Budget.DEFAULT);
+        }
+
+        public GameConfig(int[] difficulties, int winningScore, long seed, IsmctsSearch.Budget searchBudget) {
+            if (searchBudget == null) {
+                throw new IllegalArgumentException("Search budget cannot be null");
+            }
+            if (difficulties == null || difficulties.length < 2) {
+                throw new IllegalArgumentException("At least 2 players are required");
+            }
+            if (difficulties.length * CARDS_PER_PLAYER >= 108) {
+                throw new IllegalArgumentException("Too many players for one deck: " + difficulties.length);
+            }
+            for (int difficulty : difficulties) {
+                if (difficulty < 1 || difficulty > BotPlayer.MAX_DIFFICULTY) {
+                    throw new IllegalArgumentException("Invalid bot difficulty: " + difficulty);
+                }
+            }
+            this.difficulties = difficulties.clone();
+            this.winningScore = winningScore;
+            this.seed = seed;
+            this.searchBudget = searchBudget;
+        }
+    }
+
+    /**
+     * Result of a headless game
+     */
+    public static class GameResult {
+        public final long seed;        // Replaying a GameConfig with this seed gives the same result
+        public final int winnerSeat;   // Seat of the winner, or -1 if the game ended without one
+        public final int rounds;
+        public final int turns;
+        public final int[] scores;     // Final total score per seat
+
+        public GameResult(long seed, int winnerSeat, int rounds, int turns, int[] scores) {
+            this.seed = seed;
+            this.winnerSeat = winnerSeat;
+            this.rounds = rounds;
+            this.turns = turns;
+            this.scores = scores;
+        }
+
+        public boolean isDraw() { return winnerSeat < 0; }
+    }
+}
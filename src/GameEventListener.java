@@ -0,0 +1,69 @@
+import java.util.List;
+
+/**
+ * Receives everything that happens during a game as typed events
+ * Game logic reports events here instead of printing strings, the listener
+ * decides what to do with them:
+ *   ConsoleEventListener  - renders the events as text on the console
+ *   BufferedEventListener - renders them into a buffer that is written out in one go
+ *   NONE                  - ignores them, so headless games pay nothing for output
+ *
+ * All methods do nothing by default, a listener only overrides the events it needs.
+ * Prompts and menus of the interactive game (Menu, human input in Run) are not events.
+ */
+public interface GameEventListener {
+    /**
+     * Ignores all events
+     */
+    GameEventListener NONE = new GameEventListener() { };
+
+    // --- Start of a game or round ---
+    default void startingPlayer(Player player) { }
+    default void startingCard(Card card) { }
+    default void newRound(int roundNumber) { }
+    /**
+     * The cards of a round are dealt and the starting card is on the discard pile,
+     * before the starting card takes effect
+     * @param table The table, with the starting player to move
+     * @param roundNumber The round that starts
+     */
+    default void roundDealt(TableView table, int roundNumber) { }
+
+    // --- Turns ---
+    default void turnStarted(Player player) { }
+    default void cardPlayed(Player player, Card card) { }
+    default void cardDrawn(Player player, Card card) { }
+    /**
+     * The player keeps the card just drawn
+     * @param playable false if the card cannot be played, true if the player decided not to play it
+     */
+    default void drawnCardKept(Player player, Card card, boolean playable) { }
+    default void noCardsLeft() { }
+    default void reshuffled() { }
+
+    // --- Special cards ---
+    default void mustDraw(Player player, int cards) { }
+    default void playerSkipped(Player player) { }
+    default void directionChanged(int direction) { }
+    default void colorChosen(Player player, CardColor color) { }
+    default void challenged(Player challenger, Player challengedPlayer, boolean wasBluffing) { }
+
+    // --- UNO calls and penalties ---
+    default void unoCalled(Player player) { }
+    default void unoForgotten(Player player) { }
+    default void invalidPlay(Player player, Card card, Card topCard) { }
+    default void playedOutOfTurn(Player player) { }
+    default void penaltyCards(Player player, int cards) { }
+    default void penalty(Player player, int penaltyCount) { }
+    default void disqualified(Player player) { }
+
+    // --- Scoring and end of the game ---
+    default void roundWon(Player winner) { }
+    default void handScored(Player player, int handPoints) { }
+    default void roundScored(Player winner, int points) { }
+    default void standings(List<Player> players) { }
+    default void gameWon(Player winner) { }
+    default void gameDrawn() { }
+    default void notEnoughPlayers() { }
+    default void gameEnded() { }
+}
@@ -0,0 +1,653 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only binary log of games, written as a GameEventListener
+ *
+ * Every event that changes the game becomes a record: a type byte followed by
+ * varint fields (7 bits per byte, low bits first). Players are given by their
+ * index among the players still in the game, card codes and colors by their
+ * number. Everything else the events report (skips, scored hands, standings)
+ * follows from the records and is not written.
+ *
+ *   DEAL        round dealt: the whole GameState (see GameState.encode())
+ *   TURN        player                      the player's turn starts
+ *   PLAY        player, hand index, card code   the player played a card
+ *   DRAW        player, cards               cards from the draw pile went into the hand
+ *   COLOR       color                       color chosen for a wild card
+ *   DIRECTION   direction (zigzag)          the direction changed
+ *   CHALLENGE   challenger, challenged, 1 if bluffing
+ *   PENALTY     player                      the player received a penalty
+ *   UNO         player                      the player called UNO
+ *   RESHUFFLE   cards, their codes          the discard pile became the new draw pile
+ *   DISQUALIFY  player
+ *   ROUND_END   winner, points
+ *   GAME_END    current player, direction (zigzag)
+ *
+ * Cards are drawn in many places, and most of them report only how many cards
+ * a player must take. The log counts the cards that left the draw pile with
+ * Deck.getDrawnCount() instead and writes them as one DRAW record before the
+ * next event, so draws are never lost or counted twice. Which cards they were
+ * follows from the draw pile of the last DEAL or RESHUFFLE.
+ *
+ * A game is a DEAL of round 1 up to its GAME_END. Reader replays the records on
+ * its own deck and players and rebuilds the exact GameState after every record,
+ * with no random generator involved. ReplayArchive collects the games of many
+ * logs in one file with an index.
+ *
+ * Records go into a buffer that is written to the channel when it is full, so
+ * the game loop never waits for the disk. With syncRounds > 0 the buffer is also
+ * written and the file forced to disk (fsync) after every syncRounds rounds and
+ * at the end of every game; with 0 only close() does that. The log passes every
+ * event on to another listener, e.g. the console.
+ * Not thread-safe: use one log per game loop.
+ */
+public class GameLog implements GameEventListener, AutoCloseable {
+    public static final int DEAL = 0;
+    public static final int TURN = 1;
+    public static final int PLAY = 2;
+    public static final int DRAW = 3;
+    public static final int COLOR = 4;
+    public static final int DIRECTION = 5;
+    public static final int CHALLENGE = 6;
+    public static final int PENALTY = 7;
+    public static final int UNO = 8;
+    public static final int RESHUFFLE = 9;
+    public static final int DISQUALIFY = 10;
+    public static final int ROUND_END = 11;
+    public static final int GAME_END = 12;
+    public static final int END_OF_LOG = -1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_PLAYERS = Deck.DECK_SIZE / 7;
+    private static final int MAX_RECORD = 1 + GameState.maxEncodedSize(MAX_PLAYERS); // A DEAL is the largest record
+    private static final CardColor[] COLORS = CardColor.values();
+
+    private final WritableByteChannel channel;
+    private final int syncRounds;
+    private final GameEventListener next;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer view = ByteBuffer.wrap(buffer);
+    private int position;
+    private long bytesWritten;
+    private int roundsSinceSync;
+
+    private TableView table;     // The table of the last deal
+    private Deck deck;
+    private GameState dealt;     // Reused for every DEAL
+    private int loggedDraws;     // deck.getDrawnCount() up to the last DRAW record
+    private int drawer = -1;     // Player who takes the cards drawn since then
+
+    /**
+     * @param channel Where the records are written, closed by close()
+     * @param syncRounds Rounds between two fsyncs (also at the end of every game), 0 to sync on close() only
+     * @param next Receives every event after it is logged
+     */
+    public GameLog(WritableByteChannel channel, int syncRounds, GameEventListener next) {
+        if (channel == null || next == null) {
+            throw new IllegalArgumentException("Channel and listener cannot be null");
+        }
+        if (syncRounds < 0) {
+            throw new IllegalArgumentException("Invalid sync interval: " + syncRounds);
+        }
+        this.channel = channel;
+        this.syncRounds = syncRounds;
+        this.next = next;
+    }
+
+    /**
+     * Opens a log file for appending, creating it if needed
+     * @param file The log file
+     * @param syncRounds Rounds between two fsyncs, 0 to sync on close() only
+     * @param next Receives every event after it is logged
+     */
+    public static GameLog open(Path file, int syncRounds, GameEventListener next) throws IOException {
+        return new GameLog(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND), syncRounds, next);
+    }
+
+    // --- Writing ---
+
+    @Override
+    public void roundDealt(TableView table, int roundNumber) {
+        this.table = table;
+        this.deck = table.getDeck();
+        if (dealt == null || roundNumber == 1 && dealt.getMaxPlayers() != table.getPlayerCount()) {
+            dealt = new GameState(table.getPlayerCount()); // As many seats as the game has
+        }
+        dealt.capture(table).setRoundNumber(roundNumber);
+        reserve();
+        buffer[position++] = DEAL;
+        position = dealt.encode(buffer, position);
+        loggedDraws = deck.getDrawnCount();
+        drawer = -1;
+        next.roundDealt(table, roundNumber);
+    }
+
+    @Override
+    public void turnStarted(Player player) {
+        logDraws(deck.getDrawnCount());
+        write(TURN, indexOf(player));
+        next.turnStarted(player);
+    }
+
+    @Override
+    public void cardPlayed(Player player, Card card) {
+        logDraws(deck.getDrawnCount());
+        reserve();
+        buffer[position++] = PLAY;
+        position = putVarint(buffer, position, indexOf(player));
+        position = putVarint(buffer, position, player.getLastPlayedIndex());
+        position = putVarint(buffer, position, card.getCode());
+        next.cardPlayed(player, card);
+    }
+
+    @Override
+    public void cardDrawn(Player player, Card card) {
+        logDraws(deck.getDrawnCount() - 1); // Everything before this card
+        drawer = indexOf(player);
+        logDraws(deck.getDrawnCount());
+        next.cardDrawn(player, card);
+    }
+
+    @Override
+    public void mustDraw(Player player, int cards) {
+        logDraws(deck.getDrawnCount());
+        drawer = indexOf(player);
+        next.mustDraw(player, cards);
+    }
+
+    @Override
+    public void penaltyCards(Player player, int cards) {
+        logDraws(deck.getDrawnCount());
+        drawer = indexOf(player);
+        next.penaltyCards(player, cards);
+    }
+
+    @Override
+    public void challenged(Player challenger, Player challengedPlayer, boolean wasBluffing) {
+        logDraws(deck.getDrawnCount());
+        reserve();
+        buffer[position++] = CHALLENGE;
+        position = putVarint(buffer, position, indexOf(challenger));
+        position = putVarint(buffer, position, indexOf(challengedPlayer));
+        buffer[position++] = (byte) (wasBluffing ? 1 : 0);
+        drawer = indexOf(wasBluffing ? challengedPlayer : challenger);
+        next.challenged(challenger, challengedPlayer, wasBluffing);
+    }
+
+    @Override
+    public void colorChosen(Player player, CardColor color) {
+        logDraws(deck.getDrawnCount());
+        write(COLOR, color.ordinal());
+        next.colorChosen(player, color);
+    }
+
+    @Override
+    public void directionChanged(int direction) {
+        logDraws(deck.getDrawnCount());
+        write(DIRECTION, zigzag(direction));
+        next.directionChanged(direction);
+    }
+
+    @Override
+    public void reshuffled() {
+        logDraws(deck.getDrawnCount());
+        reserve();
+        buffer[position++] = RESHUFFLE;
+        int count = deck.getDrawPileSize();
+        position = putVarint(buffer, position, count);
+        deck.copyPiles(buffer, position); // The draw pile, then the top card, which is not part of the record
+        position += count;
+        next.reshuffled();
+    }
+
+    @Override
+    public void unoCalled(Player player) {
+        logDraws(deck.getDrawnCount());
+        write(UNO, indexOf(player));
+        next.unoCalled(player);
+    }
+
+    @Override
+    public void penalty(Player player, int penaltyCount) {
+        logDraws(deck.getDrawnCount());
+        write(PENALTY, indexOf(player));
+        next.penalty(player, penaltyCount);
+    }
+
+    @Override
+    public void disqualified(Player player) {
+        logDraws(deck.getDrawnCount());
+        write(DISQUALIFY, indexOf(player));
+        next.disqualified(player);
+    }
+
+    @Override
+    public void roundScored(Player winner, int points) {
+        logDraws(deck.getDrawnCount());
+        write(ROUND_END, indexOf(winner), points);
+        if (syncRounds > 0 && ++roundsSinceSync >= syncRounds) {
+            sync();
+        }
+        next.roundScored(winner, points);
+    }
+
+    @Override
+    public void gameEnded() {
+        if (table != null) {
+            logDraws(deck.getDrawnCount());
+            write(GAME_END, table.getCurrentPlayerIndex(), zigzag(table.getDirection()));
+            if (syncRounds > 0) {
+                sync();
+            }
+        }
+        next.gameEnded();
+    }
+
+    /**
+     * Writes one DRAW record for the cards drawn since the last one
+     * @param drawnCount deck.getDrawnCount() after the cards to log
+     */
+    private void logDraws(int drawnCount) {
+        if (drawnCount == loggedDraws) {
+            return;
+        }
+        if (drawer < 0) {
+            throw new IllegalStateException("Cards drawn without a player to take them");
+        }
+        write(DRAW, drawer, drawnCount - loggedDraws);
+        loggedDraws = drawnCount;
+    }
+
+    private void write(int type, int value) {
+        reserve();
+        buffer[position++] = (byte) type;
+        position = putVarint(buffer, position, value);
+    }
+
+    private void write(int type, int first, int second) {
+        reserve();
+        buffer[position++] = (byte) type;
+        position = putVarint(buffer, position, first);
+        position = putVarint(buffer, position, second);
+    }
+
+    /**
+     * Makes room for the largest record
+     */
+    private void reserve() {
+        if (position > BUFFER_SIZE - MAX_RECORD) {
+            flush();
+        }
+    }
+
+    private int indexOf(Player player) {
+        int current = table.getCurrentPlayerIndex(); // Most events are about the player to move
+        if (current < table.getPlayerCount() && table.getPlayer(current) == player) {
+            return current;
+        }
+        for (int i = 0; i < table.getPlayerCount(); i++) {
+            if (table.getPlayer(i) == player) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not at the table: " + player.getName());
+    }
+
+    /**
+     * Writes the buffered records to the channel
+     */
+    public void flush() {
+        try {
+            view.clear().limit(position);
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+            bytesWritten += position;
+            position = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the game log", e);
+        }
+    }
+
+    /**
+     * Writes the buffered records and forces them to disk if the channel is a file
+     */
+    public void sync() {
+        flush();
+        roundsSinceSync = 0;
+        if (channel instanceof FileChannel) {
+            try {
+                ((FileChannel) channel).force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not sync the game log", e);
+            }
+        }
+    }
+
+    /**
+     * Syncs and closes the channel
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return Bytes of records written so far, including the buffered ones
+     */
+    public long getSize() { return bytesWritten + position; }
+
+    // Events that change nothing the records do not already say
+    @Override public void startingPlayer(Player player) { next.startingPlayer(player); }
+    @Override public void startingCard(Card card) { next.startingCard(card); }
+    @Override public void newRound(int roundNumber) { next.newRound(roundNumber); }
+    @Override public void drawnCardKept(Player player, Card card, boolean playable) { next.drawnCardKept(player, card, playable); }
+    @Override public void noCardsLeft() { next.noCardsLeft(); }
+    @Override public void playerSkipped(Player player) { next.playerSkipped(player); }
+    @Override public void unoForgotten(Player player) { next.unoForgotten(player); }
+    @Override public void invalidPlay(Player player, Card card, Card topCard) { next.invalidPlay(player, card, topCard); }
+    @Override public void playedOutOfTurn(Player player) { next.playedOutOfTurn(player); }
+    @Override public void roundWon(Player winner) { next.roundWon(winner); }
+    @Override public void handScored(Player player, int handPoints) { next.handScored(player, handPoints); }
+    @Override public void standings(List<Player> players) { next.standings(players); }
+    @Override public void gameWon(Player winner) { next.gameWon(winner); }
+    @Override public void gameDrawn() { next.gameDrawn(); }
+    @Override public void notEnoughPlayers() { next.notEnoughPlayers(); }
+
+    // --- Encoding ---
+
+    /**
+     * Writes an int as an unsigned varint
+     * @return Index after the last byte written
+     */
+    static int putVarint(byte[] target, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            target[offset++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+
+    static int getVarint(ByteBuffer source) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = source.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long at " + source.position());
+    }
+
+    /**
+     * Maps small negative numbers to small varints: 0, -1, 1, -2 ... become 0, 1, 2, 3 ...
+     */
+    static int zigzag(int value) {
+        return value << 1 ^ value >> 31;
+    }
+
+    static int unzigzag(int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * Rebuilds games from their records
+     * The records are applied to a deck and players of its own, exactly like the
+     * game applied them; getState() captures the result after any record.
+     * Disqualified players stay until the next TURN, DEAL or GAME_END, as in
+     * Run, which removes them after reporting all of them.
+     */
+    public static class Reader {
+        private final ByteBuffer log;
+        private final Deck deck = new Deck(new GameRandom(0), GameEventListener.NONE);
+        private final List<Player> players = new ArrayList<>();
+        private final byte[] piles = new byte[Deck.DECK_SIZE];
+        private final int[] fields = new int[3]; // Fields of the last record, see getField()
+        private GameState state;        // Turn order and round, the rest is captured by getState()
+        private long disqualified;      // Bit per player index, removed on the next turn
+
+        /**
+         * @param log The records, from the buffer's position to its limit
+         */
+        public Reader(ByteBuffer log) {
+            this.log = log;
+        }
+
+        /**
+         * Applies the next record
+         * @return Its type, or END_OF_LOG if there are no more records
+         * @throws IllegalStateException If the record does not fit the game so far
+         */
+        public int next() {
+            if (!log.hasRemaining()) {
+                return END_OF_LOG;
+            }
+            int type = log.get();
+            if (type != DEAL && state == null) {
+                throw new IllegalStateException("The log does not start with a deal");
+            }
+            switch (type) {
+                case DEAL:
+                    state = GameState.decode(log, state);
+                    while (players.size() > state.getPlayerCount()) {
+                        players.remove(players.size() - 1);
+                    }
+                    while (players.size() < state.getPlayerCount()) {
+                        Player player = new Player("Player " + (players.size() + 1));
+                        player.setEventListener(GameEventListener.NONE);
+                        players.add(player);
+                    }
+                    state.restore(deck, players);
+                    disqualified = 0;
+                    break;
+                case TURN:
+                    removeDisqualified();
+                    fields[0] = player();
+                    state.setCurrentPlayerIndex(fields[0]);
+                    break;
+                case PLAY:
+                    fields[0] = player();
+                    fields[1] = getVarint(log);
+                    fields[2] = getVarint(log);
+                    play(players.get(fields[0]), fields[1], fields[2]);
+                    break;
+                case DRAW:
+                    fields[0] = player();
+                    fields[1] = getVarint(log);
+                    for (int i = fields[1]; i > 0; i--) {
+                        if (deck.getDrawPileSize() == 0) {
+                            throw new IllegalStateException("Draw from an empty draw pile");
+                        }
+                        players.get(fields[0]).addCard(deck.drawCard());
+                    }
+                    break;
+                case COLOR:
+                    fields[0] = getVarint(log);
+                    if (fields[0] >= COLORS.length) {
+                        throw new IllegalStateException("Invalid color " + fields[0]);
+                    }
+                    deck.setActiveColor(COLORS[fields[0]]);
+                    break;
+                case DIRECTION:
+                    fields[0] = unzigzag(getVarint(log));
+                    state.setDirection(fields[0]);
+                    break;
+                case CHALLENGE:
+                    fields[0] = player();
+                    fields[1] = player();
+                    fields[2] = log.get();
+                    break;
+                case PENALTY:
+                    fields[0] = player();
+                    players.get(fields[0]).addPenalty();
+                    break;
+                case UNO:
+                    fields[0] = player();
+                    players.get(fields[0]).setSaidUno(true);
+                    break;
+                case RESHUFFLE:
+                    fields[0] = getVarint(log);
+                    if (deck.getDrawPileSize() != 0 || deck.getDiscardPileSize() != fields[0] + 1) {
+                        throw new IllegalStateException("Reshuffle of " + fields[0] + " cards with piles of "
+                                + deck.getDrawPileSize() + " and " + deck.getDiscardPileSize());
+                    }
+                    log.get(piles, 0, fields[0]);
+                    piles[fields[0]] = (byte) deck.getTopCode();
+                    deck.restorePiles(piles, 0, fields[0], 1, deck.getActiveColor());
+                    break;
+                case DISQUALIFY:
+                    fields[0] = player();
+                    disqualified |= 1L << fields[0];
+                    break;
+                case ROUND_END:
+                    fields[0] = player();
+                    fields[1] = getVarint(log);
+                    players.get(fields[0]).addScore(fields[1]);
+                    break;
+                case GAME_END:
+                    removeDisqualified();
+                    fields[0] = player();
+                    fields[1] = unzigzag(getVarint(log));
+                    state.setCurrentPlayerIndex(fields[0]);
+                    state.setDirection(fields[1]);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown record type " + type + " at " + (log.position() - 1));
+            }
+            return type;
+        }
+
+        /**
+         * Moves past the next record without applying it, for finding games in a log
+         * A DEAL is still decoded, so getRoundNumber() and getDealtPlayerCount() stay
+         * valid; do not mix skip() and next() within one game.
+         * @return Its type, or END_OF_LOG if there are no more records
+         */
+        public int skip() {
+            if (!log.hasRemaining()) {
+                return END_OF_LOG;
+            }
+            int type = log.get();
+            switch (type) {
+                case DEAL:
+                    state = GameState.decode(log, state);
+                    break;
+                case TURN: case COLOR: case DIRECTION: case PENALTY: case UNO: case DISQUALIFY:
+                    getVarint(log);
+                    break;
+                case DRAW: case ROUND_END: case GAME_END:
+                    getVarint(log);
+                    getVarint(log);
+                    break;
+                case PLAY:
+                    getVarint(log);
+                    getVarint(log);
+                    getVarint(log);
+                    break;
+                case CHALLENGE:
+                    getVarint(log);
+                    getVarint(log);
+                    log.get();
+                    break;
+                case RESHUFFLE:
+                    int count = getVarint(log);
+                    log.position(log.position() + count);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown record type " + type + " at " + (log.position() - 1));
+            }
+            return type;
+        }
+
+        /**
+         * Removes the card from the hand and plays it, like Run.playCard()
+         * The index matters: taking out another card with the same code would change the order of the hand.
+         */
+        private void play(Player player, int index, int code) {
+            if (index >= player.getHandSize() || player.getCardCode(index) != code) {
+                throw new IllegalStateException(player.getName() + " does not hold " + Card.fromCode(code)
+                        + " at " + index);
+            }
+            player.playCard(index);
+            deck.playCode(code);
+            if (player.getHandSize() > 1) {
+                player.setSaidUno(false);
+            }
+        }
+
+        private int player() {
+            int index = getVarint(log);
+            if (index >= players.size()) {
+                throw new IllegalStateException("Invalid player " + index + " of " + players.size());
+            }
+            return index;
+        }
+
+        private void removeDisqualified() {
+            for (int i = players.size() - 1; disqualified != 0 && i >= 0; i--) {
+                if ((disqualified & 1L << i) != 0) {
+                    players.remove(i);
+                    disqualified &= ~(1L << i);
+                }
+            }
+        }
+
+        /**
+         * @return The game after the last record, valid until the next call of next()
+         */
+        public GameState getState() {
+            return state.capture(deck, players);
+        }
+
+        /**
+         * @return Players still in the game, with their hands, scores, penalties and UNO flags
+         */
+        public List<Player> getPlayers() { return players; }
+
+        /**
+         * @param index 0 to 2
+         * @return A field of the record applied last by next(), in the order of the
+         *         class comment; the cards of a RESHUFFLE are copied by copyReshuffled()
+         */
+        public int getField(int index) { return fields[index]; }
+
+        /**
+         * Copies the new draw pile of the RESHUFFLE applied last by next()
+         * @return Number of cards copied (getField(0))
+         */
+        public int copyReshuffled(byte[] target, int offset) {
+            System.arraycopy(piles, 0, target, offset, fields[0]);
+            return fields[0];
+        }
+
+        /**
+         * @return Round of the last DEAL
+         */
+        public int getRoundNumber() { return state.getRoundNumber(); }
+
+        /**
+         * @return Players the cards of the last DEAL were dealt to
+         */
+        public int getDealtPlayerCount() { return state.getPlayerCount(); }
+
+        /**
+         * @return Position of the next record in the buffer
+         */
+        public int getPosition() { return log.position(); }
+    }
+}
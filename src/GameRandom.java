@@ -0,0 +1,57 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Random generator of a single game
+ * Produces exactly the same numbers as java.util.SplittableRandom created with
+ * the same seed (SplitMix64), but can be reseeded. A reused GameEngine can
+ * therefore start a new game without allocating a new generator.
+ * Like SplittableRandom it is not synchronized: use one instance per thread.
+ */
+public class GameRandom implements RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L; // Same increment as SplittableRandom
+
+    private long seed;
+
+    public GameRandom(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Restarts the sequence, as if the generator had just been created with this seed
+     * @param seed The new seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return The current state: setSeed() with it continues the sequence from here
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(seed += GOLDEN_GAMMA);
+    }
+
+    @Override
+    public int nextInt() {
+        return mix32(seed += GOLDEN_GAMMA);
+    }
+
+    /**
+     * SplitMix64 finalizer: turns any 64-bit value into a well-mixed one
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62A9D9ED799705F5L;
+        return (int) (((z ^ (z >>> 28)) * 0xCB24D0A5C88C35B3L) >>> 32);
+    }
+}
@@ -0,0 +1,271 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Snapshot of a game in two primitive arrays, cheap enough to copy for every searched position
+ *
+ * ints holds the turn order and every player's counters, cards the card codes of
+ * the whole deck in one block: the draw pile (next card first), the discard pile
+ * (top card last), then the hands in seat order. Piles and hands always hold the
+ * 108 cards together, so the block never grows; copyFrom() is two arraycopy calls.
+ *
+ *   ints:  current player, direction, round, players, draw pile size, discard pile size,
+ *          active color, then per player: hand size, total score, penalties, said UNO
+ *   cards: [draw pile][discard pile][hand 0][hand 1]...
+ *
+ * Run keeps its turn order (current player, direction, round) in a GameState and
+ * fills in the piles and hands on capture(). The random generator is not part of
+ * the state: a restored game deals and shuffles on from the generator's current state.
+ * GameLog writes the state of every deal with encode() and rebuilds it from the log.
+ */
+public class GameState {
+    private static final int CURRENT = 0;
+    private static final int DIRECTION = 1;
+    private static final int ROUND = 2;
+    private static final int PLAYERS = 3;
+    private static final int DRAW_COUNT = 4;
+    private static final int DISCARD_COUNT = 5;
+    private static final int ACTIVE_COLOR = 6;
+    private static final int PLAYER_BASE = 7;
+    // Fields per player, from PLAYER_BASE + player * PLAYER_FIELDS
+    private static final int HAND_SIZE = 0;
+    private static final int SCORE = 1;
+    private static final int PENALTIES = 2;
+    private static final int SAID_UNO = 3;
+    private static final int PLAYER_FIELDS = 4;
+    private static final CardColor[] COLORS = CardColor.values();
+
+    private final int[] ints;
+    private final byte[] cards = new byte[Deck.DECK_SIZE];
+
+    /**
+     * Creates the state of a game that has not started: no cards dealt, first player to move, clockwise, round 1
+     * @param maxPlayers Most players the state can hold
+     */
+    public GameState(int maxPlayers) {
+        if (maxPlayers < 2) {
+            throw new IllegalArgumentException("At least 2 players are required");
+        }
+        ints = new int[PLAYER_BASE + maxPlayers * PLAYER_FIELDS];
+        ints[PLAYERS] = maxPlayers;
+        ints[DIRECTION] = 1;
+        ints[ROUND] = 1;
+        ints[ACTIVE_COLOR] = CardColor.BLACK.ordinal();
+    }
+
+    /**
+     * Overwrites this state with another one
+     * @param other A state of the same maximum number of players
+     */
+    public void copyFrom(GameState other) {
+        if (other.ints.length != ints.length) {
+            throw new IllegalArgumentException("States for different numbers of players");
+        }
+        System.arraycopy(other.ints, 0, ints, 0, ints.length);
+        System.arraycopy(other.cards, 0, cards, 0, cards.length);
+    }
+
+    /**
+     * @return An independent copy of this state
+     */
+    public GameState copy() {
+        GameState copy = new GameState(getMaxPlayers());
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Saves the piles and the players, the turn order is kept as it is
+     * @param deck The deck of the game
+     * @param players The players still in the game, in seat order
+     * @return This state
+     */
+    public GameState capture(Deck deck, List<? extends Player> players) {
+        int count = capturePiles(deck, players.size());
+        for (int p = 0; p < players.size(); p++) {
+            count += capturePlayer(p, players.get(p), count);
+        }
+        return this;
+    }
+
+    /**
+     * Saves the piles, the players and the current player and direction of a table
+     * The round number is kept as it is, a table does not know it.
+     * @param table The table
+     * @return This state
+     */
+    public GameState capture(TableView table) {
+        int count = capturePiles(table.getDeck(), table.getPlayerCount());
+        for (int p = 0; p < table.getPlayerCount(); p++) {
+            count += capturePlayer(p, table.getPlayer(p), count);
+        }
+        ints[CURRENT] = table.getCurrentPlayerIndex();
+        ints[DIRECTION] = table.getDirection();
+        return this;
+    }
+
+    /**
+     * @return Number of codes copied
+     */
+    private int capturePiles(Deck deck, int playerCount) {
+        if (playerCount > getMaxPlayers()) {
+            throw new IllegalArgumentException("Too many players for this state: " + playerCount);
+        }
+        int count = deck.copyPiles(cards, 0);
+        ints[PLAYERS] = playerCount;
+        ints[DRAW_COUNT] = deck.getDrawPileSize();
+        ints[DISCARD_COUNT] = deck.getDiscardPileSize();
+        ints[ACTIVE_COLOR] = deck.getActiveColor().ordinal();
+        Arrays.fill(ints, PLAYER_BASE + playerCount * PLAYER_FIELDS, ints.length, 0); // Disqualified seats
+        return count;
+    }
+
+    /**
+     * @return Size of the player's hand, copied to offset
+     */
+    private int capturePlayer(int p, Player player, int offset) {
+        int base = PLAYER_BASE + p * PLAYER_FIELDS;
+        ints[base + HAND_SIZE] = player.copyHand(cards, offset);
+        ints[base + SCORE] = player.getTotalScore();
+        ints[base + PENALTIES] = player.getPenaltyCount();
+        ints[base + SAID_UNO] = player.hasSaidUno() ? 1 : 0;
+        return ints[base + HAND_SIZE];
+    }
+
+    /**
+     * Puts the piles and the players back into the saved state, without events
+     * @param deck The deck of the game
+     * @param players The same players as on capture(), in seat order
+     */
+    public void restore(Deck deck, List<? extends Player> players) {
+        if (players.size() != getPlayerCount()) {
+            throw new IllegalArgumentException("Expected " + getPlayerCount() + " players, got " + players.size());
+        }
+        deck.restorePiles(cards, 0, ints[DRAW_COUNT], ints[DISCARD_COUNT], COLORS[ints[ACTIVE_COLOR]]);
+        int offset = ints[DRAW_COUNT] + ints[DISCARD_COUNT];
+        for (int p = 0; p < players.size(); p++) {
+            int base = PLAYER_BASE + p * PLAYER_FIELDS;
+            players.get(p).restore(cards, offset, ints[base + HAND_SIZE], ints[base + SCORE],
+                    ints[base + PENALTIES], ints[base + SAID_UNO] != 0);
+            offset += ints[base + HAND_SIZE];
+        }
+    }
+
+    /**
+     * @param player Seat of the player
+     * @return Offset of the player's hand in the card block
+     */
+    private int handOffset(int player) {
+        int offset = ints[DRAW_COUNT] + ints[DISCARD_COUNT];
+        for (int p = 0; p < player; p++) {
+            offset += ints[PLAYER_BASE + p * PLAYER_FIELDS + HAND_SIZE];
+        }
+        return offset;
+    }
+
+    private int playerField(int player, int field) {
+        if (player < 0 || player >= getPlayerCount()) {
+            throw new IndexOutOfBoundsException("Invalid player: " + player);
+        }
+        return ints[PLAYER_BASE + player * PLAYER_FIELDS + field];
+    }
+
+    /**
+     * Writes the state for GameLog: the maximum number of players and the ints as
+     * varints (zigzag, the direction can be negative), then the card codes in use
+     * @param target Buffer with room for maxEncodedSize() bytes from offset
+     * @param offset Index of the first byte
+     * @return Index after the last byte written
+     */
+    int encode(byte[] target, int offset) {
+        offset = GameLog.putVarint(target, offset, getMaxPlayers());
+        int fields = PLAYER_BASE + ints[PLAYERS] * PLAYER_FIELDS;
+        int count = ints[DRAW_COUNT] + ints[DISCARD_COUNT];
+        for (int i = 0; i < fields; i++) {
+            offset = GameLog.putVarint(target, offset, GameLog.zigzag(ints[i]));
+            if (i >= PLAYER_BASE && (i - PLAYER_BASE) % PLAYER_FIELDS == HAND_SIZE) {
+                count += ints[i];
+            }
+        }
+        System.arraycopy(cards, 0, target, offset, count);
+        return offset + count;
+    }
+
+    /**
+     * Reads a state written by encode()
+     * @param source Buffer positioned at the state
+     * @param reuse A state to read into if it holds the same maximum number of players (may be null)
+     * @return reuse, or a new state if it did not fit
+     */
+    static GameState decode(ByteBuffer source, GameState reuse) {
+        int maxPlayers = GameLog.getVarint(source);
+        GameState state = reuse != null && reuse.getMaxPlayers() == maxPlayers ? reuse : new GameState(maxPlayers);
+        int[] ints = state.ints;
+        for (int i = 0; i < PLAYER_BASE; i++) {
+            ints[i] = GameLog.unzigzag(GameLog.getVarint(source));
+        }
+        if (ints[PLAYERS] > maxPlayers || ints[DRAW_COUNT] + ints[DISCARD_COUNT] > Deck.DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid game state: " + ints[PLAYERS] + " players, piles of "
+                    + ints[DRAW_COUNT] + " and " + ints[DISCARD_COUNT] + " cards");
+        }
+        int count = ints[DRAW_COUNT] + ints[DISCARD_COUNT];
+        for (int p = 0; p < ints[PLAYERS]; p++) {
+            for (int f = 0; f < PLAYER_FIELDS; f++) {
+                ints[PLAYER_BASE + p * PLAYER_FIELDS + f] = GameLog.unzigzag(GameLog.getVarint(source));
+            }
+            count += ints[PLAYER_BASE + p * PLAYER_FIELDS + HAND_SIZE];
+        }
+        if (count > Deck.DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid game state: " + count + " cards");
+        }
+        Arrays.fill(ints, PLAYER_BASE + ints[PLAYERS] * PLAYER_FIELDS, ints.length, 0);
+        source.get(state.cards, 0, count);
+        return state;
+    }
+
+    /**
+     * @return Most bytes that encode() writes for a state of this many players
+     */
+    static int maxEncodedSize(int maxPlayers) {
+        return 5 * (1 + PLAYER_BASE + maxPlayers * PLAYER_FIELDS) + Deck.DECK_SIZE;
+    }
+
+    // Turn order, kept up to date by Run
+    public void setCurrentPlayerIndex(int index) { ints[CURRENT] = index; }
+    public void setDirection(int direction) { ints[DIRECTION] = direction; }
+    public void setRoundNumber(int round) { ints[ROUND] = round; }
+
+    // Getter methods
+    public int getCurrentPlayerIndex() { return ints[CURRENT]; }
+    public int getDirection() { return ints[DIRECTION]; }
+    public int getRoundNumber() { return ints[ROUND]; }
+    public int getPlayerCount() { return ints[PLAYERS]; }
+    public int getMaxPlayers() { return (ints.length - PLAYER_BASE) / PLAYER_FIELDS; }
+    public int getDrawPileSize() { return ints[DRAW_COUNT]; }
+    public int getDiscardPileSize() { return ints[DISCARD_COUNT]; }
+    public CardColor getActiveColor() { return COLORS[ints[ACTIVE_COLOR]]; }
+    public int getTopCode() { return ints[DISCARD_COUNT] == 0 ? -1 : cards[ints[DRAW_COUNT] + ints[DISCARD_COUNT] - 1]; }
+    public int getHandSize(int player) { return playerField(player, HAND_SIZE); }
+    public int getHandCode(int player, int index) {
+        if (index < 0 || index >= getHandSize(player)) {
+            throw new IndexOutOfBoundsException("Invalid card index: " + index);
+        }
+        return cards[handOffset(player) + index];
+    }
+    public int getScore(int player) { return playerField(player, SCORE); }
+    public int getPenaltyCount(int player) { return playerField(player, PENALTIES); }
+    public boolean hasSaidUno(int player) { return playerField(player, SAID_UNO) != 0; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameState)) return false;
+        GameState other = (GameState) o;
+        return Arrays.equals(ints, other.ints) && Arrays.equals(cards, other.cards);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(ints) + Arrays.hashCode(cards);
+    }
+}
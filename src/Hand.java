@@ -0,0 +1,189 @@
+import java.util.Arrays;
+
+/**
+ * A player's hand of cards, stored as card codes (see Card.getCode())
+ * Besides the cards in the order they were received, the hand keeps a count per
+ * card code, a bitmask of the codes it holds, a count per color and per type
+ * and its total points. All of them are updated on every add and remove, so the questions
+ * asked on every turn are answered in constant time without scanning the hand.
+ */
+public class Hand {
+    // Bitmasks of all card codes of one color / of one type (bit n = card code n)
+    private static final long[] COLOR_MASKS = new long[CardColor.values().length];
+    private static final long[] TYPE_MASKS = new long[CardType.values().length];
+
+    static {
+        for (int code = 0; code < Card.CODE_COUNT; code++) {
+            Card card = Card.fromCode(code);
+            COLOR_MASKS[card.getColor().ordinal()] |= 1L << code;
+            TYPE_MASKS[card.getType().ordinal()] |= 1L << code;
+        }
+    }
+
+    private final byte[] cards;          // Card codes in the order they were received
+    private int size;
+    private final byte[] counts;         // Number of cards per card code
+    private long mask;                   // Bit n is set while the hand holds a card with code n
+    private final int[] colorCounts;     // Number of cards per color (including BLACK)
+    private final int[] typeCounts;      // Number of cards per type
+    private int points;                  // Sum of the point values of all cards
+
+    public Hand() {
+        cards = new byte[Deck.DECK_SIZE]; // A hand can never hold more cards, so it never grows
+        counts = new byte[Card.CODE_COUNT];
+        colorCounts = new int[CardColor.values().length];
+        typeCounts = new int[CardType.values().length];
+    }
+
+    /**
+     * Adds a card at the end of the hand
+     * @param card The card to add
+     */
+    public void add(Card card) {
+        int code = card.getCode();
+        cards[size++] = (byte) code;
+        counts[code]++;
+        mask |= 1L << code;
+        colorCounts[card.getColor().ordinal()]++;
+        typeCounts[card.getType().ordinal()]++;
+        points += card.getPoints();
+    }
+
+    /**
+     * Removes the card at an index, keeping the order of the remaining cards
+     * @param index The index of the card
+     * @return The removed card
+     */
+    public Card remove(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid card index: " + index);
+        }
+        int code = cards[index];
+        System.arraycopy(cards, index + 1, cards, index, size - index - 1);
+        size--;
+        if (--counts[code] == 0) {
+            mask &= ~(1L << code);
+        }
+        Card card = Card.fromCode(code);
+        colorCounts[card.getColor().ordinal()]--;
+        typeCounts[card.getType().ordinal()]--;
+        points -= card.getPoints();
+        return card;
+    }
+
+    /**
+     * Puts a card back at an index, moving the cards from there one place up
+     * Takes back remove(index) exactly.
+     * @param index The index the card had
+     * @param card The card
+     */
+    public void insert(int index, Card card) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Invalid card index: " + index);
+        }
+        int code = card.getCode();
+        System.arraycopy(cards, index, cards, index + 1, size - index);
+        cards[index] = (byte) code;
+        size++;
+        counts[code]++;
+        mask |= 1L << code;
+        colorCounts[card.getColor().ordinal()]++;
+        typeCounts[card.getType().ordinal()]++;
+        points += card.getPoints();
+    }
+
+    /**
+     * Removes all cards
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            counts[cards[i]] = 0;
+        }
+        Arrays.fill(colorCounts, 0);
+        Arrays.fill(typeCounts, 0);
+        size = 0;
+        mask = 0;
+        points = 0;
+    }
+
+    /**
+     * Copies the card codes in the order they were received
+     * @param target Array to copy to
+     * @param offset Index of the first code in target
+     * @return Number of codes copied
+     */
+    public int copyCodes(byte[] target, int offset) {
+        System.arraycopy(cards, 0, target, offset, size);
+        return size;
+    }
+
+    /**
+     * Finds a card by its code, e.g. the card a move of Referee.legalMoves() plays
+     * @param code The card code
+     * @return Index of the first card with that code, or -1 if the hand holds none
+     */
+    public int indexOf(int code) {
+        if ((mask & (1L << code)) == 0) {
+            return -1;
+        }
+        int index = 0;
+        while (cards[index] != code) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Checks in O(1) whether any card in the hand can be played
+     * @param topCard The current top card
+     * @param activeColor The color to match
+     * @return true if at least one card is playable
+     */
+    public boolean hasPlayableCard(Card topCard, CardColor activeColor) {
+        return getPlayableMask(topCard, activeColor) != 0;
+    }
+
+    /**
+     * Bitmask of the card codes in the hand that can be played
+     * @param topCard The current top card
+     * @param activeColor The color to match
+     * @return Bit n is set if the hand holds a playable card with code n
+     */
+    public long getPlayableMask(Card topCard, CardColor activeColor) {
+        return mask & LegalityTable.playableMask(topCard.getCode(), activeColor.ordinal());
+    }
+
+    /**
+     * Bitmask of the card codes of one color that the hand holds
+     * @param color The color
+     * @return Bit n is set if the hand holds a card with code n of that color
+     */
+    public long getColorMask(CardColor color) {
+        return mask & COLOR_MASKS[color.ordinal()];
+    }
+
+    /**
+     * Bitmask of the card codes of one type that the hand holds
+     * @param type The type
+     * @return Bit n is set if the hand holds a card with code n of that type
+     */
+    public long getTypeMask(CardType type) {
+        return mask & TYPE_MASKS[type.ordinal()];
+    }
+
+    // Getter methods
+    public Card get(int index) { return Card.fromCode(getCode(index)); }
+    public int getCode(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid card index: " + index);
+        }
+        return cards[index];
+    }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int count(int code) { return counts[code]; }
+    public int countColor(CardColor color) { return colorCounts[color.ordinal()]; }
+    public int countType(CardType type) { return typeCounts[type.ordinal()]; }
+    public long getMask() { return mask; }
+    public int getPoints() { return points; }
+}
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Handles game initialization and setup
@@ -9,16 +10,31 @@ public class Initialization {
     private List<Player> players;
     private Deck deck;
     private int difficulty;
+    private RandomGenerator random; // Single random source of the game (deck, bots, starting player)
+    private GameEventListener events; // Shared by deck, players and game loop: renders the game on the console
     // [NEW] Reference to the shared scanner
     private Scanner scanner;
 
     // [MODIFIED] Constructor now receives the scanner
     public Initialization(Scanner scanner) {
+        this(scanner, new ConsoleEventListener());
+    }
+
+    /**
+     * @param scanner The shared Scanner instance
+     * @param events Receives the events of the game, e.g. a GameLog in front of the console
+     */
+    public Initialization(Scanner scanner, GameEventListener events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Event listener cannot be null");
+        }
         // [NEW] Store scanner reference
         this.scanner = scanner;
         // [MODIFIED] Instantiate Menu object with the passed scanner
         menu = new Menu(this.scanner);
         players = new ArrayList<>();
+        random = new SplittableRandom();
+        this.events = events;
     }
 
     /**
@@ -30,6 +46,10 @@ public class Initialization {
 
         // Get game settings from user
         difficulty = menu.selectDifficulty();
+        if (difficulty == 5 && PolicyTable.getDefault() == null) {
+            System.out.println("\n⚠️ " + PolicyTable.getDefaultError());
+            System.out.println("   Trained bots will play like Hard bots.");
+        }
         int humanPlayers = menu.getNumberOfHumanPlayers();
         boolean specialRules = menu.askForSpecialRules();
 
@@ -37,7 +57,7 @@ public class Initialization {
         createPlayers(humanPlayers);
 
         // Initialize deck and deal cards
-        deck = new Deck();
+        deck = new Deck(random, events);
         dealInitialCards();
 
         // Set up first card
@@ -48,7 +68,7 @@ public class Initialization {
 
         System.out.println("\n🎮 The game starts!");
         System.out.println("Players: " + players.size());
-        return new GameSetup(players, deck, startingPlayer, difficulty, specialRules);
+        return new GameSetup(players, deck, startingPlayer, difficulty, specialRules, random, events);
     }
 
     /**
@@ -65,14 +85,19 @@ public class Initialization {
 
         // Create human players
         for (int i = 0; i < numberOfHumans; i++) {
-            players.add(new Player(humanNames[i]));
+            Player human = new Player(humanNames[i]);
+            human.setEventListener(events);
+            players.add(human);
         }
 
         // Create bot players to fill up to 4 total players
         int numberOfBots = 4 - numberOfHumans;
         for (int i = 0; i < numberOfBots; i++) {
             String botName = BotPlayer.generateBotName(i);
-            players.add(new BotPlayer(botName, difficulty));
+            BotPlayer bot = new BotPlayer(botName, difficulty, random);
+            bot.setEventListener(events);
+            bot.setSearchBudget(IsmctsSearch.Budget.ALL_CORES); // Expert bots think on all cores
+            players.add(bot);
         }
 
         System.out.println("\n👥 Players created:");
@@ -106,7 +131,6 @@ public class Initialization {
      * @return Index of the starting player
      */
     private int selectStartingPlayer() {
-        Random random = new Random();
         return random.nextInt(players.size());
     }
 
@@ -121,8 +145,8 @@ public class Initialization {
             player.clearHand();
         }
 
-        // Create new deck and deal cards
-        deck = new Deck();
+        // Reuse the deck and deal cards
+        deck.reset();
         dealInitialCards();
         deck.setupInitialCard();
 
@@ -138,14 +162,19 @@ public class Initialization {
         public final int startingPlayerIndex;
         public final int difficulty;
         public final boolean specialRulesEnabled;
+        public final RandomGenerator random;
+        public final GameEventListener events;
 
         public GameSetup(List<Player> players, Deck deck, int startingPlayerIndex,
-                         int difficulty, boolean specialRulesEnabled) {
+                         int difficulty, boolean specialRulesEnabled, RandomGenerator random,
+                         GameEventListener events) {
             this.players = players;
             this.deck = deck;
             this.startingPlayerIndex = startingPlayerIndex;
             this.difficulty = difficulty;
             this.specialRulesEnabled = specialRulesEnabled;
+            this.random = random;
+            this.events = events;
         }
     }
 
@@ -0,0 +1,244 @@
+import java.util.*;
+
+/**
+ * Information-set Monte Carlo Tree Search (ISMCTS) for the difficulty 4 bot
+ *
+ * The bot cannot see the other hands or the order of the draw pile. Every
+ * iteration therefore starts with a determinization (see Determinizer): the
+ * unseen cards are shuffled and dealt to the opponents according to their hand
+ * sizes, the rest becomes the draw pile.
+ * All determinizations share one tree (single-observer ISMCTS): a child is only
+ * selectable in the iterations where its move is legal, so UCB uses how often
+ * the child was available instead of the parent's visits. Below the tree the
+ * round is played out with random moves until a player has no cards left, and
+ * that player gets the reward.
+ *
+ * The determinized game is a PlayoutKernel, so the tree moves and the playouts
+ * follow the rules of GameEngine (legality from Referee.legalPlays(), a playable
+ * drawn card is played at once) without allocating. Not thread-safe: one search
+ * per thread (RootParallelSearch runs several of them at once).
+ */
+public class IsmctsSearch {
+    // Moves are those of Referee.legalMoves(): card codes, wild cards with a color, then drawing
+    private static final int WILD_MOVES = Referee.WILD_MOVES;
+    private static final int DRAW_MOVE = Referee.DRAW_MOVE;
+    private static final int MOVE_COUNT = Referee.MOVE_COUNT;
+
+    private static final double EXPLORATION = 0.7; // UCB exploration constant, rewards are 0 or 1
+
+    private final GameRandom random = new GameRandom(0);
+    private Budget budget = Budget.DEFAULT;
+    private Node root;
+    private int playouts;
+
+    // Observation of the real game (the information set at the root) and the
+    // determinized game, dealt anew at the start of every iteration
+    private final Determinizer observation = new Determinizer();
+    private PlayoutKernel kernel = new PlayoutKernel(2, GameEngine.WINNING_SCORE);
+    private final int[] moves = new int[MOVE_COUNT];
+
+    /**
+     * Sets how long the search may think about one move
+     * @param budget Time and playout limit
+     */
+    public void setBudget(Budget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Budget cannot be null");
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * Searches the best move for the player whose turn it is
+     * @param self The searching player, must be the current player of the table
+     * @param table The game as the player sees it
+     * @param seed Seed of the determinizations and playouts (from the game's random generator)
+     * @return The chosen move (see Referee.legalMoves())
+     */
+    public int search(Player self, TableView table, long seed) {
+        observation.observe(self, table);
+        if (kernel.getSeatCount() < observation.getPlayerCount()) {
+            kernel = new PlayoutKernel(observation.getPlayerCount(), GameEngine.WINNING_SCORE);
+        }
+        random.setSeed(seed);
+        kernel.setSeed(GameRandom.mix64(seed));
+        root = new Node(null, -1, -1);
+        playouts = 0;
+
+        // Nothing to think about with a single legal move (the own hand is known)
+        int moveCount = Referee.legalMoves(observation.getOwnMask(), observation.getTopCode(),
+                observation.getActiveColor(), true, moves, 0);
+        if (moveCount == 1) {
+            return moves[0];
+        }
+
+        long deadline = budget.maxMillis > 0 ? System.nanoTime() + budget.maxMillis * 1_000_000L : Long.MAX_VALUE;
+        while (playouts < budget.maxPlayouts) {
+            if ((playouts & 15) == 0 && playouts > 0 && System.nanoTime() >= deadline) {
+                break;
+            }
+            iterate();
+            playouts++;
+        }
+        return bestMove();
+    }
+
+    /**
+     * Root visits of a move after the last search
+     * @param move A move as returned by search()
+     * @return How often the move was chosen at the root
+     */
+    public int getVisits(int move) {
+        Node child = root == null || root.children == null ? null : root.children[move];
+        return child == null ? 0 : child.visits;
+    }
+
+    /**
+     * @return Number of playouts of the last search
+     */
+    public int getPlayouts() { return playouts; }
+
+    /**
+     * One ISMCTS iteration: determinize, select and expand in the tree, play out, back up
+     */
+    private void iterate() {
+        observation.deal(kernel, random);
+        Node node = root;
+
+        // Selection: descend while all legal moves of this determinization have a child
+        while (kernel.isRoundRunning()) {
+            int player = kernel.getCurrentPlayer();
+            int moveCount = Referee.legalMoves(kernel.getHandMask(player), kernel.getTopCode(),
+                    kernel.getActiveColor(), true, moves, 0);
+            if (node.children == null) {
+                node.children = new Node[MOVE_COUNT];
+            }
+            int untried = 0;
+            for (int i = 0; i < moveCount; i++) {
+                Node child = node.children[moves[i]];
+                if (child == null) {
+                    untried++;
+                } else {
+                    child.availability++;
+                }
+            }
+
+            if (untried > 0) {
+                // Expansion: one new child for a random untried move, then play out
+                int pick = random.nextInt(untried);
+                int move = -1;
+                for (int i = 0; i < moveCount; i++) {
+                    if (node.children[moves[i]] == null && pick-- == 0) {
+                        move = moves[i];
+                        break;
+                    }
+                }
+                Node child = new Node(node, move, player);
+                child.availability = 1;
+                node.children[move] = child;
+                applyMove(move);
+                node = child;
+                break;
+            }
+
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < moveCount; i++) {
+                Node child = node.children[moves[i]];
+                double value = child.reward / child.visits
+                        + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            applyMove(best.move);
+            node = best;
+        }
+
+        // Playout with random moves (a random playable card, like the easy bot)
+        int winner = kernel.playRound();
+
+        // Backpropagation: every node is rewarded for the player who made its move
+        for (Node n = node; n != null; n = n.parent) {
+            n.visits++;
+            if (n.player >= 0 && n.player == winner) {
+                n.reward += 1;
+            }
+        }
+    }
+
+    /**
+     * Plays a move of the current player in the determinized game
+     */
+    private void applyMove(int move) {
+        if (move == DRAW_MOVE) {
+            kernel.playMove(-1, -1);
+        } else {
+            kernel.playMove(Referee.moveCode(move), move < WILD_MOVES ? -1 : Referee.moveColor(move));
+        }
+    }
+
+    /**
+     * The most visited root move (ties: the higher reward)
+     */
+    private int bestMove() {
+        Node best = null;
+        for (Node child : root.children) {
+            if (child != null && (best == null || child.visits > best.visits
+                    || (child.visits == best.visits && child.reward > best.reward))) {
+                best = child;
+            }
+        }
+        return best == null ? DRAW_MOVE : best.move;
+    }
+
+    /**
+     * Node of the search tree: the game after a sequence of moves
+     */
+    private static final class Node {
+        final Node parent;
+        final int move;       // Move that leads to this node
+        final int player;     // Player who made that move
+        Node[] children;      // Indexed by move, created on the first visit
+        int visits;
+        int availability;     // Iterations in which the move was legal
+        double reward;        // Rounds won by player after this move
+
+        Node(Node parent, int move, int player) {
+            this.parent = parent;
+            this.move = move;
+            this.player = player;
+        }
+    }
+
+    /**
+     * How long the search may think about one move, and on how many threads
+     * With a time limit the result depends on the speed of the machine; simulations
+     * that must be reproducible from their seed use a playout limit only (maxMillis 0).
+     */
+    public static class Budget {
+        // One thread and no time limit, for simulations that already run one game per core
+        public static final Budget DEFAULT = new Budget(0, 3000, 1);
+        // All cores with a time limit, for interactive games: short latency, more playouts
+        public static final Budget ALL_CORES = new Budget(40, 3000, Runtime.getRuntime().availableProcessors());
+
+        public final long maxMillis;   // Time limit per move, 0 for none
+        public final int maxPlayouts;  // Playout limit per move and thread
+        public final int threads;      // Independent trees searched in parallel (see RootParallelSearch)
+
+        public Budget(long maxMillis, int maxPlayouts) {
+            this(maxMillis, maxPlayouts, 1);
+        }
+
+        public Budget(long maxMillis, int maxPlayouts, int threads) {
+            if (maxMillis < 0 || maxPlayouts <= 0 || threads <= 0) {
+                throw new IllegalArgumentException("Invalid search budget: " + maxMillis + " ms, "
+                        + maxPlayouts + " playouts, " + threads + " threads");
+            }
+            this.maxMillis = maxMillis;
+            this.maxPlayouts = maxPlayouts;
+            this.threads = threads;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Precomputed answers to "can this card be played?"
+ * For every combination of card code, top card code and active color the rule
+ * is evaluated once when the class is loaded. The matrix is stored as one bit
+ * row per (top card, active color) pair: bit n says whether card code n may be
+ * played. Card.canPlayOn() is a single lookup and bit test, and legal-move
+ * generation is one AND of a hand's code mask (see Hand.getMask()) with a row.
+ */
+public class LegalityTable {
+    private static final int COLOR_COUNT = CardColor.values().length;
+
+    // PLAYABLE[topCode * COLOR_COUNT + activeColor]: bit n set if card code n can be played
+    private static final long[] PLAYABLE = new long[Card.CODE_COUNT * COLOR_COUNT];
+
+    static {
+        CardColor[] colors = CardColor.values();
+        for (int topCode = 0; topCode < Card.CODE_COUNT; topCode++) {
+            for (int color = 0; color < COLOR_COUNT; color++) {
+                for (int code = 0; code < Card.CODE_COUNT; code++) {
+                    if (canPlayBranching(Card.fromCode(code), Card.fromCode(topCode), colors[color])) {
+                        PLAYABLE[topCode * COLOR_COUNT + color] |= 1L << code;
+                    }
+                }
+            }
+        }
+    }
+
+    private LegalityTable() {
+    }
+
+    /**
+     * Checks if a card can be played
+     * @param code Code of the card to play
+     * @param topCode Code of the card on top of the discard pile
+     * @param activeColor Ordinal of the color to match
+     * @return true if the card can be played
+     */
+    public static boolean canPlay(int code, int topCode, int activeColor) {
+        return (PLAYABLE[topCode * COLOR_COUNT + activeColor] & (1L << code)) != 0;
+    }
+
+    /**
+     * Mask of all card codes that can be played on a top card
+     * AND it with Hand.getMask() to get the playable cards of a hand
+     * @param topCode Code of the card on top of the discard pile
+     * @param activeColor Ordinal of the color to match
+     * @return Bit n is set if card code n can be played
+     */
+    public static long playableMask(int topCode, int activeColor) {
+        return PLAYABLE[topCode * COLOR_COUNT + activeColor];
+    }
+
+    /**
+     * The UNO matching rule, evaluated with branches
+     * Only used to fill the tables (and by the benchmark as the baseline)
+     */
+    static boolean canPlayBranching(Card card, Card topCard, CardColor activeColor) {
+        // Wild cards can always be played
+        if (card.getType() == CardType.WILD || card.getType() == CardType.WILD_DRAW_FOUR) {
+            return true;
+        }
+
+        // Same color or same type can be played
+        return card.getColor() == activeColor || card.getType() == topCard.getType();
+    }
+}
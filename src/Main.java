@@ -1,3 +1,5 @@
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -14,6 +16,10 @@ public class Main {
     private static int currentSessionId = 0;
     private static String currentGameVariant = "Standard";
 
+    // Every game is appended to the game log, synced to disk after every round
+    private static final String GAME_LOG_FILE = "uno_games.log";
+    private static final int GAME_LOG_SYNC_ROUNDS = 1;
+
     // Flag to control the main application loop
     private static boolean gameRunning = true;
 
@@ -101,11 +107,13 @@ public class Main {
      * @return true if the player wants to play again, false otherwise.
      */
     private static boolean startNewGame(Menu menu) {
+        GameLog gameLog = openGameLog();
         try {
             System.out.println("\n🚀 Starting a new game...");
 
             // Game initialization: players, deck, etc.
-            Initialization initialization = new Initialization(scanner);
+            Initialization initialization = gameLog == null
+                    ? new Initialization(scanner) : new Initialization(scanner, gameLog);
             Initialization.GameSetup gameSetup = initialization.initializeGame();
 
             // Handle failed initialization
@@ -176,7 +184,32 @@ public class Main {
                 e.printStackTrace();
             }
             System.out.println("Returning to main menu...");
+        } finally {
+            closeGameLog(gameLog);
         }
         return false; // On error or invalid input, return to main menu
     }
+
+    /**
+     * Opens the game log in front of the console output
+     * @return The log, or null if it cannot be opened (the game is then played without it)
+     */
+    private static GameLog openGameLog() {
+        try {
+            return GameLog.open(Paths.get(GAME_LOG_FILE), GAME_LOG_SYNC_ROUNDS, new ConsoleEventListener());
+        } catch (IOException e) {
+            System.err.println("❌ Could not open the game log: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void closeGameLog(GameLog gameLog) {
+        if (gameLog != null) {
+            try {
+                gameLog.close();
+            } catch (Exception e) {
+                System.err.println("⚠️ Error closing the game log: " + e.getMessage());
+            }
+        }
+    }
 }
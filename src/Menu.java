@@ -14,7 +14,7 @@ public class Menu implements AutoCloseable {
     private static final int MAX_PLAYERS = 4;
     private static final int DEFAULT_PLAYERS = 1;
     private static final int MIN_DIFFICULTY = 1;
-    private static final int MAX_DIFFICULTY = 3;
+    private static final int MAX_DIFFICULTY = BotPlayer.MAX_DIFFICULTY;
     private static final int DEFAULT_DIFFICULTY = 2;
     private static final int MIN_MENU_OPTION = 1;
     private static final int MAX_MENU_OPTION = 3;
@@ -62,7 +62,9 @@ public class Menu implements AutoCloseable {
         System.out.println("1. Easy   - Bots play randomly");
         System.out.println("2. Medium - Bots prefer action cards");
         System.out.println("3. Hard   - Bots play strategically");
-        System.out.print("Choose difficulty level (1-3): ");
+        System.out.println("4. Expert - Bots think ahead (tree search)");
+        System.out.println("5. Trained - Bots play a policy learned from self-play");
+        System.out.print("Choose difficulty level (1-5): ");
 
         // getValidatedInput has been adapted, the if-loop isn't needed anymore
         // since the validation takes place in the method itself now
@@ -248,12 +250,13 @@ public class Menu implements AutoCloseable {
         System.out.println("   • 3 penalties = disqualification");
     }
 
-    public void displayGameState(List<Player> players, Player currentPlayer, Card topCard, int direction) {
+    public void displayGameState(List<Player> players, Player currentPlayer, Card topCard,
+                                 CardColor activeColor, int direction) {
         System.out.println("\n" + SEPARATOR);
         System.out.println("🎮 CURRENT GAME STATE");
         System.out.println(SEPARATOR);
 
-        displayCurrentCard(topCard);
+        displayCurrentCard(topCard, activeColor);
         displayDirection(direction);
         displayCurrentPlayer(currentPlayer);
         displayPlayerOverview(players, currentPlayer);
@@ -261,8 +264,8 @@ public class Menu implements AutoCloseable {
         System.out.println(SEPARATOR);
     }
 
-    private void displayCurrentCard(Card topCard) {
-        System.out.println("🃏 Top card: " + topCard);
+    private void displayCurrentCard(Card topCard, CardColor activeColor) {
+        System.out.println("🃏 Top card: " + topCard.toString(activeColor));
     }
 
     private void displayDirection(int direction) {
@@ -6,10 +6,12 @@ import java.util.*;
  */
 public class Player {
     protected String name;              // Player's name
-    protected List<Card> hand;          // Player's cards (using List interface)
+    protected Hand hand;                // Player's cards (card codes with O(1) counts and masks)
     protected int totalScore;           // Total score across all rounds
     protected int penaltyCount;         // Number of penalties received
     protected boolean saidUno;          // Whether player said UNO
+    protected GameEventListener events; // Receives UNO calls and penalties
+    private int lastPlayedIndex = -1;   // Hand index of the card played last, for GameLog
 
     /**
      * Constructor for creating a new player
@@ -20,10 +22,11 @@ public class Player {
             throw new IllegalArgumentException("Player name cannot be null or empty");
         }
         this.name = name.trim(); //to remove any spaces
-        this.hand = new ArrayList<>();  // ArrayList implements List interface
+        this.hand = new Hand();
         this.totalScore = 0;
         this.penaltyCount = 0;
         this.saidUno = false;
+        this.events = new ConsoleEventListener();
     }
 
     /**
@@ -47,11 +50,10 @@ public class Player {
      * @return The removed card, or null if index is invalid
      */
     public Card playCard(int index) {
-        //Exception-Handling (instead of returning null)
-        if (index < 0 || index >= hand.size()) {
-            throw new IndexOutOfBoundsException("Invalid card index: " + index);
-        }
-        return hand.remove(index);
+        //Exception-Handling (instead of returning null) is done by Hand.remove()
+        Card card = hand.remove(index);
+        lastPlayedIndex = index;
+        return card;
     }
 
     /**
@@ -75,7 +77,7 @@ public class Player {
     public void callUno() {
         if (hand.size() == 1) {
             saidUno = true;
-            System.out.println(name + " calls: UNO!");
+            events.unoCalled(this);
         }
     }
 
@@ -94,45 +96,45 @@ public class Player {
      * @return Total point value of all cards in hand
      */
     public int calculateHandPoints() {
-        int total = 0;
-        // Enhanced for loop (for-each loop) - iterates through all cards
-        for (Card card : hand) {
-            total += card.getPoints();
-        }
-        return total;
+        // The hand keeps its point total up to date on every add and remove
+        return hand.getPoints();
     }
 
     /**
      * Checks if player has a playable card
      * @param topCard The current top card
+     * @param activeColor The color to match
      * @return true if player has a playable card
      */
     //UNUSED
-    public boolean hasPlayableCard(Card topCard) {
+    public boolean hasPlayableCard(Card topCard, CardColor activeColor) {
         if (topCard == null) return false;
-
-        for (Card card : hand) {
-            if (card.canPlayOn(topCard)) {
-                return true;
-            }
-        }
-        return false;
+        return hand.hasPlayableCard(topCard, activeColor); // O(1) mask check
     }
 
     /**
-     * Gets all playable cards from hand
+     * Writes all legal moves of a human player into a buffer, see Referee.legalMoves():
+     * every playable card, a wild card once per color, and drawing, which humans may always do
      * @param topCard The current top card
-     * @return List of indices of playable cards
+     * @param activeColor The color to match
+     * @param moves Buffer of at least Referee.MOVE_COUNT moves
+     * @return Number of moves, the last one is Referee.DRAW_MOVE
      */
-    //UNUSED
-    public List<Integer> getPlayableCardIndices(Card topCard) {
-        List<Integer> playableIndices = new ArrayList<>();
-        for (int i = 0; i < hand.size(); i++) {
-            if (hand.get(i).canPlayOn(topCard)) {
-                playableIndices.add(i);
-            }
+    public int legalMoves(Card topCard, CardColor activeColor, int[] moves) {
+        int count = Referee.legalMoves(hand.getMask(), topCard.getCode(), activeColor.ordinal(), true, moves, 0);
+        if (moves[count - 1] != Referee.DRAW_MOVE) {
+            moves[count++] = Referee.DRAW_MOVE;
         }
-        return playableIndices;
+        return count;
+    }
+
+    /**
+     * Finds the card a move plays
+     * @param move A move of legalMoves() other than Referee.DRAW_MOVE
+     * @return Index of the first card in the hand with the move's card code, or -1 if there is none
+     */
+    public int findCard(int move) {
+        return hand.indexOf(Referee.moveCode(move));
     }
 
     /**
@@ -140,7 +142,7 @@ public class Player {
      */
     public void addPenalty() {
         penaltyCount++;
-        System.out.println(name + "  receives a penalty! (Total: " + penaltyCount + ")");
+        events.penalty(this, penaltyCount);
     }
 
     /**
@@ -172,9 +174,58 @@ public class Player {
         hand.clear();
         saidUno = false;
     }
+    /**
+     * Copies the card codes of the hand, for GameState
+     * @return Number of codes copied
+     */
+    int copyHand(byte[] target, int offset) {
+        return hand.copyCodes(target, offset);
+    }
+
+    /**
+     * Puts the player back into a state saved by GameState, without events
+     * @param codes Array holding the codes of the hand
+     * @param offset Index of the first code
+     * @param size Number of cards in the hand
+     * @param totalScore Total score across all rounds
+     * @param penaltyCount Penalties received in this round
+     * @param saidUno Whether the player said UNO
+     */
+    void restore(byte[] codes, int offset, int size, int totalScore, int penaltyCount, boolean saidUno) {
+        hand.clear();
+        for (int i = offset; i < offset + size; i++) {
+            hand.add(Card.fromCode(codes[i]));
+        }
+        this.totalScore = totalScore;
+        this.penaltyCount = penaltyCount;
+        this.saidUno = saidUno;
+    }
+
+    /**
+     * @return Index the card played last had in the hand, or -1 if none was played yet
+     */
+    int getLastPlayedIndex() { return lastPlayedIndex; }
+
+    // Take back what a move did, for GameEngine.unmakeMove() (no events)
+    void unplayCard(int index, Card card) { hand.insert(index, card); }
+    void removeScore(int points) { totalScore -= points; }
+
     // Getter and setter methods
     public String getName() { return name; }
-    public List<Card> getHand() { return new ArrayList<>(hand); } // Return copy to prevent external modification
+    // Indexed access to the hand, without copying it
+    public Card getCard(int index) { return hand.get(index); }
+    public int getCardCode(int index) { return hand.getCode(index); }
+    public long getHandMask() { return hand.getMask(); }
+
+    public List<Card> getHand() { // Return copy to prevent external modification
+        List<Card> cards = new ArrayList<>(hand.size());
+        for (int i = 0; i < hand.size(); i++) {
+            cards.add(hand.get(i));
+        }
+        return cards;
+    }
+    public int countColor(CardColor color) { return hand.countColor(color); }
+    public int countType(CardType type) { return hand.countType(type); }
     public int getHandSize() { return hand.size(); }
     public int getTotalScore() { return totalScore; }
 
@@ -182,8 +233,15 @@ public class Player {
 
     public int getPenaltyCount() { return penaltyCount; }
     public void setSaidUno(boolean saidUno) { this.saidUno = saidUno; }
+    public void setEventListener(GameEventListener events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Event listener cannot be null");
+        }
+        this.events = events;
+    }
 
     public void resetPenalties() { penaltyCount = 0; }
+    public void resetScore() { totalScore = 0; }
 
     @Override
     public String toString() {
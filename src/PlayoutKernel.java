@@ -0,0 +1,762 @@
+/**
+ * Playout kernel: plays UNO between random (easy) bots on primitive arrays only
+ * The piles are one ring buffer of card codes like in Deck, every hand is a
+ * slice of one flat code array with a code mask, color counts and points like
+ * in Hand. Nothing is allocated after construction and nothing is printed, so
+ * search bots can run huge numbers of playouts.
+ *
+ * The rules and the order of all random decisions are exactly those of
+ * GameEngine (and therefore of Run, Referee and SpecialCards): for the same
+ * seed, playGame() gives the same result as a GameEngine whose seats are all
+ * difficulty 1 bots. The benchmark's "check.kernel" compares the two.
+ *
+ * For searches a position can be set up directly (setupPosition(), addToHand(),
+ * setPiles()); moves are then applied with playMove() and the round is finished
+ * with random moves by playRound(). Such playouts only need the rules, not the
+ * random sequence of GameEngine, so they skip everything that does not change the
+ * outcome of the round: nobody forgets to call UNO, hands have no order (a random
+ * card is picked by code counts) and bounded random numbers use a multiply-shift.
+ *
+ * Every position has a 64-bit Zobrist hash (getHash()) for transposition tables:
+ * the hands' part is updated with every card that enters or leaves a hand, the
+ * rest (player to move, direction, top card and color, pile sizes) is one key each.
+ *
+ * Not thread-safe: one kernel per thread.
+ */
+public class PlayoutKernel {
+    public static final int MAX_PLAYERS = 15; // 15 * 7 cards still leave a starting card
+    private static final int DECK_SIZE = Deck.DECK_SIZE;
+    private static final int CODES = Card.CODE_COUNT;
+    private static final int BLACK = CardColor.BLACK.ordinal();
+    private static final int CARDS_PER_PLAYER = 7;
+    private static final int MAX_TURNS = 5000;    // A searched round still running after this many turns has no winner
+    public static final int MAX_UNDO = 256;       // Moves that makeMove() can take back
+    private static final int MAX_DRAWS_PER_MOVE = 5; // Draw a WILD DRAW FOUR and play it: 1 + 4 cards
+    private static final int UNDO_FIELDS = 9;
+    private static final int DRAW_TWO = CardType.DRAW_TWO.ordinal();
+    private static final int REVERSE = CardType.REVERSE.ordinal();
+    private static final int SKIP = CardType.SKIP.ordinal();
+
+    // Per card code: color ordinal (BLACK for wild cards), type ordinal and points
+    private static final byte[] COLOR = new byte[CODES];
+    private static final byte[] TYPE = new byte[CODES];
+    private static final byte[] POINTS = new byte[CODES];
+
+    static {
+        for (int code = 0; code < CODES; code++) {
+            Card card = Card.fromCode(code);
+            COLOR[code] = (byte) card.getColor().ordinal();
+            TYPE[code] = (byte) card.getType().ordinal();
+            POINTS[code] = (byte) card.getPoints();
+        }
+    }
+
+    // Zobrist keys, the same in every run: one per (seat, card code, copy) for the hands,
+    // one per player to move, top card with active color and pile size, and one for counter-clockwise
+    private static final int MAX_COPIES = 4; // Of any card code in the deck
+    private static final long[] HAND_KEYS = new long[MAX_PLAYERS * CODES * MAX_COPIES];
+    private static final long[] CURRENT_KEYS = new long[MAX_PLAYERS];
+    private static final long[] TOP_KEYS = new long[CODES * 5];
+    private static final long[] DRAW_PILE_KEYS = new long[DECK_SIZE + 1];
+    private static final long[] DISCARD_PILE_KEYS = new long[DECK_SIZE + 1];
+    private static final long REVERSED_KEY;
+
+    static {
+        GameRandom keys = new GameRandom(0x5A0B1A5L);
+        for (long[] table : new long[][] {HAND_KEYS, CURRENT_KEYS, TOP_KEYS, DRAW_PILE_KEYS, DISCARD_PILE_KEYS}) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = keys.nextLong();
+            }
+        }
+        REVERSED_KEY = keys.nextLong();
+    }
+
+    private final GameRandom random = new GameRandom(0);
+    private final int seatCount;
+    private final int winningScore;
+
+    // Piles, in one ring buffer like Deck: draw pile from drawStart, followed by the discard pile
+    private final byte[] cards = new byte[DECK_SIZE];
+    private int drawStart;
+    private int drawCount;
+    private int discardCount;
+    private int activeColor;
+
+    // Hands by seat: codes of seat s in hands[s * DECK_SIZE ...], in the order received
+    // (complete games only: random moves in search positions pick by code counts instead)
+    private final byte[] hands;
+    private final int[] handSizes;
+    private final long[] handMasks;
+    private final byte[] codeCounts;   // [seat * CODES + code]
+    private final int[] colorCounts;   // [seat * 5 + color]
+    private final int[] handPoints;    // Complete games only
+    private final long[] handHashes;   // Zobrist hash of each hand's multiset of codes
+    private long handsHash;            // All hands together
+    private final boolean[] saidUno;
+    private final int[] scores;
+
+    // Seats still in the game, in turn order (GameEngine's player list)
+    private final int[] order;
+    private int orderCount;
+    private int current;     // Position in order
+    private int direction;
+    private int plannedColor = -1; // Color of the next wild card, chosen by the caller of playMove()
+    private int roundNumber;
+    private int turns;
+    private int roundWinner;  // Seat that emptied its hand, -1 while the round runs
+    private boolean roundOver;
+    private boolean gameOver;
+    private int winnerSeat;
+    private boolean completeGame; // playGame(): easy bots that forget UNO, rounds are scored
+
+    // Undo stack of makeMove(): the state before each move, and who received the cards drawn
+    private final int[] undo = new int[MAX_UNDO * UNDO_FIELDS];
+    private final int[] drawnBy = new int[MAX_UNDO * MAX_DRAWS_PER_MOVE];
+    private int undoDepth;
+    private int drawLog;
+    private boolean recording;
+
+    /**
+     * @param seatCount Number of players (2 to MAX_PLAYERS)
+     * @param winningScore Score that wins a game in playGame()
+     */
+    public PlayoutKernel(int seatCount, int winningScore) {
+        if (seatCount < 2 || seatCount > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Invalid number of players: " + seatCount);
+        }
+        this.seatCount = seatCount;
+        this.winningScore = winningScore;
+        hands = new byte[seatCount * DECK_SIZE];
+        handSizes = new int[seatCount];
+        handMasks = new long[seatCount];
+        codeCounts = new byte[seatCount * CODES];
+        colorCounts = new int[seatCount * 5];
+        handPoints = new int[seatCount];
+        handHashes = new long[seatCount];
+        saidUno = new boolean[seatCount];
+        scores = new int[seatCount];
+        order = new int[seatCount];
+    }
+
+    // --- Complete games, like GameEngine.playGame() with difficulty 1 bots ---
+
+    /**
+     * Plays a game to the winning score
+     * @param seed Seed of the game
+     * @return Seat of the winner, or -1 if the game ended without one
+     */
+    public int playGame(long seed) {
+        random.setSeed(seed);
+        orderCount = seatCount;
+        for (int seat = 0; seat < seatCount; seat++) {
+            order[seat] = seat;
+            scores[seat] = 0;
+        }
+        winnerSeat = -1;
+        roundNumber = 1;
+        turns = 0;
+        gameOver = false;
+        completeGame = true;
+        startRound(random.nextInt(orderCount));
+
+        while (!gameOver) {
+            if (drawCount == 0 && discardCount <= 1) break; // Both piles empty: draw
+
+            playTurn();
+            if (roundOver) {
+                roundNumber++;
+                startRound(0);
+            } else if (!gameOver) {
+                current = nextPosition();
+            }
+        }
+        return winnerSeat;
+    }
+
+    /**
+     * Deals a fresh deck and applies the starting card, like GameEngine.startRound()
+     */
+    private void startRound(int startingPosition) {
+        for (int i = 0; i < orderCount; i++) {
+            clearHand(order[i]);
+        }
+        Deck.copyStandardDeck(cards);
+        drawStart = 0;
+        drawCount = DECK_SIZE;
+        discardCount = 0;
+        activeColor = BLACK;
+        shuffleDrawPile();
+        for (int i = 0; i < CARDS_PER_PLAYER; i++) {
+            for (int p = 0; p < orderCount; p++) {
+                int code = drawCode();
+                if (code >= 0) {
+                    addCard(order[p], code);
+                }
+            }
+        }
+        setupInitialCard();
+        direction = 1;
+        current = startingPosition;
+        roundOver = false;
+        roundWinner = -1;
+
+        int firstSeat = order[current];
+        int type = TYPE[topCode()];
+        if (type == DRAW_TWO) {
+            drawCards(firstSeat, 2);
+            current = nextPosition();
+        } else if (type == REVERSE) {
+            direction = -1;
+        } else if (type == SKIP) {
+            current = nextPosition();
+        } else if (type == CardType.WILD.ordinal()) {
+            activeColor = selectColor(firstSeat);
+        }
+    }
+
+    private void setupInitialCard() {
+        int firstCode;
+        do {
+            firstCode = drawCode();
+            if (firstCode == Card.WILD_DRAW_FOUR_CODE) {
+                drawStart = slot(drawStart + DECK_SIZE - 1);
+                drawCount++;
+                int other = slot(drawStart + random.nextInt(drawCount));
+                cards[drawStart] = cards[other];
+                cards[other] = (byte) firstCode;
+            }
+        } while (firstCode == Card.WILD_DRAW_FOUR_CODE);
+        if (firstCode >= 0) {
+            discard(firstCode);
+        }
+    }
+
+    // --- Positions for searches ---
+
+    /**
+     * Starts a position with empty hands and piles, for a round in progress
+     * @param playerCount Number of players, in turn order (positions = seats)
+     * @param direction 1 for clockwise, -1 for counter-clockwise
+     * @param currentPlayer Position of the player to move
+     * @param activeColor Ordinal of the color to match
+     */
+    public void setupPosition(int playerCount, int direction, int currentPlayer, int activeColor) {
+        if (playerCount < 2 || playerCount > seatCount) {
+            throw new IllegalArgumentException("Invalid number of players: " + playerCount);
+        }
+        orderCount = playerCount;
+        for (int seat = 0; seat < seatCount; seat++) {
+            order[seat] = seat;
+            clearHand(seat);
+        }
+        this.direction = direction;
+        this.current = currentPlayer;
+        this.activeColor = activeColor;
+        plannedColor = -1;
+        drawStart = 0;
+        drawCount = 0;
+        discardCount = 0;
+        turns = 0;
+        roundOver = false;
+        gameOver = false;
+        roundWinner = -1;
+        completeGame = false;
+        undoDepth = 0;
+        drawLog = 0;
+    }
+
+    /**
+     * Adds a card to a hand of the position
+     */
+    public void addToHand(int player, int code) {
+        addCard(player, code);
+    }
+
+    /**
+     * Fills the piles of the position
+     * @param draw Draw pile, the next card to draw first
+     * @param drawSize Number of cards in the draw pile
+     * @param discard Discard pile, the top card last
+     * @param discardSize Number of cards in the discard pile (at least 1)
+     */
+    public void setPiles(int[] draw, int drawSize, int[] discard, int discardSize) {
+        if (discardSize < 1 || drawSize + discardSize > DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid piles: " + drawSize + " + " + discardSize + " cards");
+        }
+        for (int i = 0; i < drawSize; i++) {
+            cards[i] = (byte) draw[i];
+        }
+        for (int i = 0; i < discardSize; i++) {
+            cards[drawSize + i] = (byte) discard[i];
+        }
+        drawStart = 0;
+        drawCount = drawSize;
+        discardCount = discardSize;
+    }
+
+    /**
+     * Seeds the random moves of the following playouts
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Plays one turn of the current player with a chosen move, then moves on to the next player
+     * @param code Card code to play, or -1 to draw (a playable drawn card is played at once)
+     * @param chosenColor Color ordinal for a wild card (ignored otherwise)
+     */
+    public void playMove(int code, int chosenColor) {
+        turns++;
+        int seat = order[current];
+        if (code < 0) {
+            drawTurn(seat);
+        } else {
+            if ((handMasks[seat] & (1L << code)) == 0) {
+                throw new IllegalArgumentException("Card " + code + " is not in the hand of player " + seat);
+            }
+            plannedColor = chosenColor;
+            removeCode(seat, code);
+            playCard(seat, code);
+            plannedColor = -1;
+        }
+        if (roundWinner < 0) {
+            current = nextPosition();
+        }
+    }
+
+    /**
+     * @return true if makeMove() can be used in this position: the round is running, the
+     *         undo stack has room and no move can empty the draw pile (a reshuffle cannot be undone)
+     */
+    public boolean canMakeMove() {
+        return !completeGame && undoDepth < MAX_UNDO && drawCount >= MAX_DRAWS_PER_MOVE && isRoundRunning();
+    }
+
+    /**
+     * Plays a move like playMove(), so that unmakeMove() can take it back
+     * Only the old values of a few fields are pushed, no state is copied.
+     * Only allowed if canMakeMove() is true; a WILD drawn and played at once takes
+     * the most common color of the hand, which is random for a hand without colored cards.
+     */
+    public void makeMove(int code, int chosenColor) {
+        if (!canMakeMove()) {
+            throw new IllegalStateException("Cannot make a move that could not be taken back");
+        }
+        int base = undoDepth++ * UNDO_FIELDS;
+        int discardSlot = slot(drawStart + drawCount + discardCount); // Where a played card goes
+        undo[base] = current;
+        undo[base + 1] = direction;
+        undo[base + 2] = activeColor;
+        undo[base + 3] = drawStart;
+        undo[base + 4] = drawCount;
+        undo[base + 5] = discardCount;
+        undo[base + 6] = turns;
+        undo[base + 7] = drawLog;
+        undo[base + 8] = cards[discardSlot];
+        recording = true;
+        playMove(code, chosenColor);
+        recording = false;
+    }
+
+    /**
+     * Takes back the last move of makeMove()
+     */
+    public void unmakeMove() {
+        if (undoDepth == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        int base = --undoDepth * UNDO_FIELDS;
+        int oldDrawStart = undo[base + 3];
+        int oldDrawCount = undo[base + 4];
+        int oldDiscardCount = undo[base + 5];
+        int seat = order[undo[base]];
+
+        // The played card goes back to the hand first: it may be the card just drawn
+        if (discardCount > oldDiscardCount) {
+            int discardSlot = slot(oldDrawStart + oldDrawCount + oldDiscardCount);
+            addCard(seat, cards[discardSlot]);
+            cards[discardSlot] = (byte) undo[base + 8];
+        }
+        // The drawn cards are still in their slots of the ring buffer
+        int oldDrawLog = undo[base + 7];
+        for (int i = oldDrawLog; i < drawLog; i++) {
+            removeCode(drawnBy[i], cards[slot(oldDrawStart + i - oldDrawLog)]);
+        }
+        drawLog = oldDrawLog;
+
+        current = undo[base];
+        direction = undo[base + 1];
+        activeColor = undo[base + 2];
+        drawStart = oldDrawStart;
+        drawCount = oldDrawCount;
+        discardCount = oldDiscardCount;
+        turns = undo[base + 6];
+        roundWinner = -1; // makeMove() needs a running round
+    }
+
+    /**
+     * Finishes the round with random moves
+     * @return Position of the player who emptied their hand first, or -1 if the piles ran out
+     */
+    public int playRound() {
+        while (isRoundRunning()) {
+            turns++;
+            randomTurn(order[current]);
+            if (roundWinner < 0) {
+                current = nextPosition();
+            }
+        }
+        return roundWinner;
+    }
+
+    /**
+     * @return false once a player has emptied their hand, both piles are empty
+     *         or the round has taken too many turns
+     */
+    public boolean isRoundRunning() {
+        return roundWinner < 0 && turns < MAX_TURNS && (drawCount > 0 || discardCount > 1);
+    }
+
+    // --- Turns, like GameEngine.playTurn() and playCard() ---
+
+    private void playTurn() {
+        turns++;
+        randomTurn(order[current]);
+    }
+
+    /**
+     * Turn of an easy bot: a random playable card, or draw
+     */
+    private void randomTurn(int seat) {
+        long playableMask = Referee.legalPlays(handMasks[seat], topCode(), activeColor);
+        if (playableMask == 0) {
+            drawTurn(seat);
+            return;
+        }
+        // Same choice as BotPlayer.selectCard(): a playable code weighted by its copies in hand, in code order
+        int countBase = seat * CODES;
+        int total = 0;
+        for (long bits = playableMask; bits != 0; bits &= bits - 1) {
+            total += codeCounts[countBase + Long.numberOfTrailingZeros(bits)];
+        }
+        int pick = nextBelow(total);
+        int code = 0;
+        for (long bits = playableMask; bits != 0; bits &= bits - 1) {
+            code = Long.numberOfTrailingZeros(bits);
+            pick -= codeCounts[countBase + code];
+            if (pick < 0) break;
+        }
+        if (completeGame) {
+            // The first card with that code, like Hand.indexOf()
+            int base = seat * DECK_SIZE;
+            int index = 0;
+            while (hands[base + index] != code) {
+                index++;
+            }
+            removeCard(seat, index);
+        } else {
+            removeCode(seat, code);
+        }
+        playCard(seat, code);
+    }
+
+    private void drawTurn(int seat) {
+        int code = drawCode();
+        if (code >= 0) {
+            addCard(seat, code);
+            if (recording) {
+                drawnBy[drawLog++] = seat;
+            }
+            // Bots always play a drawn card if they can
+            if (Referee.isLegalPlay(code, topCode(), activeColor)) {
+                if (completeGame) {
+                    removeCard(seat, handSizes[seat] - 1);
+                } else {
+                    removeCode(seat, code);
+                }
+                playCard(seat, code);
+            }
+        }
+    }
+
+    private void playCard(int seat, int code) {
+        discard(code);
+        if (completeGame) {
+            checkUno(seat); // In search positions everybody calls UNO
+        }
+
+        int type = TYPE[code];
+        if (type >= DRAW_TWO) {
+            handleSpecialCardEffects(seat, type);
+        }
+        if (handSizes[seat] == 0) {
+            roundWinner = seat;
+            if (completeGame) {
+                handleRoundWin(seat);
+            }
+        }
+    }
+
+    private void checkUno(int seat) {
+        if (handSizes[seat] == 1) {
+            // BotPlayer.callUno(): easy bots forget one time in ten, which is not penalized
+            saidUno[seat] = random.nextInt(10) != 0;
+        } else if (handSizes[seat] > 1) {
+            saidUno[seat] = false;
+        }
+    }
+
+    /**
+     * Same effects as GameEngine.handleSpecialCardEffects()
+     */
+    private void handleSpecialCardEffects(int seat, int type) {
+        int next = nextPosition();
+        if (type == DRAW_TWO) {
+            drawCards(order[next], 2);
+            current = next;
+        } else if (type == REVERSE) {
+            direction = -direction;
+        } else if (type == SKIP) {
+            current = next;
+        } else if (type == CardType.WILD.ordinal()) {
+            activeColor = chooseColor(seat);
+        } else { // WILD_DRAW_FOUR
+            activeColor = chooseColor(seat);
+            drawCards(order[next], 4);
+            current = next;
+        }
+    }
+
+    private void handleRoundWin(int seat) {
+        int totalPoints = 0;
+        for (int i = 0; i < orderCount; i++) {
+            if (order[i] != seat) {
+                totalPoints += handPoints[order[i]];
+            }
+        }
+        scores[seat] += totalPoints;
+        if (scores[seat] >= winningScore) {
+            winnerSeat = seat;
+            gameOver = true;
+        } else {
+            roundOver = true;
+        }
+    }
+
+    private int chooseColor(int seat) {
+        if (plannedColor >= 0) {
+            return plannedColor;
+        }
+        return selectColor(seat);
+    }
+
+    /**
+     * Most common color in the hand, like BotPlayer.selectColor()
+     */
+    private int selectColor(int seat) {
+        int best = 0;
+        int maxCount = 0;
+        for (int color = 0; color < 4; color++) {
+            int count = colorCounts[seat * 5 + color];
+            if (count > maxCount) {
+                maxCount = count;
+                best = color;
+            }
+        }
+        return maxCount == 0 ? nextBelow(4) : best;
+    }
+
+    private int nextPosition() {
+        int next = current + direction;
+        if (next >= orderCount) return 0;
+        if (next < 0) return orderCount - 1;
+        return next;
+    }
+
+    // --- Piles, like Deck ---
+
+    private int drawCode() {
+        if (drawCount == 0) {
+            if (discardCount <= 1) {
+                return -1;
+            }
+            drawCount = discardCount - 1;
+            discardCount = 1;
+            shuffleDrawPile();
+        }
+        int code = cards[drawStart];
+        drawStart = slot(drawStart + 1);
+        drawCount--;
+        return code;
+    }
+
+    private void drawCards(int seat, int count) {
+        for (int i = 0; i < count; i++) {
+            int code = drawCode();
+            if (code < 0) break;
+            addCard(seat, code);
+            if (recording) {
+                drawnBy[drawLog++] = seat;
+            }
+        }
+    }
+
+    private void discard(int code) {
+        cards[slot(drawStart + drawCount + discardCount)] = (byte) code;
+        discardCount++;
+        activeColor = COLOR[code];
+    }
+
+    private int topCode() {
+        return cards[slot(drawStart + drawCount + discardCount - 1)];
+    }
+
+    private void shuffleDrawPile() {
+        for (int i = drawCount - 1; i > 0; i--) {
+            int a = slot(drawStart + i);
+            int b = slot(drawStart + nextBelow(i + 1));
+            byte card = cards[a];
+            cards[a] = cards[b];
+            cards[b] = card;
+        }
+    }
+
+    /**
+     * Random number from 0 to bound - 1
+     * Complete games use RandomGenerator.nextInt() to stay in step with GameEngine;
+     * search positions use the faster multiply-shift (bias below 2^-25 for a deck)
+     */
+    private int nextBelow(int bound) {
+        if (completeGame) {
+            return random.nextInt(bound);
+        }
+        return (int) (((random.nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    private static int slot(int position) {
+        return position >= DECK_SIZE ? position - DECK_SIZE : position;
+    }
+
+    // --- Hands, like Hand and Player ---
+
+    private void addCard(int seat, int code) {
+        if (completeGame) {
+            // Hand order, points and UNO calls only matter in complete games
+            hands[seat * DECK_SIZE + handSizes[seat]] = (byte) code;
+            handPoints[seat] += POINTS[code];
+            if (handSizes[seat] > 0) {
+                saidUno[seat] = false;
+            }
+        }
+        handSizes[seat]++;
+        long key = HAND_KEYS[(seat * CODES + code) * MAX_COPIES + codeCounts[seat * CODES + code]++];
+        handHashes[seat] ^= key;
+        handsHash ^= key;
+        handMasks[seat] |= 1L << code;
+        colorCounts[seat * 5 + COLOR[code]]++;
+    }
+
+    /**
+     * Removes the card at a hand index, keeping the order like Hand.remove() (complete games only)
+     */
+    private int removeCard(int seat, int index) {
+        int base = seat * DECK_SIZE;
+        int code = hands[base + index];
+        System.arraycopy(hands, base + index + 1, hands, base + index, handSizes[seat] - index - 1);
+        removeCode(seat, code);
+        return code;
+    }
+
+    private void removeCode(int seat, int code) {
+        handSizes[seat]--;
+        int copies = --codeCounts[seat * CODES + code];
+        long key = HAND_KEYS[(seat * CODES + code) * MAX_COPIES + copies];
+        handHashes[seat] ^= key;
+        handsHash ^= key;
+        if (copies == 0) {
+            handMasks[seat] &= ~(1L << code);
+        }
+        colorCounts[seat * 5 + COLOR[code]]--;
+        if (completeGame) {
+            handPoints[seat] -= POINTS[code];
+        }
+    }
+
+    private void clearHand(int seat) {
+        for (long bits = handMasks[seat]; bits != 0; bits &= bits - 1) {
+            codeCounts[seat * CODES + Long.numberOfTrailingZeros(bits)] = 0;
+        }
+        for (int color = 0; color < 5; color++) {
+            colorCounts[seat * 5 + color] = 0;
+        }
+        handsHash ^= handHashes[seat];
+        handHashes[seat] = 0;
+        handSizes[seat] = 0;
+        handMasks[seat] = 0;
+        handPoints[seat] = 0;
+        saidUno[seat] = false;
+    }
+
+    // State of the current game or position
+    public int getRounds() { return roundNumber; }
+    public int getTurns() { return turns; }
+    public int getScore(int seat) { return scores[seat]; }
+    public int getHandSize(int player) { return handSizes[player]; }
+    public long getHandMask(int player) { return handMasks[player]; }
+    public int getCurrentPlayer() { return current; }
+    public int getTopCode() { return topCode(); }
+    public int getActiveColor() { return activeColor; }
+    public int getRoundWinner() { return roundWinner; }
+    public int getSeatCount() { return seatCount; }
+    public int getPlayerCount() { return orderCount; }
+    public int getDrawPileSize() { return drawCount; }
+
+    /**
+     * Points of a hand, counted from its code counts (search positions do not keep handPoints)
+     * @param player Position in turn order
+     */
+    public int countHandPoints(int player) {
+        int points = 0;
+        for (long bits = handMasks[player]; bits != 0; bits &= bits - 1) {
+            int code = Long.numberOfTrailingZeros(bits);
+            points += POINTS[code] * codeCounts[player * CODES + code];
+        }
+        return points;
+    }
+
+    /**
+     * Zobrist hash of the position: player to move, direction, top card and active
+     * color, every hand's cards (as a multiset) and the sizes of both piles
+     * The hands' part is kept up to date move by move, the rest are single keys.
+     * @return 64-bit hash, equal for equal positions
+     */
+    public long getHash() {
+        long hash = handsHash ^ CURRENT_KEYS[current] ^ DRAW_PILE_KEYS[drawCount] ^ DISCARD_PILE_KEYS[discardCount];
+        if (discardCount > 0) {
+            hash ^= TOP_KEYS[topCode() * 5 + activeColor];
+        }
+        return direction < 0 ? hash ^ REVERSED_KEY : hash;
+    }
+
+    /**
+     * Computes the hash of getHash() from scratch, to check the incremental one
+     */
+    public long computeHash() {
+        long hash = CURRENT_KEYS[current] ^ DRAW_PILE_KEYS[drawCount] ^ DISCARD_PILE_KEYS[discardCount];
+        if (discardCount > 0) {
+            hash ^= TOP_KEYS[topCode() * 5 + activeColor];
+        }
+        if (direction < 0) {
+            hash ^= REVERSED_KEY;
+        }
+        for (int seat = 0; seat < seatCount; seat++) {
+            for (int code = 0; code < CODES; code++) {
+                for (int k = 0; k < codeCounts[seat * CODES + code]; k++) {
+                    hash ^= HAND_KEYS[(seat * CODES + code) * MAX_COPIES + k];
+                }
+            }
+        }
+        return hash;
+    }
+}
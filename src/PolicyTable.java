@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * Tabular policy for the difficulty 5 bot, learned offline by PolicyTrainer
+ *
+ * A position is reduced to a few abstract features (see state()): how many cards
+ * of the active color and of the other colors the bot holds, its action and wild
+ * cards, the top card's type and the hand sizes of the opponents. For each of the
+ * STATE_COUNT combinations the table holds the class of card to play (see actionOf()),
+ * or NO_ACTION where training saw too few games.
+ *
+ * File format (big-endian): magic "UNOP", version, state count and action count
+ * as ints, followed by one action byte per state. load() memory-maps the file
+ * read-only: nothing is parsed or copied onto the heap, a lookup is one byte read
+ * from the mapping. Lookups are thread-safe, the mapping is shared by all bots.
+ */
+public class PolicyTable {
+    public static final String DEFAULT_FILE = "uno_policy.bin";
+
+    private static final int MAGIC = 0x554E4F50; // "UNOP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    // Action classes: what kind of card to play
+    public static final int NUMBER_SAME_COLOR = 0;  // A number card of the active color
+    public static final int NUMBER_NEW_COLOR = 1;   // A number card of another color (matching the number)
+    public static final int SKIP = 2;
+    public static final int REVERSE = 3;
+    public static final int DRAW_TWO = 4;
+    public static final int WILD = 5;
+    public static final int WILD_DRAW_FOUR = 6;
+    public static final int ACTION_COUNT = 7;
+    public static final int NO_ACTION = 0xFF;
+
+    // Features and the number of values of each, state() packs them into one index
+    private static final int ACTIVE_COLOR_VALUES = 4;  // Cards of the active color: 0, 1, 2, 3+
+    private static final int OTHER_COLOR_VALUES = 4;   // Most cards of one other color: 0, 1, 2, 3+
+    private static final int COLORS_HELD_VALUES = 4;   // Other colors held: 0-3
+    private static final int ACTION_CARD_VALUES = 3;   // SKIP, REVERSE and DRAW TWO cards: 0, 1, 2+
+    private static final int WILD_VALUES = 2;          // Wild cards: none, some
+    private static final int TOP_VALUES = 5;           // Top card: number, SKIP, REVERSE, DRAW TWO, wild
+    private static final int NEXT_HAND_VALUES = 5;     // Cards of the next player: 1, 2, 3, 4-5, 6+
+    private static final int FEWEST_VALUES = 3;        // Fewest cards of any opponent: 1, 2, 3+
+    public static final int STATE_COUNT = ACTIVE_COLOR_VALUES * OTHER_COLOR_VALUES * COLORS_HELD_VALUES
+            * ACTION_CARD_VALUES * WILD_VALUES * TOP_VALUES * NEXT_HAND_VALUES * FEWEST_VALUES;
+
+    private static final CardColor[] COLORS = {CardColor.RED, CardColor.YELLOW, CardColor.GREEN, CardColor.BLUE};
+
+    // The default table, mapped on first use (null if there is no usable file, ERROR then says why)
+    private static class DefaultHolder {
+        static String ERROR;
+        static final PolicyTable TABLE = loadOrNull(Paths.get(DEFAULT_FILE).toAbsolutePath());
+    }
+
+    private final ByteBuffer actions; // Header and one byte per state, mapped or (while training) on the heap
+
+    private PolicyTable(ByteBuffer actions) {
+        this.actions = actions;
+    }
+
+    /**
+     * Memory-maps a policy file
+     * @param file The file written by write()
+     * @return The table
+     * @throws IOException If the file cannot be mapped or is not a policy table of this version
+     */
+    public static PolicyTable load(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays valid after closing
+        }
+        if (buffer.capacity() != HEADER_BYTES + STATE_COUNT
+                || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != STATE_COUNT || buffer.getInt(12) != ACTION_COUNT) {
+            throw new IOException(file + " is not a policy table of version " + VERSION);
+        }
+        return new PolicyTable(buffer);
+    }
+
+    /**
+     * DEFAULT_FILE is looked up in the working directory, PolicyTrainer writes it there
+     * @return The table in DEFAULT_FILE, mapped once for all bots, or null if there is none
+     */
+    public static PolicyTable getDefault() {
+        return DefaultHolder.TABLE;
+    }
+
+    /**
+     * @return Why getDefault() returns null, or null if the default table was loaded
+     */
+    public static String getDefaultError() {
+        return DefaultHolder.TABLE == null ? DefaultHolder.ERROR : null;
+    }
+
+    private static PolicyTable loadOrNull(Path file) {
+        if (!Files.exists(file)) {
+            DefaultHolder.ERROR = "No policy table at " + file + " (run PolicyTrainer to create it)";
+            return null;
+        }
+        try {
+            return load(file);
+        } catch (IOException e) {
+            DefaultHolder.ERROR = e.getMessage();
+            return null; // Difficulty 5 bots play like difficulty 3 without a table
+        }
+    }
+
+    /**
+     * Creates a table on the heap, used while training
+     * @param stateActions Action per state (NO_ACTION for unknown states)
+     */
+    public static PolicyTable of(byte[] stateActions) {
+        return new PolicyTable(toBuffer(stateActions));
+    }
+
+    /**
+     * Writes a policy file
+     * @param file Target file, replaced if it exists
+     * @param stateActions Action per state (NO_ACTION for unknown states)
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Path file, byte[] stateActions) throws IOException {
+        ByteBuffer buffer = toBuffer(stateActions);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static ByteBuffer toBuffer(byte[] stateActions) {
+        if (stateActions.length != STATE_COUNT) {
+            throw new IllegalArgumentException("Expected " + STATE_COUNT + " states, got " + stateActions.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + STATE_COUNT);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(STATE_COUNT).putInt(ACTION_COUNT).put(stateActions);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Looks up the action of a state
+     * @param state Index from state()
+     * @return The action class, or NO_ACTION
+     */
+    public int getAction(int state) {
+        return actions.get(HEADER_BYTES + state) & 0xFF;
+    }
+
+    /**
+     * Reduces the position of the player to move to its state index
+     * Constant time: all features come from the counts the hand keeps (see Hand).
+     * @param self The player to move
+     * @param table The game as the player sees it
+     * @return Index between 0 and STATE_COUNT - 1
+     */
+    public static int state(Player self, TableView table) {
+        Deck deck = table.getDeck();
+        CardColor activeColor = deck.getActiveColor();
+        int activeCount = 0;
+        int otherMax = 0;
+        int colorsHeld = 0;
+        for (CardColor color : COLORS) {
+            int count = self.countColor(color);
+            if (color == activeColor) {
+                activeCount = count;
+            } else if (count > 0) {
+                colorsHeld++;
+                otherMax = Math.max(otherMax, count);
+            }
+        }
+        int actionCards = self.countType(CardType.SKIP) + self.countType(CardType.REVERSE)
+                + self.countType(CardType.DRAW_TWO);
+        int wilds = self.countType(CardType.WILD) + self.countType(CardType.WILD_DRAW_FOUR);
+
+        int topType = Card.fromCode(deck.getTopCode()).getType().ordinal();
+        int top = topType < CardType.DRAW_TWO.ordinal() ? 0
+                : topType == CardType.SKIP.ordinal() ? 1
+                : topType == CardType.REVERSE.ordinal() ? 2
+                : topType == CardType.DRAW_TWO.ordinal() ? 3 : 4;
+
+        int players = table.getPlayerCount();
+        int me = table.getCurrentPlayerIndex();
+        int nextHand = table.getPlayer(Math.floorMod(me + table.getDirection(), players)).getHandSize();
+        int fewest = Integer.MAX_VALUE;
+        for (int p = 0; p < players; p++) {
+            if (p != me) {
+                fewest = Math.min(fewest, table.getPlayer(p).getHandSize());
+            }
+        }
+
+        int state = Math.min(activeCount, ACTIVE_COLOR_VALUES - 1);
+        state = state * OTHER_COLOR_VALUES + Math.min(otherMax, OTHER_COLOR_VALUES - 1);
+        state = state * COLORS_HELD_VALUES + colorsHeld;
+        state = state * ACTION_CARD_VALUES + Math.min(actionCards, ACTION_CARD_VALUES - 1);
+        state = state * WILD_VALUES + Math.min(wilds, WILD_VALUES - 1);
+        state = state * TOP_VALUES + top;
+        state = state * NEXT_HAND_VALUES + (nextHand <= 3 ? Math.max(nextHand, 1) - 1 : nextHand <= 5 ? 3 : 4);
+        state = state * FEWEST_VALUES + Math.min(Math.max(fewest, 1), FEWEST_VALUES) - 1;
+        return state;
+    }
+
+    /**
+     * @param code Code of a card that can be played
+     * @param activeColor The color to match
+     * @return The action class of playing it
+     */
+    public static int actionOf(int code, CardColor activeColor) {
+        Card card = Card.fromCode(code);
+        switch (card.getType()) {
+            case SKIP: return SKIP;
+            case REVERSE: return REVERSE;
+            case DRAW_TWO: return DRAW_TWO;
+            case WILD: return WILD;
+            case WILD_DRAW_FOUR: return WILD_DRAW_FOUR;
+            default: return card.getColor() == activeColor ? NUMBER_SAME_COLOR : NUMBER_NEW_COLOR;
+        }
+    }
+}
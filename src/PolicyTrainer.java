@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Training mode: learns the policy table of the difficulty 5 bot by self-play on all CPU cores
+ *
+ * Training runs in iterations. In each, difficulty 5 bots play each other with
+ * the table of the previous iteration, and with probability EXPLORATION a bot
+ * plays a random kind of card instead (always in the first iteration, when there
+ * is no table yet). Every decision is recorded as a (state, action) pair of
+ * PolicyTable; when the round ends it counts as won for the winner's decisions
+ * and as lost for everybody else's. The next table takes in every state the
+ * action with the best win rate among those tried at least MIN_VISITS times.
+ *
+ * Decisions and round ends are observed through a GameEventListener, so the
+ * games are played by the same GameEngine and BotPlayer code as in Tournament.
+ * Every worker counts into its own arrays, which are added up when the fork/join
+ * tasks are joined; game i of an iteration is seeded like game i of a tournament.
+ *
+ * Usage: java PolicyTrainer [games per iteration] [iterations] [players] [threads] [seed] [file]
+ */
+public class PolicyTrainer {
+    private static final long DEFAULT_GAMES = 20_000;
+    private static final int DEFAULT_ITERATIONS = 4;
+    private static final int DEFAULT_PLAYERS = 4;
+    private static final double EXPLORATION = 0.2;
+    private static final int MIN_VISITS = 30;       // Fewer tries of an action do not count
+    private static final int MIN_BATCH_SIZE = 256;  // Games played by one task without further splitting
+    private static final int MAX_DECISIONS = 4096;  // Recorded per player and round, later ones are ignored
+    private static final int PAIRS = PolicyTable.STATE_COUNT * PolicyTable.ACTION_COUNT;
+
+    private final long games;
+    private final int[] lineup;     // Difficulty 5 on every seat
+    private final int parallelism;
+    private final long seed;
+    private final long batchSize;
+
+    /**
+     * @param games Games per iteration
+     * @param players Bots per game
+     * @param parallelism Number of worker threads
+     * @param seed Seed of the whole training
+     */
+    public PolicyTrainer(long games, int players, int parallelism, long seed) {
+        if (games <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Games and parallelism must be positive");
+        }
+        this.lineup = new int[players];
+        Arrays.fill(lineup, 5);
+        new GameEngine.GameConfig(lineup); // Validates the player count
+        this.games = games;
+        this.parallelism = parallelism;
+        this.seed = seed;
+        // Every task counts into arrays of PAIRS ints: a few tasks per thread are enough
+        this.batchSize = Math.max(MIN_BATCH_SIZE, games / (parallelism * 4L));
+    }
+
+    /**
+     * Plays one iteration of self-play
+     * @param policy Table of the previous iteration, or null to explore only
+     * @param iteration Number of the iteration, part of the game seeds
+     * @return Visits and wins of every (state, action) pair
+     */
+    public Counts playIteration(PolicyTable policy, int iteration) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new GameBatch(policy, GameEngine.gameSeed(seed, iteration), 0, games));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Fork/join task that splits the game range until it is small enough to play locally
+     */
+    @SuppressWarnings("serial") // Never serialized
+    private class GameBatch extends RecursiveTask<Counts> {
+        private final PolicyTable policy;
+        private final long iterationSeed;
+        private final long from;
+        private final long to;
+
+        GameBatch(PolicyTable policy, long iterationSeed, long from, long to) {
+            this.policy = policy;
+            this.iterationSeed = iterationSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from <= batchSize) {
+                Counts counts = new Counts();
+                Recorder recorder = new Recorder(counts, lineup.length);
+                GameEngine engine = new GameEngine(new GameEngine.GameConfig(lineup, iterationSeed), recorder);
+                recorder.setEngine(engine);
+                for (int seat = 0; seat < lineup.length; seat++) {
+                    engine.getBot(seat).setPolicy(policy, policy == null ? 1 : EXPLORATION);
+                }
+                for (long i = from; i < to; i++) {
+                    engine.playGame(GameEngine.gameSeed(iterationSeed, i));
+                    counts.games++;
+                }
+                return counts;
+            }
+            long middle = (from + to) >>> 1;
+            GameBatch left = new GameBatch(policy, iterationSeed, from, middle);
+            left.fork();
+            Counts right = new GameBatch(policy, iterationSeed, middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    /**
+     * Records the decisions of every player during a round and credits them when it ends
+     * A decision is a turn that starts with a playable card; a card played after
+     * drawing was not chosen and is not recorded.
+     */
+    private static class Recorder implements GameEventListener {
+        private final Counts counts;
+        private GameEngine engine;
+        private final int[][] decisions;    // Per seat: state * ACTION_COUNT + action
+        private final int[] decisionCounts;
+        private int pendingSeat = -1;       // Seat whose turn started, until it plays or draws
+        private int pendingState;
+        private CardColor pendingColor;     // Active color at the start of the turn
+
+        Recorder(Counts counts, int seats) {
+            this.counts = counts;
+            this.decisions = new int[seats][MAX_DECISIONS];
+            this.decisionCounts = new int[seats];
+        }
+
+        void setEngine(GameEngine engine) {
+            this.engine = engine;
+        }
+
+        private int seatOf(Player player) {
+            for (int seat = 0; seat < engine.getSeatCount(); seat++) {
+                if (engine.getBot(seat) == player) {
+                    return seat;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public void startingPlayer(Player player) {
+            Arrays.fill(decisionCounts, 0); // A new round starts
+            pendingSeat = -1;
+        }
+
+        @Override
+        public void turnStarted(Player player) {
+            pendingSeat = seatOf(player);
+            pendingState = PolicyTable.state(player, engine);
+            pendingColor = engine.getDeck().getActiveColor();
+        }
+
+        @Override
+        public void cardDrawn(Player player, Card card) {
+            pendingSeat = -1;
+        }
+
+        @Override
+        public void cardPlayed(Player player, Card card) {
+            if (pendingSeat >= 0 && decisionCounts[pendingSeat] < MAX_DECISIONS) {
+                decisions[pendingSeat][decisionCounts[pendingSeat]++] =
+                        pendingState * PolicyTable.ACTION_COUNT + PolicyTable.actionOf(card.getCode(), pendingColor);
+            }
+            pendingSeat = -1;
+        }
+
+        @Override
+        public void roundWon(Player winner) {
+            int winnerSeat = seatOf(winner);
+            for (int seat = 0; seat < decisions.length; seat++) {
+                for (int i = 0; i < decisionCounts[seat]; i++) {
+                    int pair = decisions[seat][i];
+                    counts.visits[pair]++;
+                    if (seat == winnerSeat) {
+                        counts.wins[pair]++;
+                    }
+                }
+            }
+            counts.rounds++;
+            Arrays.fill(decisionCounts, 0);
+        }
+    }
+
+    /**
+     * Visits and wins of every (state, action) pair, indexed state * ACTION_COUNT + action
+     */
+    public static class Counts {
+        public long games;
+        public long rounds;
+        public final int[] visits = new int[PAIRS];
+        public final int[] wins = new int[PAIRS];
+
+        Counts merge(Counts other) {
+            games += other.games;
+            rounds += other.rounds;
+            for (int i = 0; i < PAIRS; i++) {
+                visits[i] += other.visits[i];
+                wins[i] += other.wins[i];
+            }
+            return this;
+        }
+
+        /**
+         * @return Per state the action with the best win rate, or NO_ACTION if no action was tried often enough
+         */
+        public byte[] bestActions() {
+            byte[] actions = new byte[PolicyTable.STATE_COUNT];
+            for (int state = 0; state < actions.length; state++) {
+                int best = PolicyTable.NO_ACTION;
+                double bestRate = -1;
+                for (int action = 0; action < PolicyTable.ACTION_COUNT; action++) {
+                    int pair = state * PolicyTable.ACTION_COUNT + action;
+                    if (visits[pair] >= MIN_VISITS && (double) wins[pair] / visits[pair] > bestRate) {
+                        bestRate = (double) wins[pair] / visits[pair];
+                        best = action;
+                    }
+                }
+                actions[state] = (byte) best;
+            }
+            return actions;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_GAMES;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PLAYERS;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        Path file = Paths.get(args.length > 5 ? args[5] : PolicyTable.DEFAULT_FILE);
+
+        System.out.println("Training on " + iterations + " x " + games + " games of " + players
+                + " players on " + threads + " threads (seed " + seed + ")...");
+        PolicyTrainer trainer = new PolicyTrainer(games, players, threads, seed);
+        PolicyTable policy = null;
+        byte[] actions = null;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            long start = System.nanoTime();
+            Counts counts = trainer.playIteration(policy, iteration);
+            actions = counts.bestActions();
+            policy = PolicyTable.of(actions);
+
+            int known = 0;
+            for (byte action : actions) {
+                if ((action & 0xFF) != PolicyTable.NO_ACTION) known++;
+            }
+            System.out.printf("Iteration %d: %d games, %d rounds, %.0f games/sec, %d of %d states learned\n",
+                    iteration + 1, counts.games, counts.rounds, counts.games * 1e9 / (System.nanoTime() - start),
+                    known, PolicyTable.STATE_COUNT);
+        }
+        if (actions != null) {
+            PolicyTable.write(file, actions);
+            System.out.println("Policy written to " + file.toAbsolutePath());
+        }
+    }
+}
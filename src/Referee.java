@@ -1,18 +1,33 @@
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Enforces game rules, handles penalties, and manages scoring
  * Acts as the rule enforcer and game state validator
  */
 public class Referee {
+    // Moves of legalMoves(), the one move encoding of all bots, searches and UIs:
+    // 0-51 the colored card with that code, then WILD and WILD DRAW FOUR with each color, then drawing
+    public static final int WILD_MOVES = Card.WILD_CODE;              // 52-55: WILD + color
+    public static final int WILD_DRAW_FOUR_MOVES = WILD_MOVES + 4;     // 56-59: WILD DRAW FOUR + color
+    public static final int DRAW_MOVE = WILD_DRAW_FOUR_MOVES + 4;      // 60
+    public static final int MOVE_COUNT = DRAW_MOVE + 1;                // Most moves of a position, size of a move buffer
+
     private List<Player> players;
     private Deck deck;
     private Scanner scanner;
+    private RandomGenerator random;
+    private GameEventListener events; // Receives the referee's decisions
 
-    public Referee(List<Player> players, Deck deck) {
+    public Referee(List<Player> players, Deck deck, RandomGenerator random, GameEventListener events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Event listener cannot be null");
+        }
         this.players = players;
         this.deck = deck;
         this.scanner = new Scanner(System.in);
+        this.random = random;
+        this.events = events;
     }
 
     /**
@@ -24,8 +39,8 @@ public class Referee {
      */
     public boolean validateCardPlay(Card card, Card topCard, Player player) {
         // Basic rule check - can the card be played on the top card?
-        if (!card.canPlayOn(topCard)) {
-            System.out.println("Invalid card! " + card + " cannot be played on " + topCard + ".");
+        if (!isLegalPlay(card.getCode(), topCard.getCode(), deck.getActiveColor().ordinal())) {
+            events.invalidPlay(player, card, topCard);
             penalizeFalseCardPlay(player);
             return false;
         }
@@ -38,6 +53,92 @@ public class Referee {
         return true;
     }
 
+    /**
+     * The matching rule for a card play, shared by validateCardPlay() and the search bots
+     * @param code Code of the card to play
+     * @param topCode Code of the card on top of the discard pile
+     * @param activeColor Ordinal of the color to match
+     * @return true if the card may be played
+     */
+    public static boolean isLegalPlay(int code, int topCode, int activeColor) {
+        return LegalityTable.canPlay(code, topCode, activeColor);
+    }
+
+    /**
+     * All legal card plays of a hand at once
+     * @param handMask Code mask of the hand (see Hand.getMask())
+     * @param topCode Code of the card on top of the discard pile
+     * @param activeColor Ordinal of the color to match
+     * @return Bit n is set if the hand holds card code n and may play it
+     */
+    public static long legalPlays(long handMask, int topCode, int activeColor) {
+        return handMask & LegalityTable.playableMask(topCode, activeColor);
+    }
+
+    /**
+     * All legal moves of a hand, the move generator of the bots, the searches and the UI:
+     * every card code that may be played, in code order, and drawing only if none may
+     * (the bots' rule; Player.legalMoves() adds drawing for humans, who may always draw)
+     * Legality is that of validateCardPlay(), through legalPlays().
+     * @param handMask Code mask of the hand (see Hand.getMask())
+     * @param topCode Code of the card on top of the discard pile
+     * @param activeColor Ordinal of the color to match
+     * @param wildColors true to write a wild card once per color, false to write it once
+     *                   (as its move with the first color) for players who choose the color later
+     * @param moves Buffer of at least offset + MOVE_COUNT moves
+     * @param offset Index of the first move in moves
+     * @return Number of moves written, at least 1
+     */
+    public static int legalMoves(long handMask, int topCode, int activeColor, boolean wildColors,
+                                 int[] moves, int offset) {
+        long playable = legalPlays(handMask, topCode, activeColor);
+        if (playable == 0) {
+            moves[offset] = DRAW_MOVE;
+            return 1;
+        }
+        int count = offset;
+        while (playable != 0) {
+            int code = Long.numberOfTrailingZeros(playable);
+            playable &= playable - 1;
+            if (code < Card.WILD_CODE) {
+                moves[count++] = code;
+            } else {
+                int base = code == Card.WILD_CODE ? WILD_MOVES : WILD_DRAW_FOUR_MOVES;
+                for (int c = 0, colors = wildColors ? 4 : 1; c < colors; c++) {
+                    moves[count++] = base + c;
+                }
+            }
+        }
+        return count - offset;
+    }
+
+    /**
+     * @param code Code of the card to play
+     * @param color Color chosen for a wild card, ignored for other cards
+     * @return The move, as written by legalMoves()
+     */
+    public static int encodeMove(int code, CardColor color) {
+        if (code < Card.WILD_CODE) return code;
+        return (code == Card.WILD_CODE ? WILD_MOVES : WILD_DRAW_FOUR_MOVES) + color.ordinal();
+    }
+
+    /**
+     * @param move A move other than DRAW_MOVE
+     * @return Code of the card it plays
+     */
+    public static int moveCode(int move) {
+        if (move < WILD_MOVES) return move;
+        return move < WILD_DRAW_FOUR_MOVES ? Card.WILD_CODE : Card.WILD_DRAW_FOUR_CODE;
+    }
+
+    /**
+     * @param move A move that plays a wild card
+     * @return Ordinal of the chosen color
+     */
+    public static int moveColor(int move) {
+        return (move - WILD_MOVES) & 3;
+    }
+
     /**
      * Validates Wild Draw Four card play - can only be played if no matching color cards
      * @param card The Wild Draw Four card
@@ -47,17 +148,10 @@ public class Referee {
      */
     private boolean validateWildDrawFour(Card card, Card topCard, Player player) {
         // Check if player has any cards matching the current color
-        boolean hasMatchingColor = false;
-
-        for (Card handCard : player.getHand()) {
-            // Player can play Wild Draw Four if they don't have matching color
-            // But they CAN have matching numbers or other action cards
-            if (handCard.getColor() == topCard.getColor() &&
-                    handCard != card) { // Don't count the Wild Draw Four itself
-                hasMatchingColor = true;
-                break;
-            }
-        }
+        // Player can play Wild Draw Four if they don't have matching color
+        // But they CAN have matching numbers or other action cards
+        // (the Wild Draw Four itself is BLACK, so it is never counted)
+        boolean hasMatchingColor = player.countColor(deck.getActiveColor()) > 0;
 
         if (hasMatchingColor) {
             // This is potentially a bluff - store this information
@@ -71,23 +165,15 @@ public class Referee {
      * Handles challenge of Wild Draw Four card
      * @param challenger The player challenging
      * @param challengedPlayer The player who played Wild Draw Four
-     * @param topCard The card that was on top before Wild Draw Four
+     * @param previousColor The active color before the Wild Draw Four was played
      */
     // challenges or doubts?! Both fit
-    public void handleWildDrawFourChallenge(Player challenger, Player challengedPlayer, Card topCard) {
-        System.out.println(challenger.getName() + " challenges " + challengedPlayer.getName() + " !");
-
+    public void handleWildDrawFourChallenge(Player challenger, Player challengedPlayer, CardColor previousColor) {
         // Check if the challenged player was bluffing
-        boolean wasBluffing = false;
-        for (Card card : challengedPlayer.getHand()) {
-            if (card.getColor() == topCard.getColor()) {
-                wasBluffing = true;
-                break;
-            }
-        }
+        boolean wasBluffing = challengedPlayer.countColor(previousColor) > 0;
+        events.challenged(challenger, challengedPlayer, wasBluffing);
 
         if (wasBluffing) {
-            System.out.println(challengedPlayer.getName() + " was bluffing!");
             // Challenged player draws 4 cards instead of challenger
             for (int i = 0; i < 4; i++) {
                 Card drawnCard = deck.drawCard();
@@ -97,7 +183,6 @@ public class Referee {
             }
             challengedPlayer.addPenalty();
         } else {
-            System.out.println(challengedPlayer.getName() + " was not bluffing!");
             // Challenger draws 6 cards (4 + 2 penalty)
             for (int i = 0; i < 6; i++) {
                 Card drawnCard = deck.drawCard();
@@ -116,15 +201,12 @@ public class Referee {
      */
     public boolean checkUnoViolation(Player player) {
         if (player.getHandSize() == 1 && !player.hasSaidUno()) {
-            System.out.println(player.getName() + " forgot to call UNO!");
+            events.unoForgotten(player);
 
             // Give other players a chance to catch this
-            System.out.println("Did anyone notice that " + player.getName() + " forgot to call UNO?");
-            System.out.println("Press 'y' if yes, any other key if no.");
-
             // In a real game, other players would notice
             // For simulation, we'll have a random chance
-            if (Math.random() < 0.7) { // 70% chance someone notices
+            if (random.nextDouble() < 0.7) { // 70% chance someone notices
                 penalizeUnoViolation(player);
                 return true;
             }
@@ -136,7 +218,7 @@ public class Referee {
      * Applies penalty for UNO violation
      */
     private void penalizeUnoViolation(Player player) {
-        System.out.println(player.getName() + " must draw 2 penalty cards!");
+        events.penaltyCards(player, 2);
         for (int i = 0; i < 2; i++) {
             Card card = deck.drawCard();
             if (card != null) {
@@ -150,7 +232,7 @@ public class Referee {
      * Applies penalty for playing wrong card
      */
     private void penalizeFalseCardPlay(Player player) {
-        System.out.println(player.getName() + " must draw 1 penalty card!");
+        events.penaltyCards(player, 1);
         Card card = deck.drawCard();
         if (card != null) {
             player.addCard(card);
@@ -162,7 +244,8 @@ public class Referee {
      * Applies penalty for playing out of turn
      */
     public void penalizeOutOfTurn(Player player) {
-        System.out.println(player.getName() + " played out of turn! 1 penalty card for " + player.getName() + " !");
+        events.playedOutOfTurn(player);
+        events.penaltyCards(player, 1);
         Card card = deck.drawCard();
         if (card != null) {
             player.addCard(card);
@@ -177,21 +260,19 @@ public class Referee {
     public void calculateRoundScore(Player winner) {
         int totalPoints = 0;
 
-        System.out.println("\n=== ROUND RESULT ===");
-        System.out.println(winner.getName() + " has won the round!!");
+        events.roundWon(winner);
 
         // Calculate points from all other players' hands
         for (Player player : players) {
             if (player != winner) {
                 int handPoints = player.calculateHandPoints();
                 totalPoints += handPoints;
-                System.out.println(player.getName() + " has " + handPoints + " points left in hand..");
+                events.handScored(player, handPoints);
             }
         }
 
         winner.addScore(totalPoints);
-        System.out.println(winner.getName() + " receives " + totalPoints + " points!");
-        System.out.println("Total score for " + winner.getName() + ": " + winner.getTotalScore());
+        events.roundScored(winner, totalPoints);
     }
 
     /**
@@ -216,7 +297,7 @@ public class Referee {
         for (Player player : players) {
             if (player.shouldBeDisqualified()) {
                 disqualified.add(player);
-                System.out.println(player.getName() + " is disqualified due to too many penalties!");
+                events.disqualified(player);
             }
         }
         return disqualified;
@@ -226,14 +307,7 @@ public class Referee {
      * Displays current scores of all players
      */
     public void displayScores() {
-        System.out.println("\n=== CURRENT SCORES ===");
-        // Sort players by score for better display
-        List<Player> sortedPlayers = new ArrayList<>(players);
-        sortedPlayers.sort((p1, p2) -> Integer.compare(p2.getTotalScore(), p1.getTotalScore()));
-
-        for (Player player : sortedPlayers) {
-            System.out.printf("%s: %d points\n", player.getName(), player.getTotalScore());
-        }
+        events.standings(players);
     }
 
     /**
@@ -249,7 +323,7 @@ public class Referee {
                 // Next player draws 2 cards and loses turn
                 int nextPlayer = getNextPlayerIndex(currentPlayerIndex, direction);
                 Player victim = players.get(nextPlayer);
-                System.out.println(victim.getName() + " must draw 2 cards and skip their turn!");
+                events.mustDraw(victim, 2);
 
                 for (int i = 0; i < 2; i++) {
                     Card drawnCard = deck.drawCard();
@@ -261,20 +335,20 @@ public class Referee {
 
             case REVERSE:
                 direction *= -1; // Reverse direction
-                System.out.println("Play direction is reversed!");
+                events.directionChanged(direction);
                 break;
 
             case SKIP:
                 // Next player loses their turn
                 nextPlayer = getNextPlayerIndex(currentPlayerIndex, direction);
-                System.out.println(players.get(nextPlayer).getName() + " must skip their turn!");
+                events.playerSkipped(players.get(nextPlayer));
                 break;
 
             case WILD_DRAW_FOUR:
                 // Next player draws 4 cards and loses turn
                 nextPlayer = getNextPlayerIndex(currentPlayerIndex, direction);
                 victim = players.get(nextPlayer);
-                System.out.println(victim.getName() + " must draw 4 cards and skip their turn!");
+                events.mustDraw(victim, 4);
 
                 for (int i = 0; i < 4; i++) {
                     Card drawnCard = deck.drawCard();
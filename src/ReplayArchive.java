@@ -0,0 +1,534 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Many logged games in one file, with a sidecar index for random access
+ *
+ * The archive holds the GameLog records of one game after the other, each from
+ * the DEAL of round 1 to its GAME_END. The index ("archive.idx") has one fixed
+ * size entry per game, so game N is found at HEADER_SIZE + N * ENTRY_SIZE:
+ *
+ *   offset (8 bytes)    where the game starts in the archive
+ *   session (8 bytes)   the session the game was played in
+ *   length (4 bytes)    bytes of the game
+ *   players (2 bytes)   players dealt in round 1
+ *   rounds (2 bytes)    rounds played
+ *
+ * Sessions are appended in ascending order, so the games of a session are one
+ * range of game numbers, found by binary search in the index.
+ *
+ * Readers map both files read-only (FileChannel.map) and get every game as a
+ * slice of the mapping, without copying or scanning. A mapping holds at most
+ * 2 GB, so the archive is mapped in segments of SEGMENT_SIZE that overlap by
+ * MAPPED_OVERLAP; a game that does not fit into the segment it starts in is read
+ * from the channel instead. Reading is thread-safe.
+ *
+ * Writer appends to the archive first and to the index after that, so a game
+ * is only archived once its entry is complete; whatever an interrupted writer
+ * left beyond the last entry is cut off when the archive is opened again.
+ *
+ * Usage: java ReplayArchive record archive [games] [players] [difficulty] [threads] [seed] [session]
+ *        java ReplayArchive import archive log [session]
+ *        java ReplayArchive info archive [game]
+ *        java ReplayArchive session archive session
+ */
+public class ReplayArchive implements AutoCloseable {
+    static final long ARCHIVE_MAGIC = 0x554E4F4152433031L; // "UNOARC01"
+    static final long INDEX_MAGIC = 0x554E4F4944583031L;   // "UNOIDX01"
+    static final int HEADER_SIZE = 8;
+    static final int ENTRY_SIZE = 24;
+    private static final int OFFSET = 0;
+    private static final int SESSION = 8;
+    private static final int LENGTH = 16;
+    private static final int PLAYERS = 20;
+    private static final int ROUNDS = 22;
+    private static final int SEGMENT_SIZE = 1 << 30;
+    private static final int MAPPED_OVERLAP = 1 << 20;
+    private static final long DEFAULT_GAMES = 100_000;
+    private static final int CHUNK_GAMES = 4096;   // Games recorded in memory before they are appended
+    private static final int BATCH_SIZE = 256;     // Games recorded by one task without further splitting
+
+    private final FileChannel channel;
+    private final ByteBuffer index;
+    private final MappedByteBuffer[] segments;
+    private final int segmentSize;
+    private final long size;
+    private final long gameCount;
+
+    private ReplayArchive(Path file, int segmentSize, int overlap) throws IOException {
+        this.segmentSize = segmentSize;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            size = channel.size();
+            checkHeader(channel, ARCHIVE_MAGIC, file);
+            try (FileChannel indexChannel = FileChannel.open(indexFile(file), StandardOpenOption.READ)) {
+                checkHeader(indexChannel, INDEX_MAGIC, indexFile(file));
+                if (indexChannel.size() > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Index too large to map: " + indexChannel.size() + " bytes");
+                }
+                index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+            }
+            gameCount = (index.capacity() - HEADER_SIZE) / ENTRY_SIZE; // A torn last entry does not count
+            segments = new MappedByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i * segmentSize;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(size - start, (long) segmentSize + overlap));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an archive and its index for reading
+     * @param file The archive, the index is next to it
+     */
+    public static ReplayArchive open(Path file) throws IOException {
+        return new ReplayArchive(file, SEGMENT_SIZE, MAPPED_OVERLAP);
+    }
+
+    /**
+     * Opens an archive with smaller segments, to test games across segment borders
+     */
+    static ReplayArchive open(Path file, int segmentSize, int overlap) throws IOException {
+        return new ReplayArchive(file, segmentSize, overlap);
+    }
+
+    /**
+     * @return The index file of an archive
+     */
+    public static Path indexFile(Path archive) {
+        return archive.resolveSibling(archive.getFileName() + ".idx");
+    }
+
+    private static void checkHeader(FileChannel channel, long magic, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Reads until the header is complete or the file ends
+        }
+        if (header.hasRemaining() || header.getLong(0) != magic) {
+            throw new IllegalStateException("Not a replay archive file: " + file);
+        }
+    }
+
+    /**
+     * @param game Number of the game, from 0
+     * @return The records of the game, from position 0 to the limit; a read-only
+     *         view of the mapping, valid until the archive is closed
+     */
+    public ByteBuffer getGame(long game) {
+        long offset = entry(game).getLong(entryIndex(game) + OFFSET);
+        int length = getLength(game);
+        if (offset < HEADER_SIZE || offset + length > size) {
+            throw new IllegalStateException("Game " + game + " lies outside the archive");
+        }
+        int segment = (int) (offset / segmentSize);
+        int start = (int) (offset - (long) segment * segmentSize);
+        if (start + length <= segments[segment].capacity()) {
+            return segments[segment].slice(start, length);
+        }
+        ByteBuffer copy = ByteBuffer.allocate(length); // Reaches beyond the overlap of its segment
+        try {
+            while (copy.hasRemaining()) {
+                if (channel.read(copy, offset + copy.position()) < 0) {
+                    throw new IllegalStateException("Game " + game + " ends after the archive");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read game " + game, e);
+        }
+        return copy.flip().asReadOnlyBuffer();
+    }
+
+    public long getSession(long game) { return entry(game).getLong(entryIndex(game) + SESSION); }
+    public int getLength(long game) { return entry(game).getInt(entryIndex(game) + LENGTH); }
+    public int getPlayerCount(long game) { return entry(game).getShort(entryIndex(game) + PLAYERS); }
+    public int getRoundCount(long game) { return entry(game).getShort(entryIndex(game) + ROUNDS); }
+
+    /**
+     * @return Number of the first game of a session, or of the first later one if it has no games
+     */
+    public long firstGameOf(long session) {
+        return search(session, false);
+    }
+
+    /**
+     * @return Number after the last game of a session; its games are firstGameOf() up to here
+     */
+    public long endGameOf(long session) {
+        return search(session, true);
+    }
+
+    /**
+     * Binary search in the index, whose sessions ascend
+     * @param after false for the first game with a session >= session, true for > session
+     */
+    private long search(long session, boolean after) {
+        long low = 0;
+        long high = gameCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            long found = getSession(middle);
+            if (found < session || after && found == session) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private ByteBuffer entry(long game) {
+        if (game < 0 || game >= gameCount) {
+            throw new IndexOutOfBoundsException("Invalid game: " + game + " of " + gameCount);
+        }
+        return index;
+    }
+
+    private static int entryIndex(long game) {
+        return (int) (HEADER_SIZE + game * ENTRY_SIZE);
+    }
+
+    public long getGameCount() { return gameCount; }
+    public long getSize() { return size; }
+
+    /**
+     * Closes the channel; the mappings are released when they are no longer used
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Appends games to an archive and its index, creating them if needed
+     * Not thread-safe: use one writer per archive.
+     */
+    public static class Writer implements AutoCloseable {
+        private static final int BUFFERED_ENTRIES = 4096;
+
+        private final FileChannel archive;
+        private final FileChannel index;
+        private final ByteBuffer entries = ByteBuffer.allocate(BUFFERED_ENTRIES * ENTRY_SIZE);
+        private long archiveSize;
+        private long indexSize;
+        private long lastSession = Long.MIN_VALUE;
+        private long gameCount;
+
+        /**
+         * Opens an archive for appending and cuts off what an interrupted writer left behind
+         * @param file The archive, the index is next to it
+         */
+        public Writer(Path file) throws IOException {
+            archive = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                index = FileChannel.open(indexFile(file), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                archive.close();
+                throw e;
+            }
+            try {
+                archiveSize = start(archive, ARCHIVE_MAGIC, file);
+                indexSize = start(index, INDEX_MAGIC, indexFile(file));
+                indexSize -= (indexSize - HEADER_SIZE) % ENTRY_SIZE; // A torn last entry
+                gameCount = (indexSize - HEADER_SIZE) / ENTRY_SIZE;
+                long end = HEADER_SIZE;
+                if (gameCount > 0) {
+                    ByteBuffer last = ByteBuffer.allocate(ENTRY_SIZE);
+                    while (last.hasRemaining() && index.read(last, indexSize - ENTRY_SIZE + last.position()) > 0) {
+                        // Reads the whole entry
+                    }
+                    end = last.getLong(OFFSET) + last.getInt(LENGTH);
+                    lastSession = last.getLong(SESSION);
+                    if (end > archiveSize) {
+                        throw new IllegalStateException("The index refers to more than the archive holds: " + file);
+                    }
+                }
+                archive.truncate(end);
+                index.truncate(indexSize);
+                archiveSize = end;
+            } catch (IOException | RuntimeException e) {
+                archive.close();
+                index.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Writes the header to an empty file, or checks it
+         * @return Size of the file
+         */
+        private static long start(FileChannel channel, long magic, Path file) throws IOException {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putLong(0, magic);
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                return HEADER_SIZE;
+            }
+            checkHeader(channel, magic, file);
+            return channel.size();
+        }
+
+        /**
+         * Appends every complete game of a log, from a DEAL of round 1 to its GAME_END
+         * Records before the first such DEAL and an unfinished last game are skipped.
+         * @param session Session of the games, not lower than the session of the games before
+         * @param log Records of a GameLog, from the buffer's position to its limit; the position does not change
+         * @return Number of games appended
+         */
+        public int append(long session, ByteBuffer log) throws IOException {
+            if (session < lastSession) {
+                throw new IllegalArgumentException("Session " + session + " after session " + lastSession
+                        + ", sessions must be appended in ascending order");
+            }
+            GameLog.Reader scanner = new GameLog.Reader(log.duplicate());
+            int games = 0;
+            int start = -1;
+            int players = 0;
+            int rounds = 0;
+            while (true) {
+                int position = scanner.getPosition();
+                int type;
+                try {
+                    type = scanner.skip();
+                } catch (BufferUnderflowException e) {
+                    break; // The log ends inside a record, written by an interrupted game
+                }
+                if (type == GameLog.END_OF_LOG) {
+                    break;
+                }
+                if (type == GameLog.DEAL) {
+                    rounds = scanner.getRoundNumber();
+                    if (rounds == 1) {
+                        start = position;
+                        players = scanner.getDealtPlayerCount();
+                    }
+                } else if (type == GameLog.GAME_END && start >= 0) {
+                    appendGame(session, log.duplicate().limit(scanner.getPosition()).position(start), players, rounds);
+                    games++;
+                    start = -1;
+                }
+            }
+            lastSession = session;
+            return games;
+        }
+
+        private void appendGame(long session, ByteBuffer game, int players, int rounds) throws IOException {
+            int length = game.remaining();
+            while (game.hasRemaining()) {
+                archive.write(game, archiveSize + length - game.remaining());
+            }
+            if (!entries.hasRemaining()) {
+                flush();
+            }
+            entries.putLong(archiveSize).putLong(session).putInt(length)
+                    .putShort((short) players).putShort((short) Math.min(rounds, Short.MAX_VALUE));
+            archiveSize += length;
+            gameCount++;
+        }
+
+        /**
+         * Forces the appended games to disk, then writes and forces their index entries
+         */
+        public void flush() throws IOException {
+            if (entries.position() == 0) {
+                return;
+            }
+            archive.force(false);
+            entries.flip();
+            while (entries.hasRemaining()) {
+                indexSize += index.write(entries, indexSize);
+            }
+            entries.clear();
+            index.force(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                archive.close();
+                index.close();
+            }
+        }
+
+        public long getGameCount() { return gameCount; }
+
+        /**
+         * @return Session of the last game, Long.MIN_VALUE if the archive is empty
+         */
+        public long getLastSession() { return lastSession; }
+    }
+
+    /**
+     * Fork/join task that records a range of games into one in-memory log, in game order
+     */
+    @SuppressWarnings("serial") // Never serialized
+    private static class RecordBatch extends RecursiveTask<byte[]> {
+        private final int[] lineup;
+        private final long seed;
+        private final long from;
+        private final long to;
+
+        RecordBatch(int[] lineup, long seed, long from, long to) {
+            this.lineup = lineup;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected byte[] compute() {
+            if (to - from <= BATCH_SIZE) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                GameLog log = new GameLog(Channels.newChannel(out), 0, GameEventListener.NONE);
+                GameEngine engine = new GameEngine(new GameEngine.GameConfig(lineup, GameEngine.WINNING_SCORE, seed), log);
+                for (long i = from; i < to; i++) {
+                    engine.playGame(GameEngine.gameSeed(seed, i));
+                }
+                log.flush();
+                return out.toByteArray();
+            }
+            long middle = (from + to) >>> 1;
+            RecordBatch left = new RecordBatch(lineup, seed, from, middle);
+            left.fork();
+            byte[] right = new RecordBatch(lineup, seed, middle, to).compute();
+            byte[] first = left.join();
+            byte[] both = Arrays.copyOf(first, first.length + right.length);
+            System.arraycopy(right, 0, both, first.length, right.length);
+            return both;
+        }
+    }
+
+    /**
+     * Plays bot games on all cores and appends them as one session
+     * Game i is seeded with GameEngine.gameSeed(seed, i), so the archive gets the
+     * same games on any number of threads.
+     * @return Number of games appended
+     */
+    public static long record(Writer writer, long session, int[] lineup, long games, int parallelism, long seed)
+            throws IOException {
+        new GameEngine.GameConfig(lineup); // Validates the lineup
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long appended = 0;
+            for (long from = 0; from < games; from += CHUNK_GAMES) {
+                byte[] chunk = pool.invoke(new RecordBatch(lineup, seed, from, Math.min(from + CHUNK_GAMES, games)));
+                appended += writer.append(session, ByteBuffer.wrap(chunk));
+            }
+            return appended;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void printGame(ReplayArchive archive, long game) {
+        System.out.printf("Game %d: session %d, %d players, %d rounds, %d bytes\n", game, archive.getSession(game),
+                archive.getPlayerCount(game), archive.getRoundCount(game), archive.getLength(game));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java ReplayArchive record archive [games] [players] [difficulty] [threads] [seed] [session]");
+            System.out.println("       java ReplayArchive import archive log [session]");
+            System.out.println("       java ReplayArchive info archive [game]");
+            System.out.println("       java ReplayArchive session archive session");
+            return;
+        }
+        Path file = Paths.get(args[1]);
+        switch (args[0]) {
+            case "record": {
+                long games = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_GAMES;
+                int players = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+                int difficulty = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+                int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+                long seed = args.length > 6 ? Long.parseLong(args[6]) : System.nanoTime();
+                int[] lineup = new int[players];
+                Arrays.fill(lineup, difficulty);
+                try (Writer writer = new Writer(file)) {
+                    long session = args.length > 7 ? Long.parseLong(args[7]) : Math.max(writer.getLastSession(), 0) + 1;
+                    System.out.println("Recording " + games + " games of " + players + " bots (difficulty "
+                            + difficulty + ") as session " + session + " on " + threads + " threads (seed " + seed + ")...");
+                    long start = System.nanoTime();
+                    long recorded = record(writer, session, lineup, games, threads, seed);
+                    writer.flush();
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("%d games recorded in %.1f s (%.0f games/sec), archive holds %d games\n",
+                            recorded, seconds, recorded / seconds, writer.getGameCount());
+                }
+                break;
+            }
+            case "import": {
+                if (args.length < 3) {
+                    throw new IllegalArgumentException("The log to import is missing");
+                }
+                ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(Paths.get(args[2])));
+                try (Writer writer = new Writer(file)) {
+                    long session = args.length > 3 ? Long.parseLong(args[3]) : Math.max(writer.getLastSession(), 0) + 1;
+                    int games = writer.append(session, log);
+                    System.out.println(games + " games imported as session " + session + ", archive holds "
+                            + writer.getGameCount() + " games");
+                }
+                break;
+            }
+            case "info":
+                try (ReplayArchive archive = open(file)) {
+                    if (args.length < 3) {
+                        System.out.printf("%d games in %d bytes", archive.getGameCount(), archive.getSize());
+                        if (archive.getGameCount() > 0) {
+                            System.out.printf(", sessions %d to %d", archive.getSession(0),
+                                    archive.getSession(archive.getGameCount() - 1));
+                        }
+                        System.out.println();
+                        break;
+                    }
+                    long game = Long.parseLong(args[2]);
+                    printGame(archive, game);
+                    GameLog.Reader reader = new GameLog.Reader(archive.getGame(game));
+                    while (reader.next() != GameLog.END_OF_LOG) {
+                        // Replays the game up to its end
+                    }
+                    List<Player> players = reader.getPlayers();
+                    for (int i = 0; i < players.size(); i++) {
+                        System.out.println("  Player " + i + ": " + players.get(i).getTotalScore() + " points");
+                    }
+                }
+                break;
+            case "session":
+                if (args.length < 3) {
+                    throw new IllegalArgumentException("The session is missing");
+                }
+                try (ReplayArchive archive = open(file)) {
+                    long session = Long.parseLong(args[2]);
+                    long first = archive.firstGameOf(session);
+                    long end = archive.endGameOf(session);
+                    System.out.println("Session " + session + ": " + (end - first) + " games");
+                    for (long game = first; game < end; game++) {
+                        printGame(archive, game);
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+}
@@ -0,0 +1,680 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays recorded games again under the current rules and reports where they diverge
+ *
+ * A replay takes only what the log records as decisions: the card a player
+ * plays or that a player draws, the color chosen, UNO calls, challenges, whether
+ * a forgotten UNO was caught, and how the deck was shuffled (deals and
+ * reshuffles). Everything else comes from the rule code on a table of its own:
+ * Referee.validateCardPlay() decides whether a play is legal,
+ * Referee.handleSpecialCardEffects() and SpecialCards apply the effects,
+ * Referee.checkUnoViolation() the UNO penalty, Referee.calculateRoundScore() and
+ * checkGameWinner() the scores, and Referee.checkDisqualifications() who leaves.
+ * Turn order, skips and the end of rounds and games follow from those.
+ *
+ * At the start of every turn and at the end of the game the table of the rules
+ * is compared with the GameState that GameLog.Reader rebuilds from the records;
+ * the first difference is reported as the divergence of the game. A rule change
+ * that would have played a recorded game differently shows up there.
+ *
+ * Games recorded by Run end after their first round, with the next one dealt;
+ * games that end without a winner, a draw or too few players count as ended early.
+ *
+ * Usage: java Replayer archive [threads] [session]
+ * Replays a ReplayArchive (all of it, or one session) on all cores, like Tournament.
+ */
+public class Replayer {
+    private static final int MAX_SCRIPT = 64;      // Records of one turn
+    private static final int MAX_RESHUFFLES = 4;   // Reshuffles in one turn
+    private static final int MAX_REPORTED = 20;    // Divergences listed by Stats
+    private static final int BATCH_SIZE = 256;     // Games replayed by one task without further splitting
+    private static final CardColor[] COLORS = CardColor.values();
+
+    private final Rules rules = new Rules();
+    private final UnoCatch unoCatch = new UnoCatch();
+    private final Deck deck = new Deck(new GameRandom(0), rules);
+    private final List<Player> players = new ArrayList<>();
+    private final List<Player> seats = new ArrayList<>(); // Reused for every game
+    private final Referee referee = new Referee(players, deck, unoCatch, rules);
+    private GameLog.Reader reader;
+    private GameState table;
+    private int current;
+    private int direction;
+    private int round;
+    private boolean roundOver;
+    private boolean gameOver;
+    private boolean skip;         // The rules skipped the next player
+    private boolean wasBluffing;  // Outcome of the last challenge
+    private int turns;
+    private boolean endedEarly;
+
+    // Records of the current turn, up to the next TURN, DEAL or GAME_END
+    private final int[] scriptType = new int[MAX_SCRIPT];
+    private final int[] scriptFields = new int[MAX_SCRIPT * 3];
+    private final boolean[] used = new boolean[MAX_SCRIPT];
+    private final byte[] reshuffled = new byte[MAX_RESHUFFLES * (Deck.DECK_SIZE + 1)];
+    private int scriptLength;
+    private int reshuffledLength;
+    private final int[] codeCounts = new int[Card.CODE_COUNT];
+    private final byte[] piles = new byte[Deck.DECK_SIZE];
+
+    /**
+     * Replays one game
+     * @param game The records of the game, from a DEAL of round 1 to its GAME_END
+     * @return null if the game follows the rules, otherwise where and how it diverges
+     */
+    public String replay(ByteBuffer game) {
+        reader = new GameLog.Reader(game);
+        turns = 0;
+        endedEarly = false;
+        try {
+            if (reader.next() != GameLog.DEAL || reader.getRoundNumber() != 1) {
+                throw new Diverged("The game does not start with a deal of round 1");
+            }
+            startRound(true);
+            int type = readScript();
+            applyStartingCard();
+            while (true) {
+                checkScriptUsed();
+                switch (type) {
+                    case GameLog.TURN:
+                        if (roundOver || gameOver) {
+                            throw new Diverged("Turn after the end of the round");
+                        }
+                        if (!startTurn()) {
+                            throw new Diverged("Turn after the game should have ended");
+                        }
+                        turns++;
+                        if (reader.getField(0) != current) {
+                            throw new Diverged("Turn of player " + reader.getField(0) + ", the rules give it to player " + current);
+                        }
+                        compare();
+                        type = readScript();
+                        playTurn();
+                        break;
+                    case GameLog.DEAL:
+                        if (!roundOver || gameOver) {
+                            throw new Diverged("Deal before the end of the round");
+                        }
+                        startRound(false);
+                        type = readScript();
+                        if (type != GameLog.GAME_END || scriptLength > 0) {
+                            applyStartingCard(); // Run ends the game after dealing, before the starting card counts
+                        }
+                        break;
+                    case GameLog.GAME_END:
+                        if (!gameOver && startTurn()) {
+                            endedEarly = true; // Quit, or Run's single round
+                        }
+                        compare();
+                        if (reader.next() != GameLog.END_OF_LOG) {
+                            throw new Diverged("Records after the end of the game");
+                        }
+                        return null;
+                    default:
+                        throw new Diverged("The game has no end");
+                }
+            }
+        } catch (Diverged e) {
+            return "turn " + turns + " (byte " + reader.getPosition() + "): " + e.getMessage();
+        } catch (IllegalStateException | IllegalArgumentException | IndexOutOfBoundsException
+                 | BufferUnderflowException e) {
+            return "turn " + turns + " (byte " + reader.getPosition() + "): the log cannot be applied: " + e;
+        }
+    }
+
+    /**
+     * Takes over a DEAL the reader has just applied: the shuffled deck, the hands and
+     * the turn order are not a matter of the rules, the players and scores are
+     */
+    private void startRound(boolean first) {
+        GameState deal = reader.getState();
+        if (first) {
+            table = table != null && table.getMaxPlayers() == deal.getMaxPlayers() ? table : new GameState(deal.getMaxPlayers());
+            while (seats.size() < deal.getPlayerCount()) {
+                Player player = new Player("Player " + (seats.size() + 1));
+                player.setEventListener(rules);
+                seats.add(player);
+            }
+            players.clear();
+            players.addAll(seats.subList(0, deal.getPlayerCount()));
+            round = 0;
+            gameOver = false;
+        } else if (deal.getPlayerCount() != players.size()) {
+            throw new Diverged("Round dealt to " + deal.getPlayerCount() + " players, " + players.size() + " are left");
+        } else {
+            for (int p = 0; p < players.size(); p++) {
+                if (deal.getScore(p) != players.get(p).getTotalScore()) {
+                    throw new Diverged("Player " + p + " starts round " + deal.getRoundNumber() + " with "
+                            + deal.getScore(p) + " points, the rules give " + players.get(p).getTotalScore());
+                }
+            }
+        }
+        if (deal.getRoundNumber() != round + 1) {
+            throw new Diverged("Round " + deal.getRoundNumber() + " dealt after round " + round);
+        }
+        deal.restore(deck, players);
+        round = deal.getRoundNumber();
+        current = deal.getCurrentPlayerIndex();
+        direction = deal.getDirection();
+        roundOver = false;
+    }
+
+    /**
+     * The starting card takes effect, with SpecialCards.handleStartingSpecialCard()
+     * and the logged color for a wild card
+     */
+    private void applyStartingCard() {
+        Card first = deck.getTopCard();
+        if (first.getType() == CardType.WILD) {
+            int color = find(GameLog.COLOR, -1, 0);
+            if (color < 0) {
+                throw new Diverged("No color chosen for the starting card");
+            }
+            used[color] = true;
+            SpecialCards.processWild(players.get(current), deck, COLORS[scriptField(color, 0)], rules);
+            return;
+        }
+        if (SpecialCards.isSpecialCard(first)) {
+            SpecialCards.GameStartInfo info = SpecialCards.handleStartingSpecialCard(first, current,
+                    players.toArray(new Player[0]), deck, null, null, rules);
+            direction = info.direction;
+            if (info.skipFirstPlayer) {
+                current = nextPlayer();
+            }
+        }
+    }
+
+    /**
+     * The checks before every turn, like Run.checkGameEndConditions() and GameEngine
+     * @return false if the game ends instead: too few players, or no cards to draw
+     */
+    private boolean startTurn() {
+        List<Player> disqualified = referee.checkDisqualifications();
+        for (int i = players.size() - 1; !disqualified.isEmpty() && i >= 0; i--) {
+            if (disqualified.contains(players.get(i))) {
+                players.remove(i);
+                if (i < current) {
+                    current--;
+                }
+            }
+        }
+        if (current >= players.size()) {
+            current = 0;
+        }
+        return players.size() >= 2 && (deck.getDrawPileSize() > 0 || deck.getDiscardPileSize() > 1);
+    }
+
+    /**
+     * Applies the logged decisions of the current player's turn through the rules
+     */
+    private void playTurn() {
+        Player player = players.get(current);
+        skip = false;
+        int action = -1;
+        for (int i = 0; i < scriptLength && action < 0; i++) {
+            if (used[i] || scriptField(i, 0) != current && scriptType[i] != GameLog.RESHUFFLE) {
+                continue;
+            }
+            switch (scriptType[i]) {
+                case GameLog.UNO:
+                    used[i] = true;
+                    player.callUno();
+                    break;
+                case GameLog.DRAW:
+                    int penalty = nextRecord(i);
+                    if (penalty >= 0 && scriptType[penalty] == GameLog.PENALTY && scriptField(penalty, 0) == current) {
+                        // An invalid play, penalized like Referee.penalizeFalseCardPlay(); the card is not logged
+                        rules.penaltyCards(player, 1);
+                        drawInto(player);
+                        player.addPenalty();
+                        used[i] = true;
+                        used[penalty] = true;
+                        i = penalty;
+                    } else {
+                        action = i;
+                    }
+                    break;
+                case GameLog.PLAY:
+                    action = i;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (action >= 0 && scriptType[action] == GameLog.PLAY) {
+            playCard(player, action);
+        } else {
+            if (action >= 0) {
+                used[action] = true;
+            }
+            if (drawInto(player)) {
+                int play = nextRecord(action);
+                if (play >= 0 && scriptType[play] == GameLog.PLAY && scriptField(play, 0) == current) {
+                    if (scriptField(play, 1) != player.getHandSize() - 1) {
+                        throw new Diverged(player.getName() + " plays another card than the one drawn");
+                    }
+                    playCard(player, play);
+                }
+            }
+        }
+        // The skipped player is passed over even when the round is won, like GameEngine
+        if (skip) {
+            current = nextPlayer();
+        }
+        if (!roundOver) {
+            current = nextPlayer();
+        }
+    }
+
+    /**
+     * Plays the card of a PLAY record with the effects of Run.playCard()
+     */
+    private void playCard(Player player, int record) {
+        used[record] = true;
+        int slot = scriptField(record, 1);
+        if (slot >= player.getHandSize() || player.getCardCode(slot) != scriptField(record, 2)) {
+            throw new Diverged(player.getName() + " does not hold " + Card.fromCode(scriptField(record, 2)) + " at " + slot);
+        }
+        Card card = player.getCard(slot);
+        Card top = deck.getTopCard();
+        CardColor previousColor = deck.getActiveColor();
+        if (!referee.validateCardPlay(card, top, player)) {
+            throw new Diverged(player.getName() + " cannot play " + card + " on " + top.toString(previousColor));
+        }
+        player.playCard(slot);
+        deck.playCard(card);
+
+        if (player.getHandSize() == 1) {
+            int uno = find(GameLog.UNO, current, record + 1);
+            if (uno >= 0) {
+                used[uno] = true;
+                player.callUno();
+            } else {
+                unoCatch.caught = find(GameLog.PENALTY, current, record + 1) >= 0;
+                referee.checkUnoViolation(player);
+            }
+        } else if (player.getHandSize() > 1) {
+            player.setSaidUno(false);
+        }
+
+        if (SpecialCards.isSpecialCard(card)) {
+            if (card.getColor() == CardColor.BLACK) {
+                int color = find(GameLog.COLOR, -1, record + 1);
+                if (color < 0) {
+                    throw new Diverged("No color chosen for " + card);
+                }
+                used[color] = true;
+                SpecialCards.processWild(player, deck, COLORS[scriptField(color, 0)], rules);
+            }
+            direction = referee.handleSpecialCardEffects(card, current, direction);
+            int challenge = card.getType() == CardType.WILD_DRAW_FOUR ? find(GameLog.CHALLENGE, -1, record + 1) : -1;
+            if (challenge >= 0) {
+                used[challenge] = true;
+                referee.handleWildDrawFourChallenge(players.get(scriptField(challenge, 0)),
+                        players.get(scriptField(challenge, 1)), previousColor);
+                if (wasBluffing != (scriptField(challenge, 2) != 0)) {
+                    throw new Diverged("The challenge of " + card + " was decided the other way");
+                }
+            }
+        }
+        if (player.getHandSize() == 0) {
+            referee.calculateRoundScore(player);
+            roundOver = true;
+            gameOver = referee.checkGameWinner() != null;
+        }
+    }
+
+    /**
+     * @return true if a card was drawn
+     */
+    private boolean drawInto(Player player) {
+        Card card = deck.drawCard();
+        if (card == null) {
+            return false;
+        }
+        player.addCard(card);
+        return true;
+    }
+
+    private int nextPlayer() {
+        int next = current + direction;
+        return next >= players.size() ? 0 : next < 0 ? players.size() - 1 : next;
+    }
+
+    /**
+     * The deck of the rules ran out of cards and shuffled: it takes the logged order
+     * instead, which must hold the same cards
+     */
+    private void reshuffle() {
+        int record = find(GameLog.RESHUFFLE, -1, 0);
+        if (record < 0) {
+            throw new Diverged("Reshuffle that the log does not have");
+        }
+        used[record] = true;
+        int count = scriptField(record, 0);
+        int offset = scriptField(record, 1);
+        int drawCount = deck.getDrawPileSize();
+        deck.copyPiles(piles, 0);
+        for (int i = 0; i < drawCount; i++) {
+            codeCounts[piles[i]]++;
+        }
+        for (int i = 0; i < count; i++) {
+            codeCounts[reshuffled[offset + i]]--;
+        }
+        boolean same = count == drawCount;
+        for (int code = 0; code < codeCounts.length; code++) {
+            same &= codeCounts[code] == 0;
+            codeCounts[code] = 0;
+        }
+        if (!same) {
+            throw new Diverged("Reshuffled " + count + " cards, the rules reshuffle " + drawCount + " others");
+        }
+        reshuffled[offset + count] = (byte) deck.getTopCode();
+        deck.restorePiles(reshuffled, offset, count, 1, deck.getActiveColor());
+    }
+
+    /**
+     * Applies the records up to the next TURN, DEAL or GAME_END and keeps them as the script of a turn
+     * @return The type of the record that ends the script, or END_OF_LOG
+     */
+    private int readScript() {
+        scriptLength = 0;
+        reshuffledLength = 0;
+        while (true) {
+            int type = reader.next();
+            if (type == GameLog.TURN || type == GameLog.DEAL || type == GameLog.GAME_END || type == GameLog.END_OF_LOG) {
+                return type;
+            }
+            if (scriptLength == MAX_SCRIPT) {
+                throw new Diverged("More than " + MAX_SCRIPT + " records in one turn");
+            }
+            int base = scriptLength * 3;
+            scriptType[scriptLength] = type;
+            scriptFields[base] = reader.getField(0);
+            scriptFields[base + 1] = reader.getField(1);
+            scriptFields[base + 2] = reader.getField(2);
+            if (type == GameLog.RESHUFFLE) {
+                if (reshuffledLength + Deck.DECK_SIZE + 1 > reshuffled.length) {
+                    throw new Diverged("More than " + MAX_RESHUFFLES + " reshuffles in one turn");
+                }
+                scriptFields[base + 1] = reshuffledLength;
+                reshuffledLength += reader.copyReshuffled(reshuffled, reshuffledLength) + 1; // Room for the top card
+            }
+            used[scriptLength++] = false;
+        }
+    }
+
+    /**
+     * @return Index of the first unused record of the type from the index, -1 if there is none
+     * @param player Player of the record, -1 for any
+     */
+    private int find(int type, int player, int from) {
+        for (int i = from; i < scriptLength; i++) {
+            if (scriptType[i] == type && !used[i] && (player < 0 || scriptField(i, 0) == player)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Index of the next record that is not a reshuffle, -1 if there is none
+     */
+    private int nextRecord(int record) {
+        for (int i = record + 1; i < scriptLength; i++) {
+            if (scriptType[i] != GameLog.RESHUFFLE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int scriptField(int record, int field) {
+        if (record < 0) {
+            throw new Diverged("A decision is missing from the log");
+        }
+        return scriptFields[record * 3 + field];
+    }
+
+    /**
+     * Decisions the rules did not ask for
+     */
+    private void checkScriptUsed() {
+        for (int i = 0; i < scriptLength; i++) {
+            int type = scriptType[i];
+            if (!used[i] && (type == GameLog.PLAY || type == GameLog.COLOR || type == GameLog.UNO
+                    || type == GameLog.CHALLENGE || type == GameLog.RESHUFFLE)) {
+                throw new Diverged("Record of type " + type + " that the rules did not ask for");
+            }
+        }
+    }
+
+    private void compare() {
+        GameState logged = reader.getState();
+        table.capture(deck, players);
+        table.setCurrentPlayerIndex(current);
+        table.setDirection(direction);
+        table.setRoundNumber(round);
+        if (!table.equals(logged)) {
+            throw new Diverged(difference(logged, table));
+        }
+    }
+
+    /**
+     * @return The first difference of two states, in words
+     */
+    static String difference(GameState logged, GameState rules) {
+        if (logged.getPlayerCount() != rules.getPlayerCount()) {
+            return logged.getPlayerCount() + " players, the rules have " + rules.getPlayerCount();
+        }
+        if (logged.getCurrentPlayerIndex() != rules.getCurrentPlayerIndex()) {
+            return "Player " + logged.getCurrentPlayerIndex() + " to move, the rules have " + rules.getCurrentPlayerIndex();
+        }
+        if (logged.getDirection() != rules.getDirection()) {
+            return "Direction " + logged.getDirection() + ", the rules have " + rules.getDirection();
+        }
+        if (logged.getActiveColor() != rules.getActiveColor()) {
+            return "Active color " + logged.getActiveColor() + ", the rules have " + rules.getActiveColor();
+        }
+        if (logged.getDrawPileSize() != rules.getDrawPileSize() || logged.getDiscardPileSize() != rules.getDiscardPileSize()) {
+            return "Piles of " + logged.getDrawPileSize() + " and " + logged.getDiscardPileSize() + " cards, the rules have "
+                    + rules.getDrawPileSize() + " and " + rules.getDiscardPileSize();
+        }
+        for (int p = 0; p < logged.getPlayerCount(); p++) {
+            if (logged.getHandSize(p) != rules.getHandSize(p)) {
+                return "Player " + p + " holds " + logged.getHandSize(p) + " cards, the rules give " + rules.getHandSize(p);
+            }
+            if (logged.getScore(p) != rules.getScore(p)) {
+                return "Player " + p + " has " + logged.getScore(p) + " points, the rules give " + rules.getScore(p);
+            }
+            if (logged.getPenaltyCount(p) != rules.getPenaltyCount(p)) {
+                return "Player " + p + " has " + logged.getPenaltyCount(p) + " penalties, the rules give " + rules.getPenaltyCount(p);
+            }
+            if (logged.hasSaidUno(p) != rules.hasSaidUno(p)) {
+                return "Player " + p + (logged.hasSaidUno(p) ? " said" : " did not say") + " UNO, the rules differ";
+            }
+        }
+        return "The cards differ";
+    }
+
+    public int getTurns() { return turns; }
+
+    /**
+     * @return true if the last game ended without a winner, a draw or too few players
+     */
+    public boolean hasEndedEarly() { return endedEarly; }
+
+    /**
+     * A replayed game left the rules; carries the reason only
+     */
+    @SuppressWarnings("serial") // Never serialized
+    private static class Diverged extends RuntimeException {
+        Diverged(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Receives the events of the rules: skips, reshuffles and challenges
+     */
+    private class Rules implements GameEventListener {
+        @Override
+        public void mustDraw(Player player, int cards) { skip = true; }
+        @Override
+        public void playerSkipped(Player player) { skip = true; }
+        @Override
+        public void reshuffled() { reshuffle(); }
+        @Override
+        public void challenged(Player challenger, Player challengedPlayer, boolean bluffing) { wasBluffing = bluffing; }
+    }
+
+    /**
+     * The random generator of the referee, only asked whether a forgotten UNO is caught:
+     * answers what the log says
+     */
+    private static class UnoCatch implements RandomGenerator {
+        boolean caught;
+
+        @Override
+        public double nextDouble() { return caught ? 0 : Math.nextDown(1.0); }
+
+        @Override
+        public long nextLong() { throw new UnsupportedOperationException("The referee only checks UNO calls"); }
+    }
+
+    // --- Replaying an archive ---
+
+    /**
+     * Replays games of an archive on all cores
+     * @param from Number of the first game
+     * @param to Number after the last game
+     * @param parallelism Number of worker threads
+     */
+    public static Stats replay(ReplayArchive archive, long from, long to, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            Stats stats = pool.invoke(new ReplayBatch(archive, from, to));
+            stats.elapsedNanos = System.nanoTime() - start;
+            return stats;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Fork/join task that splits the game range until it is small enough to replay locally
+     */
+    @SuppressWarnings("serial") // Never serialized
+    private static class ReplayBatch extends RecursiveTask<Stats> {
+        private final ReplayArchive archive;
+        private final long from;
+        private final long to;
+
+        ReplayBatch(ReplayArchive archive, long from, long to) {
+            this.archive = archive;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= BATCH_SIZE) {
+                Stats stats = new Stats();
+                Replayer replayer = new Replayer();
+                for (long game = from; game < to; game++) {
+                    String divergence = replayer.replay(archive.getGame(game));
+                    stats.games++;
+                    stats.turns += replayer.getTurns();
+                    if (divergence != null) {
+                        stats.diverged++;
+                        if (stats.divergences.size() < MAX_REPORTED) {
+                            stats.divergences.put(game, "Game " + game + " (session " + archive.getSession(game)
+                                    + "): " + divergence);
+                        }
+                    } else if (replayer.hasEndedEarly()) {
+                        stats.endedEarly++;
+                    }
+                }
+                return stats;
+            }
+            long middle = (from + to) >>> 1;
+            ReplayBatch left = new ReplayBatch(archive, from, middle);
+            left.fork();
+            Stats right = new ReplayBatch(archive, middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    /**
+     * Results of replaying many games
+     */
+    public static class Stats {
+        public long games;
+        public long turns;
+        public long diverged;
+        public long endedEarly;
+        public long elapsedNanos;
+        public final TreeMap<Long, String> divergences = new TreeMap<>(); // The first ones, by game
+
+        Stats merge(Stats other) {
+            games += other.games;
+            turns += other.turns;
+            diverged += other.diverged;
+            endedEarly += other.endedEarly;
+            divergences.putAll(other.divergences);
+            while (divergences.size() > MAX_REPORTED) {
+                divergences.pollLastEntry();
+            }
+            return this;
+        }
+
+        public void print() {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("Games: %d  (%d turns) in %.2f s: %.0f games/sec, %.0f turns/sec\n",
+                    games, turns, seconds, games / seconds, turns / seconds);
+            System.out.println("Ended early: " + endedEarly);
+            System.out.println("Diverged from the rules: " + diverged);
+            for (Map.Entry<Long, String> entry : divergences.entrySet()) {
+                System.out.println("  " + entry.getValue());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java Replayer archive [threads] [session]");
+            return;
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Stats stats;
+        try (ReplayArchive archive = ReplayArchive.open(Paths.get(args[0]))) {
+            long from = 0;
+            long to = archive.getGameCount();
+            if (args.length > 2) {
+                long session = Long.parseLong(args[2]);
+                from = archive.firstGameOf(session);
+                to = archive.endGameOf(session);
+            }
+            System.out.println("Replaying " + (to - from) + " games on " + threads + " threads...");
+            stats = replay(archive, from, to, threads);
+        }
+        System.out.println("\n=== REPLAY RESULT ===");
+        stats.print();
+        if (stats.diverged > 0) {
+            System.exit(1);
+        }
+    }
+}
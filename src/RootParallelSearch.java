@@ -0,0 +1,148 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Root-parallel ISMCTS: several independent trees search the same position at
+ * the same time, each on its own thread with its own seed, and their root visit
+ * counts are added up before a move is chosen. With the same time limit per
+ * move, more cores mean more playouts and a stronger bot.
+ *
+ * The card is chosen by the summed visits of all moves that play it (for a
+ * wild card, all four colors), the color of a wild card by the summed visits
+ * of that card's four color moves.
+ *
+ * The calling thread searches one of the trees itself; the others run on a
+ * shared pool of daemon threads. While the workers search, the calling thread
+ * waits, so the game is not changed while they read it.
+ */
+public class RootParallelSearch {
+    // Shared by all bots, threads are created on demand and end after a minute without work
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "search-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private IsmctsSearch.Budget budget = IsmctsSearch.Budget.DEFAULT;
+    private IsmctsSearch[] trees = {new IsmctsSearch()};
+    private final int[] cardVisits = new int[Card.CODE_COUNT];
+
+    /**
+     * Sets the time and playout limit per tree and the number of trees
+     * @param budget Budget of one move
+     */
+    public void setBudget(IsmctsSearch.Budget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Budget cannot be null");
+        }
+        if (trees.length != budget.threads) {
+            trees = new IsmctsSearch[budget.threads];
+            for (int i = 0; i < trees.length; i++) {
+                trees[i] = new IsmctsSearch();
+            }
+        }
+        for (IsmctsSearch tree : trees) {
+            tree.setBudget(budget);
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * Searches the best move for the player whose turn it is, on all trees at once
+     * @param self The searching player, must be the current player of the table
+     * @param table The game as the player sees it
+     * @param seed Seed of the search; tree i uses a seed derived from it
+     * @return The chosen move (see IsmctsSearch.search())
+     */
+    public int search(Player self, TableView table, long seed) {
+        Future<?>[] futures = new Future<?>[trees.length];
+        for (int i = 1; i < trees.length; i++) {
+            IsmctsSearch tree = trees[i];
+            long treeSeed = GameEngine.gameSeed(seed, i);
+            futures[i] = WORKERS.submit(() -> tree.search(self, table, treeSeed));
+        }
+        int firstMove = trees[0].search(self, table, seed);
+
+        // Every tree stops by itself within the budget, so an interrupt only delays
+        // until all are done: a tree must not be reused while a worker still searches it
+        boolean interrupted = false;
+        for (int i = 1; i < trees.length; i++) {
+            while (true) {
+                try {
+                    futures[i].get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search failed", e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+        }
+
+        if (trees[0].getPlayouts() == 0) {
+            return firstMove; // Only one legal move, no tree searched
+        }
+        return mergeRoots();
+    }
+
+    /**
+     * @return Playouts of the last search, summed over all trees
+     */
+    public int getPlayouts() {
+        int total = 0;
+        for (IsmctsSearch tree : trees) {
+            total += tree.getPlayouts();
+        }
+        return total;
+    }
+
+    public IsmctsSearch.Budget getBudget() { return budget; }
+
+    /**
+     * Chooses the card with the most visits over all trees, then the color of a wild card
+     */
+    private int mergeRoots() {
+        int treeCount = trees.length;
+        Arrays.fill(cardVisits, 0);
+        int drawVisits = 0;
+        for (int t = 0; t < treeCount; t++) {
+            for (int move = 0; move < Referee.DRAW_MOVE; move++) {
+                cardVisits[Referee.moveCode(move)] += trees[t].getVisits(move);
+            }
+            drawVisits += trees[t].getVisits(Referee.DRAW_MOVE);
+        }
+
+        int bestCode = -1;
+        int bestVisits = drawVisits;
+        for (int code = 0; code < Card.CODE_COUNT; code++) {
+            if (cardVisits[code] > bestVisits) {
+                bestVisits = cardVisits[code];
+                bestCode = code;
+            }
+        }
+        if (bestCode < 0) {
+            return Referee.DRAW_MOVE;
+        }
+        if (bestCode < Card.WILD_CODE) {
+            return bestCode;
+        }
+
+        int base = bestCode == Card.WILD_CODE ? Referee.WILD_MOVES : Referee.WILD_DRAW_FOUR_MOVES;
+        int bestMove = base;
+        int bestColorVisits = -1;
+        for (int move = base; move < base + 4; move++) {
+            int visits = 0;
+            for (int t = 0; t < treeCount; t++) {
+                visits += trees[t].getVisits(move);
+            }
+            if (visits > bestColorVisits) {
+                bestColorVisits = visits;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+}
@@ -1,21 +1,26 @@
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Main game loop and gameplay logic for UNO.
  * Handles turn management, database integration, and game flow.
+ * Only the turn order (current player, direction, round) is kept in a GameState;
+ * the piles stay in Deck and the hands in the players, and snapshot() copies them
+ * into the GameState with capture() before copying it.
  */
-public class Run {
+public class Run implements TableView {
 
     private List<Player> players;
     private Deck deck;
     private Referee referee;
     private Menu menu;
-    private int currentPlayerIndex;
-    private int direction; // 1 for clockwise, -1 for counter-clockwise
+    private final GameState state; // Current player, direction (1 clockwise, -1 counter-clockwise) and round
     private boolean gameRunning;
     private boolean specialRulesEnabled;
     private Scanner scanner;
-    private int roundNumber = 1;
+    private RandomGenerator random;
+    private GameEventListener events; // Game events go here, prompts are printed directly
+    private final int[] moves = new int[Referee.MOVE_COUNT]; // Legal moves of the human to move
 
     // Database integration
     private ScoreDatabaseManager dbManager;
@@ -31,6 +36,7 @@ public class Run {
      * @param sessionId The current session ID (0 if not using DB)
      * @param gameVariant The game variant string ("Standard", "Special Rules", etc.)
      */
+    @SuppressWarnings("this-escape") // The bots only keep the reference, they read the table once the game runs
     public Run(Initialization.GameSetup gameSetup, Scanner scanner, Menu menu,
                ScoreDatabaseManager dbManager, int sessionId, String gameVariant) {
         if (gameSetup == null) {
@@ -38,18 +44,25 @@ public class Run {
         }
         this.players = gameSetup.players;
         this.deck = gameSetup.deck;
-        this.currentPlayerIndex = gameSetup.startingPlayerIndex;
+        this.state = new GameState(players.size()); // Starts clockwise in round 1
+        state.setCurrentPlayerIndex(gameSetup.startingPlayerIndex);
         this.specialRulesEnabled = gameSetup.specialRulesEnabled;
-        this.direction = 1; // Start clockwise
         this.gameRunning = true;
-        this.referee = new Referee(players, deck);
+        this.random = gameSetup.random;
+        this.events = gameSetup.events;
+        this.referee = new Referee(players, deck, random, events);
         this.menu = menu;
         this.scanner = scanner;
         this.dbManager = dbManager;
         this.sessionId = sessionId;
         this.gameVariant = gameVariant;
-        if (currentPlayerIndex < 0 || currentPlayerIndex >= players.size()) {
-            currentPlayerIndex = 0;
+        if (state.getCurrentPlayerIndex() < 0 || state.getCurrentPlayerIndex() >= players.size()) {
+            state.setCurrentPlayerIndex(0);
+        }
+        for (Player player : players) {
+            if (player instanceof BotPlayer) {
+                ((BotPlayer) player).setTable(this); // Hard and expert bots search on what they can see
+            }
         }
     }
 
@@ -57,7 +70,8 @@ public class Run {
      * Main game loop - continues until someone wins or quits.
      */
     public void runGame() {
-        System.out.println("Starting player: " + players.get(currentPlayerIndex).getName());
+        events.roundDealt(this, state.getRoundNumber()); // Initialization has dealt the first round
+        events.startingPlayer(players.get(state.getCurrentPlayerIndex()));
         handleStartingSpecialCard();
         while (gameRunning) {
             if (checkGameEndConditions()) break;
@@ -78,12 +92,12 @@ public class Run {
         if (dbManager != null && sessionId > 0) {
             try {
                 String winnerName = getWinnerNameOrDraw();
-                dbManager.finalizeSession(sessionId, winnerName, roundNumber);
+                dbManager.finalizeSession(sessionId, winnerName, state.getRoundNumber());
             } catch (Exception e) {
                 System.err.println("❌ Could not finalize session in database: " + e.getMessage());
             }
         }
-        System.out.println("Game over.");
+        events.gameEnded();
     }
     private String getWinnerNameOrDraw() {
         Player winner = referee.checkGameWinner();
@@ -96,15 +110,13 @@ public class Run {
     }
 
     private void handleEmptyDeck() {
-        System.out.println("\n⚠️ Both card piles are empty! The game ends in a draw.");
-        System.out.println("\nCurrent player scores:");
+        events.gameDrawn();
         for (Player player : players) {
-            int handPoints = player.calculateHandPoints();
-            System.out.println(player.getName() + ": " + handPoints + " points in hand");
+            events.handScored(player, player.calculateHandPoints());
         }
         if (dbManager != null && sessionId > 0) {
             try {
-                dbManager.finalizeSession(sessionId, "DRAW", roundNumber);
+                dbManager.finalizeSession(sessionId, "DRAW", state.getRoundNumber());
             } catch (Exception e) {
                 System.err.println("❌ Could not save final scores: " + e.getMessage());
             }
@@ -115,27 +127,25 @@ public class Run {
     private void handleStartingSpecialCard() {
         Card topCard = deck.getTopCard();
         if (topCard != null && SpecialCards.isSpecialCard(topCard)) {
-            System.out.println("Starting card is a special card: " + topCard);
             Player[] playerArray = players.toArray(new Player[0]);
             SpecialCards.GameStartInfo info = SpecialCards.handleStartingSpecialCard(
-                    topCard, currentPlayerIndex, playerArray, deck, menu, scanner);
-            direction = info.direction;
+                    topCard, state.getCurrentPlayerIndex(), playerArray, deck, menu, scanner, events);
+            state.setDirection(info.direction);
             if (info.skipFirstPlayer) {
-                System.out.println("The first player is skipped!");
                 moveToNextPlayer();
             }
         }
     }
 
     private void playTurn() {
-        Player currentPlayer = players.get(currentPlayerIndex);
+        Player currentPlayer = players.get(state.getCurrentPlayerIndex());
         Card topCard = deck.getTopCard();
         if (currentPlayer == null || topCard == null) {
             System.err.println("Critical error: Player or card is null");
             gameRunning = false;
             return;
         }
-        menu.displayGameState(players, currentPlayer, topCard, direction);
+        menu.displayGameState(players, currentPlayer, topCard, deck.getActiveColor(), state.getDirection());
 
         if (currentPlayer instanceof BotPlayer) {
             handleBotTurn((BotPlayer) currentPlayer, topCard);
@@ -145,6 +155,7 @@ public class Run {
     }
 
     private void handleHumanTurn(Player player, Card topCard) {
+        events.turnStarted(player); // Bots report it themselves in chooseCard()
         if (player.getHandSize() == 2 && !player.hasSaidUno()) {
             System.out.print(player.getName() + ", you have 2 cards. Do you want to call UNO? (y/n): ");
             if (menu.getYesNoInput()) {
@@ -152,10 +163,14 @@ public class Run {
                 System.out.println(player.getName() + " calls: UNO!");
             }
         }
+        boolean canPlay = player.legalMoves(topCard, deck.getActiveColor(), moves) > 1; // Not only drawing
         boolean cardPlayedOrDrawn = false;
         while (!cardPlayedOrDrawn) {
             player.displayHand();
-            System.out.println("\nCurrent card: " + topCard);
+            System.out.println("\nCurrent card: " + topCard.toString(deck.getActiveColor()));
+            if (!canPlay) {
+                System.out.println("None of your cards can be played, you have to draw.");
+            }
             System.out.print("Choose a card (enter number 1-" + player.getHandSize() + ") or 0 to draw, or -1 for game menu: ");
             String inputLine = scanner.nextLine().trim();
             int cardChoice;
@@ -199,13 +214,13 @@ public class Run {
                 cardPlayedOrDrawn = true;
             } else if (cardChoice >= 1 && cardChoice <= player.getHandSize()) {
                 int actualIndex = cardChoice - 1;
-                Card chosenCard = player.getHand().get(actualIndex);
+                Card chosenCard = player.getCard(actualIndex);
                 if (referee.validateCardPlay(chosenCard, topCard, player)) {
                     player.playCard(actualIndex);
                     playCard(player, chosenCard);
                     cardPlayedOrDrawn = true;
                 } else {
-                    System.out.println("You cannot play " + chosenCard + " on " + topCard + ". Please choose another card or draw.");
+                    System.out.println("You cannot play " + chosenCard + " on " + topCard.toString(deck.getActiveColor()) + ". Please choose another card or draw.");
                 }
             } else {
                 System.out.println("Invalid card number. Please try again.");
@@ -214,16 +229,17 @@ public class Run {
     }
 
     private void handleBotTurn(BotPlayer bot, Card topCard) {
-        int cardChoiceIndex = bot.getCardChoice(topCard);
+        // Waits out the bot's thinking delay: the loop is sequential and reads human input on this thread
+        int cardChoiceIndex = bot.getCardChoice(topCard, deck.getActiveColor());
         if (cardChoiceIndex == -1) {
             handleDrawCard(bot);
         } else {
-            Card chosenCard = bot.getHand().get(cardChoiceIndex);
+            Card chosenCard = bot.getCard(cardChoiceIndex);
             if (referee.validateCardPlay(chosenCard, topCard, bot)) {
                 bot.playCard(cardChoiceIndex);
                 playCard(bot, chosenCard);
             } else {
-                System.out.println("Bot " + bot.getName() + " tried to play an invalid card. Drawing instead.");
+                // The referee has reported the invalid play, the bot draws instead
                 handleDrawCard(bot);
             }
         }
@@ -233,47 +249,44 @@ public class Run {
         Card drawnCard = deck.drawCard();
         if (drawnCard != null) {
             player.addCard(drawnCard);
-            System.out.println(player.getName() + " draws a card: " + drawnCard);
+            events.cardDrawn(player, drawnCard);
             Card topCard = deck.getTopCard();
-            if (drawnCard.canPlayOn(topCard)) {
+            if (drawnCard.canPlayOn(topCard, deck.getActiveColor())) {
                 if (player instanceof BotPlayer) {
-                    Card playedBotCard = player.playCard(player.getHand().indexOf(drawnCard));
+                    // The drawn card was added at the end of the hand
+                    Card playedBotCard = player.playCard(player.getHandSize() - 1);
                     playCard(player, playedBotCard);
                 } else {
                     System.out.println("The drawn card (" + drawnCard + ") can be played!");
                     System.out.print("Do you want to play it? (y/n): ");
                     if (menu.getYesNoInput()) {
-                        Card playedHumanCard = player.playCard(player.getHand().indexOf(drawnCard));
+                        Card playedHumanCard = player.playCard(player.getHandSize() - 1);
                         playCard(player, playedHumanCard);
                     } else {
-                        System.out.println(player.getName() + " decides not to play the drawn card.");
+                        events.drawnCardKept(player, drawnCard, true);
                     }
                 }
             } else {
-                System.out.println(player.getName() + " cannot play the drawn card.");
+                events.drawnCardKept(player, drawnCard, false);
             }
         } else {
-            System.out.println("No cards available to draw!");
+            events.noCardsLeft();
         }
     }
 
     private void playCard(Player player, Card card) {
         deck.playCard(card);
-        System.out.println(player.getName() + " plays: " + card);
+        events.cardPlayed(player, card);
         if (player.getHandSize() == 1) {
             if (player instanceof BotPlayer) {
-                ((BotPlayer) player).callUno();
-                if (player.hasSaidUno()) {
-                    System.out.println("🤖 " + player.getName() + " calls: UNO!");
-                }
+                ((BotPlayer) player).callUno(); // Reports unoCalled unless the bot forgets
             } else {
                 System.out.print(player.getName() + ", you have 1 card left! Call UNO? (y/n): ");
                 if (menu.getYesNoInput()) {
                     player.callUno();
-                    System.out.println(player.getName() + " calls: UNO!");
                 } else {
                     if (referee.checkUnoViolation(player)) {
-                        System.out.println(player.getName() + " forgot to call UNO and draws 2 penalty cards!");
+                        events.penaltyCards(player, 2);
                         deck.drawCards(player, 2);
                         player.addPenalty();
                     }
@@ -298,15 +311,14 @@ public class Run {
         Player nextPlayer = players.get(nextPlayerIndex);
         switch (card.getType()) {
             case DRAW_TWO:
-                SpecialCards.processDrawTwo(nextPlayer, deck);
+                SpecialCards.processDrawTwo(nextPlayer, deck, events);
                 skipNextPlayer();
                 break;
             case REVERSE:
-                direction = SpecialCards.processReverse(direction);
-                System.out.println("Play direction reversed!");
+                state.setDirection(SpecialCards.processReverse(state.getDirection(), events));
                 break;
             case SKIP:
-                SpecialCards.processSkip(nextPlayer);
+                SpecialCards.processSkip(nextPlayer, events);
                 skipNextPlayer();
                 break;
             case WILD:
@@ -316,7 +328,7 @@ public class Run {
                 } else {
                     chosenColor = menu.chooseColor(scanner);
                 }
-                SpecialCards.processWild(player, card, chosenColor);
+                SpecialCards.processWild(player, deck, chosenColor, events);
                 break;
             case WILD_DRAW_FOUR:
                 CardColor chosenColorDrawFour;
@@ -325,15 +337,14 @@ public class Run {
                 } else {
                     chosenColorDrawFour = menu.chooseColor(scanner);
                 }
-                SpecialCards.processWildDrawFour(player, nextPlayer, card, deck, chosenColorDrawFour);
+                SpecialCards.processWildDrawFour(player, nextPlayer, deck, chosenColorDrawFour, events);
                 skipNextPlayer();
                 break;
         }
     }
 
     private void handleRoundWin(Player winner) {
-        System.out.println("\n🎉 " + winner.getName() + " has won round " + roundNumber + "!");
-        referee.calculateRoundScore(winner);
+        referee.calculateRoundScore(winner); // Reports roundWon, handScored and roundScored
         // --- DATABASE INTEGRATION: Save/display round scores ---
         if (dbManager != null && sessionId > 0) {
             try {
@@ -342,8 +353,8 @@ public class Run {
                 for (int i = 0; i < playerArray.length; i++) {
                     roundScores[i] = playerArray[i].calculateHandPoints();
                 }
-                dbManager.addRoundScores(sessionId, playerArray, roundNumber, roundScores, gameVariant);
-                dbManager.displayRoundScoresFromDatabase(sessionId, roundNumber);
+                dbManager.addRoundScores(sessionId, playerArray, state.getRoundNumber(), roundScores, gameVariant);
+                dbManager.displayRoundScoresFromDatabase(sessionId, state.getRoundNumber());
             } catch (Exception e) {
                 System.err.println("❌ Could not save/display round scores: " + e.getMessage());
             }
@@ -352,20 +363,20 @@ public class Run {
         if (gameWinner != null) {
             handleGameWin(gameWinner);
         } else {
-            roundNumber++;
-            System.out.println("\nStarting round " + roundNumber + "...");
+            state.setRoundNumber(state.getRoundNumber() + 1);
+            events.newRound(state.getRoundNumber());
             prepareNewRound();
         }
     }
 
     private void handleGameWin(Player winner) {
-        System.out.println("\n🏆 " + winner.getName() + " has won the entire game!");
+        events.gameWon(winner);
         menu.displayGameResults(winner, players);
         gameRunning = false;
         // --- DATABASE INTEGRATION: Finalize session ---
         if (dbManager != null && sessionId > 0) {
             try {
-                dbManager.finalizeSession(sessionId, winner.getName(), roundNumber);
+                dbManager.finalizeSession(sessionId, winner.getName(), state.getRoundNumber());
             } catch (Exception e) {
                 System.err.println("❌ Could not finalize session in database: " + e.getMessage());
             }
@@ -378,7 +389,7 @@ public class Run {
             player.clearHand();
             player.resetPenalties();
         }
-        deck = new Deck();
+        deck.reset(); // Reuses the deck and its shared cards instead of allocating a new one
         for (int i = 0; i < 7; i++) {
             for (Player player : players) {
                 Card card = deck.drawCard();
@@ -388,16 +399,17 @@ public class Run {
             }
         }
         deck.setupInitialCard();
-        direction = 1;
-        currentPlayerIndex = 0;
+        state.setDirection(1);
+        state.setCurrentPlayerIndex(0);
+        events.roundDealt(this, state.getRoundNumber());
     }
 
     private void moveToNextPlayer() {
-        currentPlayerIndex = getNextPlayerIndex();
+        state.setCurrentPlayerIndex(getNextPlayerIndex());
     }
 
     private int getNextPlayerIndex() {
-        int nextIndex = currentPlayerIndex + direction;
+        int nextIndex = state.getCurrentPlayerIndex() + state.getDirection();
         if (nextIndex >= players.size()) {
             nextIndex = 0;
         } else if (nextIndex < 0) {
@@ -412,21 +424,17 @@ public class Run {
     }
 
     private boolean checkGameEndConditions() {
-        List<Player> disqualified = referee.checkDisqualifications();
+        List<Player> disqualified = referee.checkDisqualifications(); // Reports each disqualified player
         if (!disqualified.isEmpty()) {
-            System.out.println("\n❌ Players disqualified:");
-            for (Player p : disqualified) {
-                System.out.println(" - " + p.getName());
-            }
             players.removeAll(disqualified);
         }
         if (players.size() < 2) {
-            System.out.println("Not enough players remaining! Game ends.");
+            events.notEnoughPlayers();
             gameRunning = false;
             return true;
         }
-        if (currentPlayerIndex >= players.size()) {
-            currentPlayerIndex = 0;
+        if (state.getCurrentPlayerIndex() >= players.size()) {
+            state.setCurrentPlayerIndex(0);
         }
         return false;
     }
@@ -451,4 +459,34 @@ public class Run {
         System.out.println("----------------------");
         menu.waitForUserInput("Press Enter to continue...");
     }
+
+    /**
+     * Takes a snapshot of the game: turn order, piles, hands and scores
+     * Captures the piles and hands from Deck and the players first, O(108) card copies.
+     * @return A copy that later turns do not change
+     */
+    public GameState snapshot() {
+        return state.capture(deck, players).copy();
+    }
+
+    /**
+     * Puts the game back into a snapshot taken by snapshot()
+     * @param snapshot The snapshot, taken with the same players still in the game
+     */
+    public void restore(GameState snapshot) {
+        snapshot.restore(deck, players);
+        state.copyFrom(snapshot);
+    }
+
+    // What the bots see of the table (TableView)
+    @Override
+    public int getPlayerCount() { return players.size(); }
+    @Override
+    public Player getPlayer(int index) { return players.get(index); }
+    @Override
+    public int getCurrentPlayerIndex() { return state.getCurrentPlayerIndex(); }
+    @Override
+    public int getDirection() { return state.getDirection(); }
+    @Override
+    public Deck getDeck() { return deck; }
 }
@@ -10,83 +10,76 @@ public class SpecialCards {
      * Processes Draw Two card effects
      * @param targetPlayer The player who must draw cards
      * @param deck The game deck
+     * @param events Receives the drawn cards
      */
-    public static void processDrawTwo(Player targetPlayer, Deck deck) {
-        System.out.println(targetPlayer.getName() + " must draw 2 cards!");
+    public static void processDrawTwo(Player targetPlayer, Deck deck, GameEventListener events) {
+        events.mustDraw(targetPlayer, 2);
 
         for (int i = 0; i < 2; i++) {
             Card drawnCard = deck.drawCard();
             if (drawnCard != null) {
                 targetPlayer.addCard(drawnCard);
-                System.out.println(targetPlayer.getName() + " draws: " + drawnCard);
+                events.cardDrawn(targetPlayer, drawnCard);
             }
         }
-
-        System.out.println(targetPlayer.getName() + " skipped this round.");
     }
 
     /**
      * Processes Reverse card effects
      * @param currentDirection Current game direction (1 or -1)
+     * @param events Receives the new direction
      * @return New direction
      */
-    public static int processReverse(int currentDirection) {
+    public static int processReverse(int currentDirection, GameEventListener events) {
         int newDirection = currentDirection * -1;
-        System.out.println("🔄 Play direction is reversed!");
-
-        if (newDirection == 1) {
-            System.out.println("The game now proceeds clockwise.");
-        } else {
-            System.out.println("The game now proceeds counterclockwise.");
-        }
-
+        events.directionChanged(newDirection);
         return newDirection;
     }
 
     /**
      * Processes Skip card effects
      * @param skippedPlayer The player who must skip their turn
+     * @param events Receives the skip
      */
-    public static void processSkip(Player skippedPlayer) {
-        System.out.println("⏭️ " + skippedPlayer.getName() + " must skip their turn!!");
+    public static void processSkip(Player skippedPlayer, GameEventListener events) {
+        events.playerSkipped(skippedPlayer);
     }
 
     /**
      * Processes Wild card effects
      * @param player The player who played the wild card
-     * @param wildCard The wild card (to set its color)
+     * @param deck The game deck (to set the active color)
      * @param chosenColor The color chosen by the player
+     * @param events Receives the chosen color
      */
-    public static void processWild(Player player, Card wildCard, CardColor chosenColor) {
+    public static void processWild(Player player, Deck deck, CardColor chosenColor, GameEventListener events) {
         //The color has already been determined in Run and transferred.
-        wildCard.setColor(chosenColor);
-        System.out.println("🎨 " + player.getName() + " chooses " + chosenColor + " as new color!");
+        deck.setActiveColor(chosenColor);
+        events.colorChosen(player, chosenColor);
     }
 
     /**
      * Processes Wild Draw Four card effects
      * @param player The player who played the card
      * @param targetPlayer The next player who must draw
-     * @param wildDrawFour The card (to set its color)
-     * @param deck The game deck
+     * @param deck The game deck (to set the active color and draw from)
      * @param chosenColor The color chosen by the player
+     * @param events Receives the chosen color and the drawn cards
      */
-    public static void processWildDrawFour(Player player, Player targetPlayer, Card wildDrawFour,
-                                           Deck deck, CardColor chosenColor) {
+    public static void processWildDrawFour(Player player, Player targetPlayer,
+                                           Deck deck, CardColor chosenColor, GameEventListener events) {
         // CardColor chosenColor = player.chooseColor();
-        processWild(player, wildDrawFour, chosenColor);
+        processWild(player, deck, chosenColor, events);
         // Then make target player draw 4 cards
-        System.out.println("📚 " + targetPlayer.getName() + " must draw 4 cards!");
+        events.mustDraw(targetPlayer, 4);
 
         for (int i = 0; i < 4; i++) {
             Card drawnCard = deck.drawCard();
             if (drawnCard != null) {
                 targetPlayer.addCard(drawnCard);
-                System.out.println(targetPlayer.getName() + " draws: " + drawnCard);
+                events.cardDrawn(targetPlayer, drawnCard);
             }
         }
-
-        System.out.println(targetPlayer.getName() + " skips this round.");
     }
 
     /**
@@ -111,29 +104,30 @@ public class SpecialCards {
      * @param deck The game deck
      * @param menu The shared Menu instance (for human color choice) // NEUER PARAMETER
      * @param scanner The shared Scanner instance (for human color choice) // NEUER PARAMETER
+     * @param events Receives the effects of the starting card
      * @return Adjusted starting direction and player info
      */
     public static GameStartInfo handleStartingSpecialCard(Card firstCard, int startingPlayerIndex,
-                                                          Player[] players, Deck deck, Menu menu, Scanner scanner) {
+                                                          Player[] players, Deck deck, Menu menu, Scanner scanner,
+                                                          GameEventListener events) {
         GameStartInfo info = new GameStartInfo();
         info.direction = 1; // Default direction
         info.currentPlayerIndex = startingPlayerIndex;
 
         switch (firstCard.getType()) {
             case DRAW_TWO:
-                System.out.println("⚠️ Starting card is a Draw Two! The first player must draw 2 cards!");
+                events.mustDraw(players[startingPlayerIndex], 2);
                 // (MODIFIED) processDrawTwo(players[startingPlayerIndex], deck);
                 deck.drawCards(players[startingPlayerIndex], 2);
                 info.skipFirstPlayer = true;
                 break;
 
             case REVERSE:
-                info.direction = processReverse(1);
+                info.direction = processReverse(1, events);
                 break;
 
             case SKIP:
-                System.out.println("⚠️ Starting card is a Skip! The first player is skipped!");
-                processSkip(players[startingPlayerIndex]);
+                processSkip(players[startingPlayerIndex], events);
                 info.skipFirstPlayer = true;
                 break;
 
@@ -145,15 +139,13 @@ public class SpecialCards {
                 } else {
                     chosenColor = menu.chooseColor(scanner);
                 }
-                firstCard.setColor(chosenColor);
-                System.out.println("🎨 " + affectedPlayer.getName() +
-                        " chooses " + chosenColor + " as the starting color!");
+                deck.setActiveColor(chosenColor);
+                events.colorChosen(affectedPlayer, chosenColor);
                 break;
 
             case WILD_DRAW_FOUR:
                 // This should not happen as we prevent it in Deck.setupInitialCard()
-                System.out.println("❌ Error: A Wild Draw Four card is not allowed as a starting card!\"");
-                break;
+                throw new IllegalStateException("A Wild Draw Four card is not allowed as a starting card!");
         }
 
         return info;
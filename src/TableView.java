@@ -0,0 +1,33 @@
+/**
+ * What a player can see of the table: the other players (and the size of their
+ * hands), whose turn it is, the direction of play and the piles
+ * Implemented by Run and GameEngine, used by bots that search ahead or look up
+ * their moves (difficulties 3 to 5).
+ */
+public interface TableView {
+    /**
+     * @return Number of players still in the game
+     */
+    int getPlayerCount();
+
+    /**
+     * @param index Position in turn order (0 to getPlayerCount() - 1)
+     * @return The player at that position
+     */
+    Player getPlayer(int index);
+
+    /**
+     * @return Position of the player whose turn it is
+     */
+    int getCurrentPlayerIndex();
+
+    /**
+     * @return 1 for clockwise, -1 for counter-clockwise
+     */
+    int getDirection();
+
+    /**
+     * @return The deck with the draw pile and the discard pile
+     */
+    Deck getDeck();
+}
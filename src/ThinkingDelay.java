@@ -0,0 +1,67 @@
+import java.util.concurrent.*;
+
+/**
+ * Cosmetic "thinking" pause of a bot before its move is shown
+ *
+ * The bot decides at once; reveal() hands the decision back through a future
+ * that a shared scheduler completes after a random pause between minMillis and
+ * maxMillis. No thread waits during the pause: an event-driven host continues
+ * with thenAccept(), and a game loop on a virtual thread that calls join() is
+ * unmounted from its carrier, so thousands of tables can think at the same time
+ * on a handful of carrier threads and the one scheduler thread. The console game
+ * is the exception: Run's loop reads the human players' input on the main thread
+ * and waits there for every bot's pause (BotPlayer.getCardChoice()).
+ *
+ * The pause is drawn from its own random source, so it never changes the
+ * game's random sequence. Headless games use NONE.
+ */
+public class ThinkingDelay {
+    /**
+     * No pause, the decision is revealed immediately
+     */
+    public static final ThinkingDelay NONE = new ThinkingDelay(0, 0);
+
+    /**
+     * The pause of the interactive game: 1-2 seconds
+     */
+    public static final ThinkingDelay DEFAULT = new ThinkingDelay(1000, 2000);
+
+    // One daemon thread completes the futures of all tables, it only ever runs complete()
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "thinking-delay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public final long minMillis;
+    public final long maxMillis;
+
+    /**
+     * @param minMillis Shortest pause
+     * @param maxMillis Longest pause (exclusive, unless equal to minMillis)
+     */
+    public ThinkingDelay(long minMillis, long maxMillis) {
+        if (minMillis < 0 || maxMillis < minMillis) {
+            throw new IllegalArgumentException("Invalid thinking delay: " + minMillis + "-" + maxMillis + " ms");
+        }
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Reveals a decision after the pause
+     * @param decision The decision, already made
+     * @return A future completed with the decision once the pause is over
+     *         (already completed if there is no pause)
+     */
+    public <T> CompletableFuture<T> reveal(T decision) {
+        long millis = maxMillis > minMillis
+                ? ThreadLocalRandom.current().nextLong(minMillis, maxMillis) : minMillis;
+        if (millis == 0) {
+            return CompletableFuture.completedFuture(decision);
+        }
+        CompletableFuture<T> revealed = new CompletableFuture<>();
+        SCHEDULER.schedule(() -> revealed.complete(decision), millis, TimeUnit.MILLISECONDS);
+        return revealed;
+    }
+}
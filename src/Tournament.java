@@ -0,0 +1,232 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs large numbers of independent bot-only games on all CPU cores.
+ * Every worker collects its own statistics, which are merged when the
+ * fork/join tasks are joined, so no locks are taken while games run.
+ *
+ * Usage: java Tournament [games] [threads] [seed] [lineup ...]
+ * A lineup lists one bot difficulty per seat, e.g. "1,2,3,3".
+ * Game i is seeded with GameEngine.gameSeed(seed, i), so a tournament gives
+ * the same results for the same seed on any number of threads.
+ */
+public class Tournament {
+    private static final long DEFAULT_GAMES = 100_000;
+    private static final int BATCH_SIZE = 256; // Games played by one task without further splitting
+
+    private final int[][] lineups;
+    private final long games;
+    private final int parallelism;
+    private final long seed;
+    private final int seatCount;
+    private final int maxDifficulty;
+
+    /**
+     * Creates a tournament
+     * @param lineups Bot difficulties per seat; game i uses lineup i % lineups.length
+     * @param games Number of games to play
+     * @param parallelism Number of worker threads
+     * @param seed Seed of the whole tournament
+     */
+    public Tournament(int[][] lineups, long games, int parallelism, long seed) {
+        if (lineups == null || lineups.length == 0) {
+            throw new IllegalArgumentException("At least one lineup is required");
+        }
+        if (games <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Games and parallelism must be positive");
+        }
+        this.lineups = lineups;
+        this.games = games;
+        this.parallelism = parallelism;
+        this.seed = seed;
+
+        int seats = 0;
+        int difficulty = 0;
+        for (int[] lineup : lineups) {
+            new GameEngine.GameConfig(lineup); // Validates the lineup
+            seats = Math.max(seats, lineup.length);
+            for (int d : lineup) {
+                difficulty = Math.max(difficulty, d);
+            }
+        }
+        this.seatCount = seats;
+        this.maxDifficulty = difficulty;
+    }
+
+    /**
+     * Plays all games and merges the statistics of all workers
+     * @return The merged statistics
+     */
+    public Stats run() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            Stats stats = pool.invoke(new GameBatch(0, games));
+            stats.elapsedNanos = System.nanoTime() - start;
+            return stats;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Fork/join task that splits the game range until it is small enough to play locally
+     */
+    @SuppressWarnings("serial") // Never serialized
+    private class GameBatch extends RecursiveTask<Stats> {
+        private final long from;
+        private final long to;
+
+        GameBatch(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= BATCH_SIZE) {
+                Stats stats = new Stats(seatCount, maxDifficulty);
+                // One reusable engine per lineup, so games allocate nothing after warm-up
+                GameEngine[] engines = new GameEngine[lineups.length];
+                for (long i = from; i < to; i++) {
+                    int lineupIndex = (int) (i % lineups.length);
+                    if (engines[lineupIndex] == null) {
+                        engines[lineupIndex] = new GameEngine(new GameEngine.GameConfig(lineups[lineupIndex], seed));
+                    }
+                    GameEngine engine = engines[lineupIndex];
+                    int winnerSeat = engine.playGame(GameEngine.gameSeed(seed, i));
+                    stats.record(lineups[lineupIndex], engine, winnerSeat);
+                }
+                return stats;
+            }
+            long middle = (from + to) >>> 1;
+            GameBatch left = new GameBatch(from, middle);
+            left.fork();
+            Stats right = new GameBatch(middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    /**
+     * Statistics of a set of games, by seat and by bot difficulty
+     */
+    public static class Stats {
+        public long games;
+        public long draws;
+        public long totalRounds;
+        public long elapsedNanos;
+        public final long[] seatGames;
+        public final long[] seatWins;
+        public final long[] seatScore;
+        public final long[] difficultyGames;   // Indexed by difficulty, seats played with that difficulty
+        public final long[] difficultyWins;
+        public final long[] difficultyScore;
+
+        Stats(int seats, int maxDifficulty) {
+            seatGames = new long[seats];
+            seatWins = new long[seats];
+            seatScore = new long[seats];
+            difficultyGames = new long[maxDifficulty + 1];
+            difficultyWins = new long[maxDifficulty + 1];
+            difficultyScore = new long[maxDifficulty + 1];
+        }
+
+        void record(int[] lineup, GameEngine engine, int winnerSeat) {
+            games++;
+            totalRounds += engine.getRounds();
+            if (winnerSeat < 0) {
+                draws++;
+            }
+            for (int seat = 0; seat < lineup.length; seat++) {
+                int difficulty = lineup[seat];
+                boolean won = seat == winnerSeat;
+                seatGames[seat]++;
+                seatScore[seat] += engine.getScore(seat);
+                difficultyGames[difficulty]++;
+                difficultyScore[difficulty] += engine.getScore(seat);
+                if (won) {
+                    seatWins[seat]++;
+                    difficultyWins[difficulty]++;
+                }
+            }
+        }
+
+        Stats merge(Stats other) {
+            games += other.games;
+            draws += other.draws;
+            totalRounds += other.totalRounds;
+            for (int i = 0; i < seatGames.length; i++) {
+                seatGames[i] += other.seatGames[i];
+                seatWins[i] += other.seatWins[i];
+                seatScore[i] += other.seatScore[i];
+            }
+            for (int i = 0; i < difficultyGames.length; i++) {
+                difficultyGames[i] += other.difficultyGames[i];
+                difficultyWins[i] += other.difficultyWins[i];
+                difficultyScore[i] += other.difficultyScore[i];
+            }
+            return this;
+        }
+
+        public double gamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+        }
+
+        public void print() {
+            System.out.println("\n=== TOURNAMENT RESULT ===");
+            System.out.printf("Games: %d (draws: %d)\n", games, draws);
+            System.out.printf("Average rounds: %.2f\n", ratio(totalRounds, games));
+            System.out.printf("Throughput: %.0f games/sec\n", gamesPerSecond());
+
+            System.out.println("\nBy seat:");
+            for (int i = 0; i < seatGames.length; i++) {
+                System.out.printf("  Seat %d: win rate %.2f%%, average score %.1f\n",
+                        i + 1, 100 * ratio(seatWins[i], seatGames[i]), ratio(seatScore[i], seatGames[i]));
+            }
+            System.out.println("\nBy difficulty:");
+            for (int d = 1; d < difficultyGames.length; d++) {
+                if (difficultyGames[d] > 0) {
+                    System.out.printf("  Difficulty %d: win rate %.2f%%, average score %.1f\n",
+                            d, 100 * ratio(difficultyWins[d], difficultyGames[d]),
+                            ratio(difficultyScore[d], difficultyGames[d]));
+                }
+            }
+        }
+
+        private static double ratio(long value, long count) {
+            return count == 0 ? 0 : (double) value / count;
+        }
+    }
+
+    /**
+     * Every 4-seat lineup of difficulties 1-3, so that each difficulty plays each seat equally often
+     */
+    private static int[][] allLineups() {
+        int[][] lineups = new int[81][];
+        for (int i = 0; i < lineups.length; i++) {
+            lineups[i] = new int[] {i / 27 % 3 + 1, i / 9 % 3 + 1, i / 3 % 3 + 1, i % 3 + 1};
+        }
+        return lineups;
+    }
+
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_GAMES;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        int[][] lineups;
+        if (args.length > 3) {
+            lineups = new int[args.length - 3][];
+            for (int i = 3; i < args.length; i++) {
+                lineups[i - 3] = Arrays.stream(args[i].split(",")).mapToInt(Integer::parseInt).toArray();
+            }
+        } else {
+            lineups = allLineups();
+        }
+
+        System.out.println("Running " + games + " games on " + threads + " threads (seed " + seed + ")...");
+        new Tournament(lineups, games, threads, seed).run().print();
+    }
+}
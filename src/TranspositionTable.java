@@ -0,0 +1,69 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size transposition table for search bots, shared by all search threads
+ * Maps a 64-bit Zobrist hash (see PlayoutKernel.getHash()) to 64 bits of data
+ * packed by the caller. Every slot holds two longs: the hash XOR the data, and
+ * the data. A store writes both without a lock and always replaces the old
+ * entry; a probe accepts an entry only if the two longs still fit together, so
+ * a slot that another thread is writing at the same moment just looks empty
+ * instead of returning the data of a different position.
+ */
+public class TranspositionTable {
+    public static final long MISS = Long.MIN_VALUE; // Returned by probe() for unknown positions, never stored
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * @param sizeLog2 The table holds 2^sizeLog2 entries of 16 bytes (1 to 26)
+     */
+    @SuppressWarnings("this-escape") // clear() only touches the slots allocated before it
+    public TranspositionTable(int sizeLog2) {
+        if (sizeLog2 < 1 || sizeLog2 > 26) {
+            throw new IllegalArgumentException("Invalid table size: 2^" + sizeLog2);
+        }
+        slots = new AtomicLongArray(2 << sizeLog2);
+        mask = (1 << sizeLog2) - 1;
+        clear();
+    }
+
+    /**
+     * Looks up a position
+     * @param hash Zobrist hash of the position
+     * @return The data stored for it, or MISS
+     */
+    public long probe(long hash) {
+        int slot = ((int) hash & mask) << 1;
+        long data = slots.getOpaque(slot + 1);
+        long check = slots.getOpaque(slot);
+        return (check ^ data) == hash ? data : MISS;
+    }
+
+    /**
+     * Stores data for a position, replacing whatever was in its slot
+     * @param hash Zobrist hash of the position
+     * @param data Any value except MISS
+     */
+    public void store(long hash, long data) {
+        int slot = ((int) hash & mask) << 1;
+        slots.setOpaque(slot, hash ^ data);
+        slots.setOpaque(slot + 1, data);
+    }
+
+    /**
+     * Removes all entries (not while other threads use the table)
+     */
+    public void clear() {
+        // An empty slot is a MISS for every hash: check 0 would need hash == data == MISS
+        for (int i = 0; i < slots.length(); i += 2) {
+            slots.setPlain(i, 0);
+            slots.setPlain(i + 1, MISS);
+        }
+    }
+
+    /**
+     * @return Number of entries
+     */
+    public int size() { return mask + 1; }
+}